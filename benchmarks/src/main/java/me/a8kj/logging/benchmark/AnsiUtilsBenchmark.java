@@ -0,0 +1,51 @@
+package me.a8kj.logging.benchmark;
+
+import me.a8kj.logging.util.AnsiUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AnsiUtils#stripColors(String)} on plain and colored text.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnsiUtilsBenchmark {
+
+    private String plain = "[12:00:00] [INFO] [System] Player Steve joined world 42";
+    private String colored = "[12:00:00] \u001B[32m[INFO]\u001B[0m [System] Player \u001B[1;33mSteve\u001B[0m joined world 42";
+
+    /**
+     * Text without escape sequences, the common case for file destinations.
+     *
+     * @return The stripped text.
+     */
+    @Benchmark
+    public String stripPlain() {
+        return AnsiUtils.stripColors(plain);
+    }
+
+    /**
+     * Text with several escape sequences.
+     *
+     * @return The stripped text.
+     */
+    @Benchmark
+    public String stripColored() {
+        return AnsiUtils.stripColors(colored);
+    }
+}
@@ -0,0 +1,89 @@
+package me.a8kj.logging.benchmark;
+
+import me.a8kj.logging.LogBuilder;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.impl.AsyncLogger;
+import me.a8kj.logging.impl.OverflowPolicy;
+import me.a8kj.logging.impl.PerThreadAsyncLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the producer side of the asynchronous loggers: the shared ring buffer of
+ * {@link AsyncLogger} against the per-thread buffers of {@link PerThreadAsyncLogger}.
+ * The wrapped logger discards everything, so the numbers show how publishing scales
+ * with the thread count.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncLoggerBenchmark {
+
+    /**
+     * {@code shared} for {@link AsyncLogger}, {@code perThread} for {@link PerThreadAsyncLogger}.
+     */
+    @Param({"shared", "perThread"})
+    public String queue;
+
+    private Logger logger;
+
+    /**
+     * Starts the logger under test.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Logger discard = new Logger() {
+            @Override
+            public void log(String message, LogKind kind) {
+            }
+
+            @Override
+            public void log(LogEvent event) {
+            }
+        };
+        logger = queue.equals("shared")
+                ? new AsyncLogger(discard, 65536, OverflowPolicy.BLOCK)
+                : new PerThreadAsyncLogger(discard, 4096, PerThreadAsyncLogger.DEFAULT_MAX_DELAY_MILLIS, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Stops the logger under test.
+     *
+     * @throws Exception If closing fails.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) logger).close();
+    }
+
+    /**
+     * Publishes one entry with a primitive argument.
+     */
+    @Benchmark
+    public void publish() {
+        new LogBuilder(logger)
+                .message("Tick %d")
+                .arg(42)
+                .send();
+    }
+}
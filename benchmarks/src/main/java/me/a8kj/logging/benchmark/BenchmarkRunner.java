@@ -0,0 +1,53 @@
+package me.a8kj.logging.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks at 1, 4 and 16 threads with the GC profiler, so every result
+ * includes the allocation rate per operation ({@code gc.alloc.rate.norm}).
+ * <p>
+ * The optional first argument is a regular expression selecting benchmarks, e.g.
+ * {@code LogBenchmark}; by default all of them run. The results of each thread
+ * count are written to {@code jmh-<threads>-threads.json} in the working directory.
+ * </p>
+ *
+ * <pre>
+ * mvn install
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar [regex]
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class BenchmarkRunner {
+
+    private static final int[] THREADS = {1, 4, 16};
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Entry point.
+     *
+     * @param args An optional benchmark include pattern.
+     * @throws RunnerException If a benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*";
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-" + threads + "-threads.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
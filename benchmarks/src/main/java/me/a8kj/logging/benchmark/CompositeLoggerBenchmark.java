@@ -0,0 +1,85 @@
+package me.a8kj.logging.benchmark;
+
+import me.a8kj.logging.LogBuilder;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.impl.CompositeLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the fan-out of one event from a {@link CompositeLogger} to 1, 4 and 16
+ * destinations. Every destination reads the formatted message, so the cost of
+ * formatting once and sharing the result is part of the measurement.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeLoggerBenchmark {
+
+    /**
+     * The number of registered destinations.
+     */
+    @Param({"1", "4", "16"})
+    public int sinks;
+
+    private final CompositeLogger composite = new CompositeLogger();
+
+    /**
+     * Registers the destinations.
+     *
+     * @param blackhole Consumes what the destinations read.
+     */
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        for (int i = 0; i < sinks; i++) {
+            composite.addLogger(new ConsumingLogger(blackhole));
+        }
+    }
+
+    /**
+     * Sends an entry with one argument through a new builder.
+     */
+    @Benchmark
+    public void fanOut() {
+        new LogBuilder(composite)
+                .message("Player %s joined")
+                .arg("Steve")
+                .send();
+    }
+
+    /**
+     * A destination that reads the rendered message and discards it.
+     */
+    private record ConsumingLogger(Blackhole blackhole) implements Logger {
+
+        @Override
+        public void log(String message, LogKind kind) {
+            blackhole.consume(message);
+        }
+
+        @Override
+        public void log(LogEvent event) {
+            blackhole.consume(event.getMessage());
+        }
+    }
+}
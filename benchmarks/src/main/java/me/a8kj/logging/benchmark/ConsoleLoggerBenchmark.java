@@ -0,0 +1,76 @@
+package me.a8kj.logging.benchmark;
+
+import me.a8kj.logging.LogBuilder;
+import me.a8kj.logging.impl.ConsoleLogger;
+import me.a8kj.logging.util.TimestampFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a {@link ConsoleLogger} rendering into a null stream, with and without
+ * colored level badges.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleLoggerBenchmark {
+
+    /**
+     * Whether level badges are colored.
+     */
+    @Param({"false", "true"})
+    public boolean colors;
+
+    private ConsoleLogger logger;
+    private PrintStream stdout;
+
+    /**
+     * Redirects standard output to a null stream.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        logger = new ConsoleLogger(TimestampFormatter.TIME_OF_DAY, colors);
+    }
+
+    /**
+     * Restores standard output.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    /**
+     * Prints one line with two arguments.
+     */
+    @Benchmark
+    public void write() {
+        new LogBuilder(logger)
+                .message("Player %s joined world %d")
+                .arg("Steve")
+                .arg(42)
+                .send();
+    }
+}
@@ -0,0 +1,89 @@
+package me.a8kj.logging.benchmark;
+
+import me.a8kj.logging.LogBuilder;
+import me.a8kj.logging.impl.FileLogger;
+import me.a8kj.logging.impl.FlushPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a {@link FileLogger} writing to tmpfs ({@code /dev/shm} when available,
+ * otherwise the temporary directory), so that the numbers reflect the logger rather
+ * than the disk. The file is deleted after every iteration to keep it small.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileLoggerBenchmark {
+
+    private static final Path TMPFS = Path.of("/dev/shm");
+
+    /**
+     * The flush policy: {@code always} flushes every line, {@code grouped} every 512
+     * lines or second.
+     */
+    @Param({"always", "grouped"})
+    public String flush;
+
+    private Path file;
+    private FileLogger logger;
+
+    /**
+     * Opens a fresh log file.
+     *
+     * @throws IOException If the file cannot be created.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        Path dir = Files.isDirectory(TMPFS) && Files.isWritable(TMPFS)
+                ? TMPFS
+                : Path.of(System.getProperty("java.io.tmpdir"));
+        file = Files.createTempFile(dir, "simplelog-bench", ".log");
+        FlushPolicy policy = flush.equals("always") ? FlushPolicy.always() : FlushPolicy.grouped(512, 1000);
+        logger = new FileLogger(file.toString(), policy);
+    }
+
+    /**
+     * Closes and deletes the log file.
+     *
+     * @throws Exception If the file cannot be closed or deleted.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        logger.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Writes one line with two arguments.
+     */
+    @Benchmark
+    public void write() {
+        new LogBuilder(logger)
+                .message("Player %s joined world %d")
+                .arg("Steve")
+                .arg(42)
+                .send();
+    }
+}
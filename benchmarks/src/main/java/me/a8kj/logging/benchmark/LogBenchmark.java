@@ -0,0 +1,106 @@
+package me.a8kj.logging.benchmark;
+
+import me.a8kj.logging.Log;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.impl.ConsoleLogger;
+import me.a8kj.logging.util.TimestampFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link Log} facade end to end: level check, builder, event capture,
+ * formatting and rendering by a {@link ConsoleLogger} whose output is discarded.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogBenchmark {
+
+    private final ConsoleLogger console = new ConsoleLogger(TimestampFormatter.TIME_OF_DAY, false);
+    private final IllegalStateException exception = new IllegalStateException("Benchmark failure");
+    private PrintStream stdout;
+
+    /**
+     * Redirects standard output to a null stream and registers the console destination.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Log.setDebugEnabled(false);
+        Log.addDestination(console);
+    }
+
+    /**
+     * Unregisters the destination and restores standard output.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Log.removeDestination(console);
+        System.setOut(stdout);
+    }
+
+    /**
+     * A constant message without arguments.
+     */
+    @Benchmark
+    public void infoNoArgs() {
+        Log.info("Server tick completed");
+    }
+
+    /**
+     * A template with an object and a primitive argument.
+     */
+    @Benchmark
+    public void infoWithArgs() {
+        Log.info("Player %s joined world %d", "Steve", 42);
+    }
+
+    /**
+     * A single unboxed primitive argument.
+     */
+    @Benchmark
+    public void infoWithPrimitiveArg() {
+        Log.info("Loaded %d chunks", 1024);
+    }
+
+    /**
+     * A debug call rejected by the level check.
+     */
+    @Benchmark
+    public void debugDisabled() {
+        Log.debug("Tick %d took %d ms", 1000, 12);
+    }
+
+    /**
+     * An error with an attached exception, sent through the fluent builder.
+     */
+    @Benchmark
+    public void sendWithException() {
+        Log.create()
+                .kind(LogKind.ERROR)
+                .message("Failed to save chunk %d")
+                .arg(7)
+                .exception(exception)
+                .send();
+    }
+}
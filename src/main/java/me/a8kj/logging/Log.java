@@ -3,8 +3,12 @@ package me.a8kj.logging;
 
 import lombok.Getter;
 import me.a8kj.logging.impl.CompositeLogger;
+import me.a8kj.logging.impl.IsolationPolicy;
+import me.a8kj.logging.impl.SinkHealth;
+import me.a8kj.logging.util.StackTraceRenderer;
 
 import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * The main entry point for the logging system.
@@ -16,17 +20,82 @@ import java.util.Objects;
 
 public class Log {
     private static final CompositeLogger composite = new CompositeLogger();
+    private static final ThreadLocal<LogBuilder> builders =
+            ThreadLocal.withInitial(() -> new LogBuilder(composite, true));
     @Getter
-    private static boolean debugEnabled = false;
+    private static volatile boolean garbageFree = false;
+    @Getter
+    private static volatile boolean preciseTimestamps = false;
+    @Getter
+    private static volatile StackTraceRenderer stackTraceRenderer = StackTraceRenderer.full();
 
     /**
-     * Toggles the visibility of debug-level log messages.
+     * Toggles the visibility of debug-level log messages for every context without
+     * its own level; see {@link LogLevels} for per-context levels. Disabling debug
+     * output restores the default level that was set before it was enabled.
      *
      * @param enabled True to enable debug logging, false to ignore it.
      */
     @SuppressWarnings("unused")
     public static void setDebugEnabled(boolean enabled) {
-        debugEnabled = enabled;
+        LogLevels.setDebugDefault(enabled);
+    }
+
+    /**
+     * @return {@code true} if debug entries are logged for contexts without their own level.
+     */
+    public static boolean isDebugEnabled() {
+        return LogLevels.getDefaultLevel() == LogKind.DEBUG;
+    }
+
+    /**
+     * Sets the minimum level of one context, or of a context hierarchy with a trailing
+     * {@code ".*"}, for example to enable debug output for a single module.
+     *
+     * @param pattern     The context name or hierarchy pattern, e.g. {@code "Network.*"}.
+     * @param minimumKind The least severe {@link LogKind} that is logged for matching contexts.
+     * @see LogLevels#setLevel(String, LogKind)
+     */
+    public static void setContextLevel(String pattern, LogKind minimumKind) {
+        LogLevels.setLevel(pattern, minimumKind);
+    }
+
+    /**
+     * Toggles the garbage-free mode. When enabled, the static logging methods
+     * recycle one {@link LogBuilder} and {@link LogEvent} per thread instead of
+     * allocating new ones, so steady-state logging with integral, boolean or char
+     * arguments does not create garbage; floating-point arguments are not boxed, but
+     * the JDK allocates a small temporary to render them. Builders returned by
+     * {@link #create()} are never recycled, and neither are builders on virtual
+     * threads, which are too short-lived for a per-thread builder to pay off.
+     *
+     * @param enabled True to recycle builders and events, false to allocate them per call.
+     */
+    public static void setGarbageFree(boolean enabled) {
+        garbageFree = enabled;
+    }
+
+    /**
+     * Toggles sub-millisecond timestamps. When enabled, events also capture the
+     * nanoseconds within the millisecond (see {@link LogEvent#getNanos()}), which
+     * {@link me.a8kj.logging.util.TimestampFormatter} can show with micro- or
+     * nanosecond precision. Reading the precise clock allocates a small object per event.
+     *
+     * @param enabled True to capture nanoseconds, false for millisecond timestamps.
+     */
+    public static void setPreciseTimestamps(boolean enabled) {
+        preciseTimestamps = enabled;
+    }
+
+    /**
+     * Replaces the renderer used for the stack traces of logged exceptions, for example
+     * to limit their depth, collapse JDK frames or print repeated traces as back-references.
+     *
+     * @param renderer The {@link StackTraceRenderer} used by {@link LogEvent#renderTo(StringBuilder)}.
+     * @throws NullPointerException if the renderer is null.
+     */
+    public static void setStackTraceRenderer(StackTraceRenderer renderer) {
+        stackTraceRenderer = Objects.requireNonNull(renderer);
     }
 
     /**
@@ -39,6 +108,86 @@ public class Log {
         composite.addLogger(Objects.requireNonNull(logger));
     }
 
+    /**
+     * Registers a logging destination that only receives entries at least as
+     * severe as the given kind, for example {@link LogKind#WARN} for an alerting sink.
+     *
+     * @param logger      The {@link Logger} implementation to add.
+     * @param minimumKind The least severe {@link LogKind} the destination receives.
+     * @throws NullPointerException if the provided logger or kind is null.
+     */
+    public static void addDestination(Logger logger, LogKind minimumKind) {
+        composite.addLogger(Objects.requireNonNull(logger), Objects.requireNonNull(minimumKind));
+    }
+
+    /**
+     * Registers a logging destination with its own bounded queue and drain worker, so
+     * that a slow destination (a stalled disk, a blocked terminal) delays neither the
+     * application threads nor the other destinations.
+     *
+     * @param logger      The {@link Logger} implementation to add.
+     * @param minimumKind The least severe {@link LogKind} the destination receives.
+     * @param isolation   The {@link IsolationPolicy} of the destination's queue.
+     * @throws NullPointerException if any argument is null.
+     */
+    public static void addDestination(Logger logger, LogKind minimumKind, IsolationPolicy isolation) {
+        composite.addLogger(Objects.requireNonNull(logger), Objects.requireNonNull(minimumKind),
+                Objects.requireNonNull(isolation));
+    }
+
+    /**
+     * Isolates every destination registered from now on, giving each its own queue and
+     * drain worker with the given policy. Destinations that are already registered are
+     * not affected.
+     *
+     * @param isolation The {@link IsolationPolicy} of new destinations, or {@code null}
+     *                  to invoke them on the caller thread again.
+     */
+    public static void setDestinationIsolation(IsolationPolicy isolation) {
+        composite.setDefaultIsolation(isolation);
+    }
+
+    /**
+     * Reports whether a registered destination keeps up with its entries.
+     *
+     * @param logger The registered {@link Logger}.
+     * @return The {@link SinkHealth} of the destination, or {@code null} if it is not registered.
+     */
+    public static SinkHealth getDestinationHealth(Logger logger) {
+        return composite.getHealth(logger);
+    }
+
+    /**
+     * Unregisters a logging destination. The destination is not closed.
+     *
+     * @param logger The {@link Logger} implementation to remove.
+     * @return {@code true} if the destination was registered.
+     */
+    public static boolean removeDestination(Logger logger) {
+        return composite.removeLogger(logger);
+    }
+
+    /**
+     * Checks whether an entry of the given kind and context would be written by
+     * any registered destination. This check does not allocate and can be used to
+     * guard expensive message preparation.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if at least one destination accepts the entry.
+     */
+    public static boolean isEnabled(LogKind kind, LogContext context) {
+        return composite.isEnabled(kind, context);
+    }
+
+    /**
+     * Flushes every registered destination, pushing buffered entries to their
+     * final destination.
+     */
+    public static void flush() {
+        composite.flush();
+    }
+
     /**
      * Creates a new fluent builder instance for complex log requirements.
      *
@@ -48,6 +197,26 @@ public class Log {
         return new LogBuilder(composite);
     }
 
+    /**
+     * Returns the builder used by the static logging methods: the thread's
+     * recycled builder in garbage-free mode on platform threads, otherwise a new one.
+     */
+    private static LogBuilder builder() {
+        if (garbageFree && !Thread.currentThread().isVirtual()) {
+            LogBuilder builder = builders.get();
+            if (builder.acquire()) return builder;
+        }
+        return new LogBuilder(composite);
+    }
+
+    /**
+     * Sets the template and single argument of a one-argument call. An {@code Object[]}
+     * is spread over the placeholders, as it would be by the varargs overload.
+     */
+    private static LogBuilder message(LogBuilder builder, String msg, Object arg) {
+        return arg instanceof Object[] array ? builder.message(msg, array) : builder.message(msg).arg(arg);
+    }
+
     /**
      * Logs a debug message if debugging is enabled.
      *
@@ -55,8 +224,100 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void debug(String msg, Object... args) {
-        if (debugEnabled) {
-            create().kind(LogKind.DEBUG).message(msg, args).send();
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg, args).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single argument if debugging is enabled.
+     * This overload avoids the varargs array; an {@code Object[]} argument is still
+     * spread over the placeholders.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, Object arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            message(builder().kind(LogKind.DEBUG), msg, arg).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single {@code int} argument if debugging is enabled.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, int arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single {@code long} argument if debugging is enabled.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, long arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single {@code float} argument if debugging is enabled.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, float arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single {@code double} argument if debugging is enabled.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, double arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single {@code boolean} argument if debugging is enabled.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, boolean arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs a debug message with a single {@code char} argument if debugging is enabled.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void debug(String msg, char arg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).arg(arg).send();
         }
     }
 
@@ -67,7 +328,101 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void info(String msg, Object... args) {
-        create().kind(LogKind.INFO).message(msg, args).send();
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg, args).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single argument.
+     * This overload avoids the varargs array; an {@code Object[]} argument is still
+     * spread over the placeholders.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, Object arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            message(builder().kind(LogKind.INFO), msg, arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single {@code int} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, int arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single {@code long} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, long arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single {@code float} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, float arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single {@code double} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, double arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single {@code boolean} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, boolean arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a single {@code char} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(String msg, char arg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
     }
 
     /**
@@ -77,7 +432,9 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void warn(String msg, Object... args) {
-        create().kind(LogKind.WARN).message(msg, args).send();
+        if (isEnabled(LogKind.WARN, LogContext.SYSTEM)) {
+            builder().kind(LogKind.WARN).message(msg, args).send();
+        }
     }
 
     /**
@@ -87,7 +444,9 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void error(String msg, Object... args) {
-        create().kind(LogKind.ERROR).message(msg, args).send();
+        if (isEnabled(LogKind.ERROR, LogContext.SYSTEM)) {
+            builder().kind(LogKind.ERROR).message(msg, args).send();
+        }
     }
 
     /**
@@ -98,18 +457,179 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void info(LogContext ctx, String msg, Object... args) {
-        create().context(ctx).kind(LogKind.INFO).message(msg, args).send();
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg, args).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single argument.
+     * This overload avoids the varargs array; an {@code Object[]} argument is still
+     * spread over the placeholders.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, Object arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            message(builder().context(ctx).kind(LogKind.INFO), msg, arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single {@code int} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, int arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single {@code long} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, long arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single {@code float} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, float arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single {@code double} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, double arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single {@code boolean} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, boolean arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs an informational message with a specific context and a single {@code char} argument.
+     * The argument is passed on without boxing.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg The message template.
+     * @param arg The formatting argument.
+     */
+    public static void info(LogContext ctx, String msg, char arg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).arg(arg).send();
+        }
+    }
+
+    /**
+     * Logs a lazily computed debug message. The supplier is only invoked
+     * when debug logging is enabled and a destination accepts the entry.
+     *
+     * @param msg Produces the message text.
+     */
+    public static void debug(Supplier<String> msg) {
+        if (isEnabled(LogKind.DEBUG, LogContext.SYSTEM)) {
+            builder().kind(LogKind.DEBUG).message(msg).send();
+        }
+    }
+
+    /**
+     * Logs a lazily computed informational message.
+     *
+     * @param msg Produces the message text.
+     */
+    public static void info(Supplier<String> msg) {
+        if (isEnabled(LogKind.INFO, LogContext.SYSTEM)) {
+            builder().kind(LogKind.INFO).message(msg).send();
+        }
     }
 
     /**
-     * Logs a formatted chat message.
+     * Logs a lazily computed warning message.
+     *
+     * @param msg Produces the message text.
+     */
+    public static void warn(Supplier<String> msg) {
+        if (isEnabled(LogKind.WARN, LogContext.SYSTEM)) {
+            builder().kind(LogKind.WARN).message(msg).send();
+        }
+    }
+
+    /**
+     * Logs a lazily computed error message.
+     *
+     * @param msg Produces the message text.
+     */
+    public static void error(Supplier<String> msg) {
+        if (isEnabled(LogKind.ERROR, LogContext.SYSTEM)) {
+            builder().kind(LogKind.ERROR).message(msg).send();
+        }
+    }
+
+    /**
+     * Logs a lazily computed informational message with a specific context.
+     *
+     * @param ctx The {@link LogContext} source.
+     * @param msg Produces the message text.
+     */
+    public static void info(LogContext ctx, Supplier<String> msg) {
+        if (isEnabled(LogKind.INFO, ctx)) {
+            builder().context(ctx).kind(LogKind.INFO).message(msg).send();
+        }
+    }
+
+    /**
+     * Logs a formatted chat message. Chat is usually the most frequent kind; see
+     * {@link LogSampling} to keep only a sample of it.
      *
      * @param ctx  The {@link LogContext} source.
      * @param user The username of the sender.
      * @param msg  The chat content.
      */
     public static void chat(LogContext ctx, String user, String msg) {
-        create().kind(LogKind.CHAT).context(ctx).message("[%s]: %s", user, msg).send();
+        if (isEnabled(LogKind.CHAT, ctx)) {
+            builder().kind(LogKind.CHAT).context(ctx).message("[%s]: %s").arg(user).arg(msg).send();
+        }
     }
 
     /**
@@ -118,7 +638,7 @@ public class Log {
      * @param t The throwable to log.
      */
     public static void exception(Throwable t) {
-        create().kind(LogKind.EXCEPTION).exception(t).send();
+        builder().kind(LogKind.EXCEPTION).exception(t).send();
     }
 
     /**
@@ -128,7 +648,7 @@ public class Log {
      * @param t       The throwable to log.
      */
     public static void exception(String message, Throwable t) {
-        create().kind(LogKind.EXCEPTION).exception(t).message(message).send();
+        builder().kind(LogKind.EXCEPTION).exception(t).message(message).send();
     }
 
     /**
@@ -139,7 +659,7 @@ public class Log {
      * @param t       The throwable to log.
      */
     public static void exception(LogContext ctx, String message, Throwable t) {
-        create().context(ctx).kind(LogKind.EXCEPTION).exception(t).message(message).send();
+        builder().context(ctx).kind(LogKind.EXCEPTION).exception(t).message(message).send();
     }
 
     /**
@@ -150,7 +670,9 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void custom(String msg, Object... args) {
-        create().kind(LogKind.CUSTOM).message(msg, args).send();
+        if (isEnabled(LogKind.CUSTOM, LogContext.SYSTEM)) {
+            builder().kind(LogKind.CUSTOM).message(msg, args).send();
+        }
     }
 
     /**
@@ -161,19 +683,22 @@ public class Log {
      * @param args Formatting arguments.
      */
     public static void custom(LogContext ctx, String msg, Object... args) {
-        create().context(ctx).kind(LogKind.CUSTOM).message(msg, args).send();
+        if (isEnabled(LogKind.CUSTOM, ctx)) {
+            builder().context(ctx).kind(LogKind.CUSTOM).message(msg, args).send();
+        }
     }
 
     /**
-     * Logs a fatal error and immediately terminates the application.
-     * Use this only for unrecoverable system failures.
+     * Logs a fatal error, flushes every destination and immediately terminates
+     * the application. Use this only for unrecoverable system failures.
      *
      * @param ctx  The {@link LogContext} source.
      * @param msg  The message template.
      * @param args Formatting arguments.
      */
     public static void fatal(LogContext ctx, String msg, Object... args) {
-        create().context(ctx).kind(LogKind.FATAL).message(msg, args).send();
+        builder().context(ctx).kind(LogKind.FATAL).message(msg, args).send();
+        flush();
         System.exit(1);
     }
 }
\ No newline at end of file
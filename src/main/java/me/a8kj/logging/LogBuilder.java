@@ -1,18 +1,24 @@
 package me.a8kj.logging;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import me.a8kj.logging.metrics.LogMetrics;
+
+import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * A fluent builder class for constructing and dispatching log messages.
  * This class follows the Builder Pattern to allow flexible configuration
- * of log context, severity, and exception data before sending it to a {@link Logger}.
+ * of log context, severity, and exception data before sending it to a {@link Logger}
+ * as a {@link LogEvent}.
  * <p>
  * It supports:
  * <ul>
  *     <li>Context-specific logging</li>
  *     <li>Severity levels via {@link LogKind}</li>
- *     <li>Formatted messages using {@link String#format}</li>
+ *     <li>Formatted messages using {@link String#format}, deferred until the entry is accepted</li>
+ *     <li>Lazily computed messages via {@link Supplier}</li>
+ *     <li>Primitive arguments via {@link #arg(int)} and its overloads, stored without boxing</li>
+ *     <li>Structured key/value fields via {@link #field(String, Object)} and its overloads</li>
  *     <li>Exception logging with full stack trace</li>
  * </ul>
  * </p>
@@ -22,10 +28,14 @@ import java.io.StringWriter;
 public class LogBuilder {
 
     private final Logger logger;
+    private final boolean reusable;
+    private final LogEvent event = new LogEvent();
     private LogContext context = LogContext.SYSTEM;
     private LogKind kind = LogKind.INFO;
     private String message = "";
+    private Supplier<String> supplier;
     private Throwable throwable;
+    private boolean inUse;
 
     /**
      * Initializes a new LogBuilder with a target logger.
@@ -33,7 +43,19 @@ public class LogBuilder {
      * @param logger The {@link Logger} implementation where the final log will be sent.
      */
     public LogBuilder(Logger logger) {
+        this(logger, false);
+    }
+
+    /**
+     * Initializes a builder that, if reusable, resets itself and its event after
+     * every {@link #send()} so that it can be recycled by the same thread.
+     *
+     * @param logger   The {@link Logger} implementation where the final log will be sent.
+     * @param reusable Whether the builder is recycled after sending.
+     */
+    LogBuilder(Logger logger, boolean reusable) {
         this.logger = logger;
+        this.reusable = reusable;
     }
 
     /**
@@ -58,19 +80,212 @@ public class LogBuilder {
         return this;
     }
 
+    /**
+     * Sets a log message template whose arguments are added with {@link #arg(Object)}
+     * and its overloads, or a plain message if none are added.
+     *
+     * @param message The message template string.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder message(String message) {
+        this.message = message;
+        this.supplier = null;
+        event.setArgs(null);
+        return this;
+    }
+
     /**
      * Sets the log message. Supports standard {@link String#format} placeholders.
+     * Formatting is deferred to {@link #send()} and skipped entirely when no
+     * destination accepts the entry.
      *
      * @param message The message template string.
      * @param args    Arguments referenced by the format specifiers in the message string.
      * @return This builder instance for method chaining.
      */
     public LogBuilder message(String message, Object... args) {
-        if (args != null && args.length > 0) {
-            this.message = String.format(message, args);
-        } else {
-            this.message = message;
-        }
+        this.message = message;
+        this.supplier = null;
+        event.setArgs(args);
+        return this;
+    }
+
+    /**
+     * Sets a lazily computed log message. The supplier is only invoked by
+     * {@link #send()} when at least one destination accepts the entry.
+     *
+     * @param supplier Produces the message text.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder message(Supplier<String> supplier) {
+        this.supplier = supplier;
+        this.message = "";
+        event.setArgs(null);
+        return this;
+    }
+
+    /**
+     * Appends an argument for the next placeholder of the message template.
+     * Arguments added this way follow those passed to {@link #message(String, Object...)}.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(Object value) {
+        event.addArg(LogEvent.ArgType.OBJECT, 0, value);
+        return this;
+    }
+
+    /**
+     * Appends an {@code int} argument without boxing it.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(int value) {
+        event.addArg(LogEvent.ArgType.INT, value, null);
+        return this;
+    }
+
+    /**
+     * Appends a {@code long} argument without boxing it.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(long value) {
+        event.addArg(LogEvent.ArgType.LONG, value, null);
+        return this;
+    }
+
+    /**
+     * Appends a {@code float} argument without boxing it.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(float value) {
+        event.addArg(LogEvent.ArgType.FLOAT, Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    /**
+     * Appends a {@code double} argument without boxing it.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(double value) {
+        event.addArg(LogEvent.ArgType.DOUBLE, Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    /**
+     * Appends a {@code boolean} argument without boxing it.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(boolean value) {
+        event.addArg(LogEvent.ArgType.BOOLEAN, value ? 1 : 0, null);
+        return this;
+    }
+
+    /**
+     * Appends a {@code char} argument without boxing it.
+     *
+     * @param value The argument value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder arg(char value) {
+        event.addArg(LogEvent.ArgType.CHAR, value, null);
+        return this;
+    }
+
+    /**
+     * Sets a structured key/value field on this entry. Fields are written by structured
+     * destinations such as {@code JsonLinesLogger}; the text layouts leave them out.
+     * A later value for the same key replaces the earlier one, and a field set here
+     * takes precedence over a {@link LogScope} field with the same key.
+     *
+     * @param key   The field name.
+     * @param value The field value; numbers, booleans and strings keep their type in structured output.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, Object value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.OBJECT, 0, value);
+        return this;
+    }
+
+    /**
+     * Sets an {@code int} field without boxing it.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, int value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.INT, value, null);
+        return this;
+    }
+
+    /**
+     * Sets a {@code long} field without boxing it.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, long value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.LONG, value, null);
+        return this;
+    }
+
+    /**
+     * Sets a {@code float} field without boxing it.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, float value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.FLOAT, Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    /**
+     * Sets a {@code double} field without boxing it.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, double value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.DOUBLE, Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    /**
+     * Sets a {@code boolean} field without boxing it.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, boolean value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.BOOLEAN, value ? 1 : 0, null);
+        return this;
+    }
+
+    /**
+     * Sets a {@code char} field without boxing it.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This builder instance for method chaining.
+     */
+    public LogBuilder field(String key, char value) {
+        event.putField(Objects.requireNonNull(key), LogEvent.ArgType.CHAR, value, null);
         return this;
     }
 
@@ -90,26 +305,55 @@ public class LogBuilder {
     }
 
     /**
-     * Formats the final log string including context and throwable details,
-     * then dispatches it to the underlying logger.
+     * Captures the configured values into a {@link LogEvent} and dispatches it
+     * to the underlying logger.
      * <p>
-     * If a throwable is attached, its full stack trace is appended to the log message.
+     * Nothing is formatted if the logger reports the entry as disabled via
+     * {@link Logger#isEnabled(LogKind, LogContext)} or if a {@link Sampler} registered
+     * with {@link LogSampling} drops it. A message supplier is invoked
+     * here, while template formatting and stack-trace rendering are left to the
+     * destinations that actually need them. While {@link LogMetrics} is enabled, accepted
+     * entries are counted and the time spent dispatching them is recorded.
      * </p>
      */
     public void send() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(context.toString()).append(" ").append(message);
+        try {
+            if (!logger.isEnabled(kind, context) || !LogSampling.sample(kind, context)) return;
 
-        if (throwable != null) {
-            sb.append(" | ").append(throwable.getClass().getSimpleName())
-                    .append(": ").append(throwable.getMessage());
-
-            StringWriter sw = new StringWriter();
-            PrintWriter pw = new PrintWriter(sw);
-            throwable.printStackTrace(pw);
-            sb.append("\n").append(sw.toString());
+            long start = LogMetrics.isEnabled() ? System.nanoTime() : 0;
+            if (supplier != null) {
+                event.init(kind, context, supplier.get(), throwable);
+            } else {
+                event.init(kind, context, message, throwable);
+            }
+            logger.log(event);
+            if (start != 0) {
+                LogMetrics.recordSend(kind, context, System.nanoTime() - start);
+            }
+        } finally {
+            if (reusable) reset();
         }
+    }
+
+    /**
+     * Marks a reusable builder as taken by the current call.
+     *
+     * @return {@code false} if the builder is already in use further up the
+     * stack, e.g. when formatting an argument logs on its own.
+     */
+    boolean acquire() {
+        if (inUse) return false;
+        inUse = true;
+        return true;
+    }
 
-        logger.log(sb.toString(), kind);
+    private void reset() {
+        context = LogContext.SYSTEM;
+        kind = LogKind.INFO;
+        message = "";
+        supplier = null;
+        throwable = null;
+        event.clear();
+        inUse = false;
     }
 }
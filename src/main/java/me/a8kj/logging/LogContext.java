@@ -2,21 +2,68 @@ package me.a8kj.logging;
 
 import lombok.NonNull;
 
+import java.util.Objects;
+
 /**
  * Provides contextual information for a log entry, such as a source name or thread identifier.
- * This record is designed to facilitate different logging strategies (e.g., Discord webhooks,
+ * This class is designed to facilitate different logging strategies (e.g., Discord webhooks,
  * database logging) by allowing them to categorize or format messages based on the source.
- * * @param name The name of the context (e.g., "System", "Thread-1", or a specific Bot name).
+ * <p>
+ * Names form a hierarchy separated by dots ({@code "Network.Http"} belongs to
+ * {@code "Network"}), which {@link LogLevels} uses for per-context thresholds. Each
+ * context caches its resolved threshold, so contexts should be created once and reused.
+ * </p>
  *
  * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
  */
-public record LogContext(String name) {
+public final class LogContext {
 
     /**
      * A default global context used for general system-level logs.
      */
     public static final LogContext SYSTEM = new LogContext("System");
 
+    private final String name;
+
+    /**
+     * The threshold resolved by {@link LogLevels}: the rule version in the upper
+     * 32 bits and the minimum severity in the lower 32 bits.
+     */
+    volatile long threshold = -1L;
+
+    /**
+     * @param name The name of the context (e.g., "System", "Thread-1", or a specific Bot name).
+     */
+    public LogContext(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the context.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Contexts are equal when their names are equal.
+     *
+     * @param o The object to compare with.
+     * @return {@code true} if the other object is a context with the same name.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof LogContext other && Objects.equals(name, other.name);
+    }
+
+    /**
+     * @return The hash code of the name.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
+
     /**
      * Returns a formatted string representation of the context.
      *
@@ -26,4 +73,4 @@ public record LogContext(String name) {
     public @NonNull String toString() {
         return "[" + name + "]";
     }
-}
\ No newline at end of file
+}
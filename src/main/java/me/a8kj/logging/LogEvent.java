@@ -0,0 +1,636 @@
+package me.a8kj.logging;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * A single log entry as it travels from {@link LogBuilder} to the destinations.
+ * <p>
+ * The event keeps the raw parts of the entry instead of a pre-rendered string:
+ * the timestamp (captured once, when the event is created), the {@link LogKind},
+ * the {@link LogContext}, the logging thread, the message template with its raw
+ * arguments and the attached {@link Throwable}. Each {@link Logger} can therefore
+ * render the entry in its own format, and the message is only formatted the first
+ * time somebody asks for it.
+ * </p>
+ * <p>
+ * Arguments keep their primitive type when they are added through {@link LogBuilder#arg(int)}
+ * and its siblings, so they are never boxed; see {@link #getArgType(int)}.
+ * </p>
+ * <p>
+ * Events may also carry structured key/value fields, set per entry with
+ * {@link LogBuilder#field(String, Object)} or for a whole block of code with
+ * {@link LogScope}. Fields are stored like arguments, typed and without boxing,
+ * and are read through {@link #getFieldCount()} and the {@code getField} accessors.
+ * </p>
+ * <p>
+ * Events may be reused: the garbage-free mode of {@link Log} recycles one event per
+ * thread, and {@link #copyFrom(LogEvent)} refills preallocated events. A destination
+ * that keeps an event after {@link Logger#log(LogEvent)} returns must {@link #copy()} it.
+ * Message arguments are formatted lazily, possibly on another thread when an
+ * asynchronous destination is involved, so they should not be mutated after logging.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class LogEvent {
+
+    /**
+     * The storage type of a message argument.
+     */
+    public enum ArgType {
+        OBJECT, INT, LONG, FLOAT, DOUBLE, BOOLEAN, CHAR
+    }
+
+    private static final int MAX_REUSABLE_MESSAGE = 4096;
+
+    /**
+     * The creation time in milliseconds since the epoch.
+     */
+    @Getter
+    private long timestamp;
+    /**
+     * The nanoseconds within the millisecond of {@link #getTimestamp()}, from 0 to 999,999;
+     * zero unless {@link Log#setPreciseTimestamps(boolean)} is enabled.
+     */
+    @Getter
+    private int nanos;
+    @Getter
+    private LogKind kind;
+    /**
+     * The source of the entry, or {@code null} for plain messages whose text
+     * already carries any context information.
+     */
+    @Getter
+    private LogContext context;
+    @Getter
+    private String threadName;
+    /**
+     * The message template; a plain message when there are no arguments.
+     */
+    @Getter
+    private String template = "";
+    @Getter
+    private Throwable throwable;
+
+    private Object[] args;
+    private ArgType[] argTypes;
+    private int argCount;
+    private boolean ownsArgs;
+    private Object[] ownedArgs;
+    private ArgType[] ownedTypes;
+    private long[] primitiveArgs;
+
+    private int fieldCount;
+    private String[] fieldKeys;
+    private ArgType[] fieldTypes;
+    private Object[] fieldValues;
+    private long[] fieldBits;
+
+    private String message;
+    private StringBuilder messageBuffer;
+    private boolean formatted;
+    private String stackTrace;
+
+    /**
+     * Creates an empty event, to be filled through {@link #copyFrom(LogEvent)}.
+     */
+    public LogEvent() {
+    }
+
+    /**
+     * Creates a new event stamped with the current time and thread.
+     *
+     * @param kind      The {@link LogKind} of the entry.
+     * @param context   The {@link LogContext} source, or {@code null} for a plain message.
+     * @param template  The message template, using {@link String#format} placeholders.
+     * @param args      The raw arguments for the template; may be null or empty.
+     * @param throwable The attached exception, or {@code null}.
+     */
+    public LogEvent(LogKind kind, LogContext context, String template, Object[] args, Throwable throwable) {
+        this(0, kind, context, Thread.currentThread().getName(), template, args, throwable);
+        stamp();
+        addScopeFields();
+    }
+
+    /**
+     * Creates a new event from already captured values.
+     *
+     * @param timestamp  The creation time in milliseconds since the epoch.
+     * @param kind       The {@link LogKind} of the entry.
+     * @param context    The {@link LogContext} source, or {@code null} for a plain message.
+     * @param threadName The name of the thread that logged the entry.
+     * @param template   The message template, using {@link String#format} placeholders.
+     * @param args       The raw arguments for the template; may be null or empty.
+     * @param throwable  The attached exception, or {@code null}.
+     */
+    public LogEvent(long timestamp, LogKind kind, LogContext context, String threadName,
+                    String template, Object[] args, Throwable throwable) {
+        this.timestamp = timestamp;
+        this.kind = kind;
+        this.context = context;
+        this.threadName = threadName;
+        this.template = template == null ? "" : template;
+        this.throwable = throwable;
+        setArgs(args);
+    }
+
+    /**
+     * Wraps a plain, already formatted message. This adapts the legacy
+     * {@link Logger#log(String, LogKind)} calls onto the event pipeline.
+     *
+     * @param message The message text.
+     * @param kind    The {@link LogKind} of the entry.
+     * @return A new event without context, arguments or throwable.
+     */
+    public static LogEvent of(String message, LogKind kind) {
+        return new LogEvent(kind, null, message, null, null);
+    }
+
+    /**
+     * @return The number of message arguments.
+     */
+    public int getArgCount() {
+        return argCount;
+    }
+
+    /**
+     * Returns how the argument at the given index is stored. Primitive arguments
+     * can be read without boxing through {@link #getLongArg(int)},
+     * {@link #getDoubleArg(int)} and {@link #getBooleanArg(int)}.
+     *
+     * @param index The argument index.
+     * @return The {@link ArgType} of the argument.
+     */
+    public ArgType getArgType(int index) {
+        checkIndex(index);
+        return argTypes == null ? ArgType.OBJECT : argTypes[index];
+    }
+
+    /**
+     * Returns the argument at the given index, boxing primitive arguments.
+     *
+     * @param index The argument index.
+     * @return The argument value.
+     */
+    public Object getArg(int index) {
+        return switch (getArgType(index)) {
+            case OBJECT -> args[index];
+            case INT -> (int) primitiveArgs[index];
+            case LONG -> primitiveArgs[index];
+            case FLOAT -> (float) Double.longBitsToDouble(primitiveArgs[index]);
+            case DOUBLE -> Double.longBitsToDouble(primitiveArgs[index]);
+            case BOOLEAN -> primitiveArgs[index] != 0;
+            case CHAR -> (char) primitiveArgs[index];
+        };
+    }
+
+    /**
+     * Reads an {@link ArgType#INT}, {@link ArgType#LONG} or {@link ArgType#CHAR}
+     * argument without boxing.
+     *
+     * @param index The argument index.
+     * @return The argument value.
+     * @throws IllegalStateException if the argument is not stored as an integral primitive.
+     */
+    public long getLongArg(int index) {
+        ArgType type = getArgType(index);
+        if (type != ArgType.INT && type != ArgType.LONG && type != ArgType.CHAR) {
+            throw new IllegalStateException("Argument " + index + " is " + type);
+        }
+        return primitiveArgs[index];
+    }
+
+    /**
+     * Reads a {@link ArgType#FLOAT} or {@link ArgType#DOUBLE} argument without boxing.
+     *
+     * @param index The argument index.
+     * @return The argument value.
+     * @throws IllegalStateException if the argument is not stored as a floating-point primitive.
+     */
+    public double getDoubleArg(int index) {
+        ArgType type = getArgType(index);
+        if (type != ArgType.FLOAT && type != ArgType.DOUBLE) {
+            throw new IllegalStateException("Argument " + index + " is " + type);
+        }
+        return Double.longBitsToDouble(primitiveArgs[index]);
+    }
+
+    /**
+     * Reads a {@link ArgType#BOOLEAN} argument without boxing.
+     *
+     * @param index The argument index.
+     * @return The argument value.
+     * @throws IllegalStateException if the argument is not stored as a boolean.
+     */
+    public boolean getBooleanArg(int index) {
+        if (getArgType(index) != ArgType.BOOLEAN) {
+            throw new IllegalStateException("Argument " + index + " is " + getArgType(index));
+        }
+        return primitiveArgs[index] != 0;
+    }
+
+    /**
+     * Returns the raw arguments as an array. Primitive arguments are boxed into
+     * a new array; prefer {@link #getArgCount()} and the typed accessors on hot paths.
+     *
+     * @return The arguments, or {@code null} if none were given.
+     */
+    public Object[] getArgs() {
+        if (!ownsArgs) return args;
+        Object[] boxed = new Object[argCount];
+        for (int i = 0; i < argCount; i++) {
+            boxed[i] = getArg(i);
+        }
+        return boxed;
+    }
+
+    /**
+     * @return The number of structured fields.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param index The field index.
+     * @return The name of the field.
+     */
+    public String getFieldKey(int index) {
+        checkFieldIndex(index);
+        return fieldKeys[index];
+    }
+
+    /**
+     * Returns how the field at the given index is stored. Primitive fields can be
+     * read without boxing through {@link #getLongField(int)}, {@link #getDoubleField(int)}
+     * and {@link #getBooleanField(int)}.
+     *
+     * @param index The field index.
+     * @return The {@link ArgType} of the field.
+     */
+    public ArgType getFieldType(int index) {
+        checkFieldIndex(index);
+        return fieldTypes[index];
+    }
+
+    /**
+     * Returns the value of the field at the given index, boxing primitive fields.
+     *
+     * @param index The field index.
+     * @return The field value.
+     */
+    public Object getField(int index) {
+        ArgType type = getFieldType(index);
+        long bits = fieldBits[index];
+        return switch (type) {
+            case OBJECT -> fieldValues[index];
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case FLOAT -> (float) Double.longBitsToDouble(bits);
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case BOOLEAN -> bits != 0;
+            case CHAR -> (char) bits;
+        };
+    }
+
+    /**
+     * Returns the value of a field by name, boxing primitive fields.
+     *
+     * @param key The field name.
+     * @return The field value, or {@code null} if the event has no such field.
+     */
+    public Object getField(String key) {
+        int index = indexOfField(key);
+        return index < 0 ? null : getField(index);
+    }
+
+    /**
+     * Reads an {@link ArgType#INT}, {@link ArgType#LONG} or {@link ArgType#CHAR}
+     * field without boxing.
+     *
+     * @param index The field index.
+     * @return The field value.
+     * @throws IllegalStateException if the field is not stored as an integral primitive.
+     */
+    public long getLongField(int index) {
+        ArgType type = getFieldType(index);
+        if (type != ArgType.INT && type != ArgType.LONG && type != ArgType.CHAR) {
+            throw new IllegalStateException("Field " + fieldKeys[index] + " is " + type);
+        }
+        return fieldBits[index];
+    }
+
+    /**
+     * Reads a {@link ArgType#FLOAT} or {@link ArgType#DOUBLE} field without boxing.
+     *
+     * @param index The field index.
+     * @return The field value.
+     * @throws IllegalStateException if the field is not stored as a floating-point primitive.
+     */
+    public double getDoubleField(int index) {
+        ArgType type = getFieldType(index);
+        if (type != ArgType.FLOAT && type != ArgType.DOUBLE) {
+            throw new IllegalStateException("Field " + fieldKeys[index] + " is " + type);
+        }
+        return Double.longBitsToDouble(fieldBits[index]);
+    }
+
+    /**
+     * Reads a {@link ArgType#BOOLEAN} field without boxing.
+     *
+     * @param index The field index.
+     * @return The field value.
+     * @throws IllegalStateException if the field is not stored as a boolean.
+     */
+    public boolean getBooleanField(int index) {
+        if (getFieldType(index) != ArgType.BOOLEAN) {
+            throw new IllegalStateException("Field " + fieldKeys[index] + " is " + getFieldType(index));
+        }
+        return fieldBits[index] != 0;
+    }
+
+    /**
+     * Returns the formatted message, without context or throwable details.
+     * The template is formatted on the first call and cached afterwards.
+     *
+     * @return The formatted message text.
+     */
+    public String getMessage() {
+        if (message == null) {
+            message = formattedMessage().toString();
+        }
+        return message;
+    }
+
+    /**
+     * Appends the formatted message to the given builder without creating an
+     * intermediate string. The template is formatted at most once per event.
+     *
+     * @param sb The builder to append to.
+     * @return The same builder for chaining.
+     */
+    public StringBuilder formatMessageTo(StringBuilder sb) {
+        return sb.append(formattedMessage());
+    }
+
+    /**
+     * Appends the entry body the way the built-in destinations display it:
+     * the context, the message and, if present, the throwable summary followed
+     * by its stack trace as rendered by {@link Log#getStackTraceRenderer()}. The trace is
+     * rendered once per event, so every destination shows the same text.
+     *
+     * @param sb The builder to append to.
+     * @return The same builder for chaining.
+     */
+    public StringBuilder renderTo(StringBuilder sb) {
+        if (context != null) {
+            sb.append('[').append(context.name()).append("] ");
+        }
+        sb.append(formattedMessage());
+
+        if (throwable != null) {
+            sb.append(" | ").append(throwable.getClass().getSimpleName())
+                    .append(": ").append(throwable.getMessage());
+
+            sb.append('\n').append(getRenderedStackTrace());
+        }
+        return sb;
+    }
+
+    /**
+     * Returns the stack trace of the attached throwable as rendered by
+     * {@link Log#getStackTraceRenderer()}. It is rendered on the first call and kept
+     * with the event, and copies taken afterwards share it, so destinations that
+     * write the trace in their own layout still show the same text.
+     *
+     * @return The rendered stack trace, or {@code null} if the event has no throwable.
+     */
+    public String getRenderedStackTrace() {
+        if (throwable == null) return null;
+        if (stackTrace == null) {
+            stackTrace = Log.getStackTraceRenderer().render(throwable);
+        }
+        return stackTrace;
+    }
+
+    /**
+     * Renders the entry body into a new string.
+     *
+     * @return The context, message and throwable details as one string.
+     * @see #renderTo(StringBuilder)
+     */
+    public String render() {
+        return renderTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Creates an independent copy of this event that stays valid after the
+     * original is reused.
+     *
+     * @return A new event holding the same values.
+     */
+    public LogEvent copy() {
+        LogEvent copy = new LogEvent();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Overwrites this event with the values of another one. Arguments are copied
+     * into buffers owned by this event, so refilling a preallocated event does
+     * not allocate once its buffers have grown to the required size.
+     *
+     * @param other The event to copy.
+     */
+    public void copyFrom(LogEvent other) {
+        clear();
+        this.timestamp = other.timestamp;
+        this.nanos = other.nanos;
+        this.kind = other.kind;
+        this.context = other.context;
+        this.threadName = other.threadName;
+        this.template = other.template;
+        this.throwable = other.throwable;
+        this.stackTrace = other.stackTrace;
+        this.message = other.message;
+        for (int i = 0; i < other.argCount; i++) {
+            ArgType type = other.getArgType(i);
+            addArg(type, type == ArgType.OBJECT ? 0 : other.primitiveArgs[i], type == ArgType.OBJECT ? other.args[i] : null);
+        }
+        for (int i = 0; i < other.fieldCount; i++) {
+            putField(other.fieldKeys[i], other.fieldTypes[i], other.fieldBits[i], other.fieldValues[i]);
+        }
+        if (other.formatted && message == null) {
+            messageBuffer().append(other.messageBuffer);
+            formatted = true;
+        }
+    }
+
+    /**
+     * Stamps the event with the current time and thread and sets its values.
+     * Arguments are left as they were added.
+     */
+    void init(LogKind kind, LogContext context, String template, Throwable throwable) {
+        stamp();
+        this.threadName = Thread.currentThread().getName();
+        this.kind = kind;
+        this.context = context;
+        this.template = template == null ? "" : template;
+        this.throwable = throwable;
+        this.stackTrace = null;
+        this.message = null;
+        this.formatted = false;
+        addScopeFields();
+    }
+
+    /**
+     * Replaces the arguments with the given array, which is referenced, not copied.
+     */
+    void setArgs(Object[] values) {
+        if (ownsArgs) {
+            Arrays.fill(ownedArgs, 0, argCount, null);
+            ownsArgs = false;
+        }
+        args = values;
+        argTypes = null;
+        argCount = values == null ? 0 : values.length;
+    }
+
+    /**
+     * Appends one argument. Primitive values are passed as raw bits in {@code bits}.
+     */
+    void addArg(ArgType type, long bits, Object value) {
+        ensureOwned(argCount + 1);
+        ownedArgs[argCount] = value;
+        ownedTypes[argCount] = type;
+        primitiveArgs[argCount] = bits;
+        argCount++;
+    }
+
+    /**
+     * Sets a field, replacing an earlier value with the same key. Primitive values
+     * are passed as raw bits in {@code bits}.
+     */
+    void putField(String key, ArgType type, long bits, Object value) {
+        int index = indexOfField(key);
+        if (index < 0) {
+            if (fieldKeys == null || fieldKeys.length == fieldCount) {
+                int size = Math.max(4, fieldCount * 2);
+                fieldKeys = fieldKeys == null ? new String[size] : Arrays.copyOf(fieldKeys, size);
+                fieldTypes = fieldTypes == null ? new ArgType[size] : Arrays.copyOf(fieldTypes, size);
+                fieldValues = fieldValues == null ? new Object[size] : Arrays.copyOf(fieldValues, size);
+                fieldBits = fieldBits == null ? new long[size] : Arrays.copyOf(fieldBits, size);
+            }
+            index = fieldCount++;
+            fieldKeys[index] = key;
+        }
+        fieldTypes[index] = type;
+        fieldValues[index] = value;
+        fieldBits[index] = bits;
+    }
+
+    /**
+     * Adds the fields of the current thread's {@link LogScope}s that the event does not set itself.
+     */
+    private void addScopeFields() {
+        for (LogScope.Field field = LogScope.current(); field != null; field = field.outer()) {
+            if (indexOfField(field.key()) < 0) {
+                putField(field.key(), ArgType.OBJECT, 0, field.value());
+            }
+        }
+    }
+
+    private int indexOfField(String key) {
+        for (int i = 0; i < fieldCount; i++) {
+            if (fieldKeys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Drops every reference held by this event so that a preallocated event
+     * does not keep arguments or exceptions reachable while it is idle.
+     */
+    public void clear() {
+        setArgs(null);
+        if (fieldCount > 0) {
+            Arrays.fill(fieldKeys, 0, fieldCount, null);
+            Arrays.fill(fieldValues, 0, fieldCount, null);
+            fieldCount = 0;
+        }
+        kind = null;
+        context = null;
+        threadName = null;
+        template = "";
+        throwable = null;
+        stackTrace = null;
+        message = null;
+        formatted = false;
+        if (messageBuffer != null && messageBuffer.capacity() > MAX_REUSABLE_MESSAGE) {
+            messageBuffer = null;
+        }
+    }
+
+    private void stamp() {
+        if (Log.isPreciseTimestamps()) {
+            Instant now = Instant.now();
+            this.timestamp = now.toEpochMilli();
+            this.nanos = now.getNano() % 1_000_000;
+        } else {
+            this.timestamp = System.currentTimeMillis();
+            this.nanos = 0;
+        }
+    }
+
+    private CharSequence formattedMessage() {
+        if (message != null) return message;
+        if (argCount == 0) return template;
+        if (!formatted) {
+            MessageFormatter.formatTo(messageBuffer(), template, this);
+            formatted = true;
+        }
+        return messageBuffer;
+    }
+
+    private StringBuilder messageBuffer() {
+        if (messageBuffer == null) {
+            messageBuffer = new StringBuilder(Math.max(64, template.length() * 2));
+        } else {
+            messageBuffer.setLength(0);
+        }
+        return messageBuffer;
+    }
+
+    private void ensureOwned(int needed) {
+        if (ownedArgs == null || ownedArgs.length < needed) {
+            int size = Math.max(4, Math.max(needed, ownedArgs == null ? 0 : ownedArgs.length * 2));
+            ownedArgs = ownedArgs == null ? new Object[size] : Arrays.copyOf(ownedArgs, size);
+            ownedTypes = ownedTypes == null ? new ArgType[size] : Arrays.copyOf(ownedTypes, size);
+            primitiveArgs = primitiveArgs == null ? new long[size] : Arrays.copyOf(primitiveArgs, size);
+        }
+        if (!ownsArgs) {
+            for (int i = 0; i < argCount; i++) {
+                ownedArgs[i] = args[i];
+                ownedTypes[i] = ArgType.OBJECT;
+            }
+            ownsArgs = true;
+        }
+        args = ownedArgs;
+        argTypes = ownedTypes;
+    }
+
+    private void checkFieldIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field index " + index + " out of " + fieldCount);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= argCount) {
+            throw new IndexOutOfBoundsException("Argument index " + index + " out of " + argCount);
+        }
+    }
+}
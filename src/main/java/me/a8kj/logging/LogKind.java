@@ -1,8 +1,15 @@
 package me.a8kj.logging;
 
+import lombok.Getter;
+
 /**
  * Defines the different types of log messages used within the application.
  * Each constant represents a specific level or category of logging.
+ * <p>
+ * Every kind also has a {@link #getSeverity() severity}, from {@link #DEBUG} (lowest)
+ * to {@link #FATAL} (highest), which destinations use as a minimum-kind filter.
+ * Categories such as {@link #CHAT} and {@link #CUSTOM} rank like {@link #INFO}.
+ * </p>
  *
  * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
  */
@@ -11,42 +18,59 @@ public enum LogKind {
     /**
      * General informational messages that highlight the progress of the application.
      */
-    INFO,
+    INFO(1),
 
     /**
      * Error events that might still allow the application to continue running.
      */
-    ERROR,
+    ERROR(3),
 
     /**
      * Fine-grained informational events that are most useful to debug the application.
      */
-    DEBUG,
+    DEBUG(0),
 
     /**
      * Logs specifically capturing stack traces and details from caught exceptions.
      */
-    EXCEPTION,
+    EXCEPTION(3),
 
     /**
      * Potentially harmful situations that should be noted but do not stop execution.
      */
-    WARN,
+    WARN(2),
 
     /**
      * Specifically used for logging in-game chat messages or communications.
      */
-    CHAT,
+    CHAT(1),
 
     /**
      * Used for user-defined or plugin-specific log categories or monitoring events that do not
      * fall under standard severity levels.
      */
-    CUSTOM,
+    CUSTOM(1),
 
     /**
      * Severe error events that will presumably lead the application to abort.
      */
-    FATAL
+    FATAL(4);
+
+    /**
+     * The rank of this kind; higher values are more severe.
+     */
+    @Getter
+    private final int severity;
 
+    LogKind(int severity) {
+        this.severity = severity;
+    }
+
+    /**
+     * @param minimum The least severe kind that should pass.
+     * @return {@code true} if this kind is at least as severe as the given one.
+     */
+    public boolean isAtLeast(LogKind minimum) {
+        return severity >= minimum.severity;
+    }
 }
\ No newline at end of file
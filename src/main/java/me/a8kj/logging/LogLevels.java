@@ -0,0 +1,168 @@
+package me.a8kj.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-{@link LogContext} minimum levels.
+ * <p>
+ * A rule applies either to one context name ({@code "NetworkModule"}) or to a
+ * context and all of its descendants ({@code "Network.*"} matches {@code "Network"}
+ * and {@code "Network.Http.Client"}). The most specific rule wins; contexts without
+ * a matching rule, and plain messages without a context, use the default level.
+ * </p>
+ * <p>
+ * The rules are an immutable snapshot replaced on every change together with a new
+ * version number. Each context caches the threshold it resolved for a version, so a
+ * level check is a read of the snapshot and of the context's cached value; a change
+ * invalidates every cached decision without locking the readers.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * LogLevels.setLevel("NetworkModule", LogKind.DEBUG);
+ * LogLevels.setLevel("Database.*", LogKind.WARN);
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LogLevels {
+
+    private static final String DESCENDANTS = ".*";
+
+    private static volatile Rules rules = new Rules(0, LogKind.INFO, Map.of(), Map.of());
+    private static LogKind levelBeforeDebug = LogKind.INFO;
+
+    private LogLevels() {
+    }
+
+    /**
+     * Sets the minimum level for a context name or, with a trailing {@code ".*"},
+     * for a context and all of its descendants. The pattern {@code "*"} sets the default level.
+     *
+     * @param pattern     The context name or hierarchy pattern.
+     * @param minimumKind The least severe {@link LogKind} that is logged.
+     */
+    public static synchronized void setLevel(String pattern, LogKind minimumKind) {
+        Objects.requireNonNull(minimumKind);
+        if (pattern.equals("*")) {
+            setDefaultLevel(minimumKind);
+            return;
+        }
+        Rules current = rules;
+        Map<String, LogKind> exact = new HashMap<>(current.exact);
+        Map<String, LogKind> subtree = new HashMap<>(current.subtree);
+        if (pattern.endsWith(DESCENDANTS)) {
+            subtree.put(pattern.substring(0, pattern.length() - DESCENDANTS.length()), minimumKind);
+        } else {
+            exact.put(pattern, minimumKind);
+        }
+        rules = new Rules(current.version + 1, current.defaultKind, exact, subtree);
+    }
+
+    /**
+     * Removes the rule for a pattern set with {@link #setLevel(String, LogKind)}.
+     *
+     * @param pattern The context name or hierarchy pattern.
+     */
+    public static synchronized void clearLevel(String pattern) {
+        Rules current = rules;
+        Map<String, LogKind> exact = new HashMap<>(current.exact);
+        Map<String, LogKind> subtree = new HashMap<>(current.subtree);
+        if (pattern.endsWith(DESCENDANTS)) {
+            subtree.remove(pattern.substring(0, pattern.length() - DESCENDANTS.length()));
+        } else {
+            exact.remove(pattern);
+        }
+        rules = new Rules(current.version + 1, current.defaultKind, exact, subtree);
+    }
+
+    /**
+     * Removes every per-context rule; the default level stays as it is.
+     */
+    public static synchronized void clearLevels() {
+        rules = new Rules(rules.version + 1, rules.defaultKind, Map.of(), Map.of());
+    }
+
+    /**
+     * Sets the level of contexts without a matching rule. {@link Log#setDebugEnabled(boolean)}
+     * switches it to {@link LogKind#DEBUG} and back to the level it replaced.
+     *
+     * @param minimumKind The least severe {@link LogKind} that is logged by default.
+     */
+    public static synchronized void setDefaultLevel(LogKind minimumKind) {
+        Objects.requireNonNull(minimumKind);
+        Rules current = rules;
+        rules = new Rules(current.version + 1, minimumKind, current.exact, current.subtree);
+    }
+
+    /**
+     * Lowers the default level to {@link LogKind#DEBUG}, or restores the level that was
+     * in effect before. Disabling leaves a default level other than {@code DEBUG} alone.
+     */
+    static synchronized void setDebugDefault(boolean enabled) {
+        LogKind current = rules.defaultKind;
+        if (enabled) {
+            if (current != LogKind.DEBUG) {
+                levelBeforeDebug = current;
+                setDefaultLevel(LogKind.DEBUG);
+            }
+        } else if (current == LogKind.DEBUG) {
+            setDefaultLevel(levelBeforeDebug);
+        }
+    }
+
+    /**
+     * @return The level of contexts without a matching rule.
+     */
+    public static LogKind getDefaultLevel() {
+        return rules.defaultKind;
+    }
+
+    /**
+     * Checks an entry against the level of its context.
+     *
+     * @param kind    The {@link LogKind} of the entry.
+     * @param context The {@link LogContext} of the entry, or {@code null} for a plain message.
+     * @return {@code true} if the entry is at least as severe as the context's level.
+     */
+    public static boolean isEnabled(LogKind kind, LogContext context) {
+        return kind.getSeverity() >= threshold(context);
+    }
+
+    /**
+     * Returns the minimum severity of a context, resolving and caching it if the
+     * rules changed since the context was last checked.
+     */
+    private static int threshold(LogContext context) {
+        Rules current = rules;
+        if (context == null) return current.defaultKind.getSeverity();
+        long cached = context.threshold;
+        if ((int) (cached >>> 32) == current.version) {
+            return (int) cached;
+        }
+        int severity = current.resolve(context.name()).getSeverity();
+        context.threshold = ((long) current.version << 32) | severity;
+        return severity;
+    }
+
+    /**
+     * An immutable set of rules.
+     */
+    private record Rules(int version, LogKind defaultKind, Map<String, LogKind> exact, Map<String, LogKind> subtree) {
+
+        LogKind resolve(String name) {
+            if (name == null) return defaultKind;
+            LogKind kind = exact.get(name);
+            if (kind != null || subtree.isEmpty()) return kind != null ? kind : defaultKind;
+            for (String candidate = name; ; ) {
+                kind = subtree.get(candidate);
+                if (kind != null) return kind;
+                int dot = candidate.lastIndexOf('.');
+                if (dot < 0) return defaultKind;
+                candidate = candidate.substring(0, dot);
+            }
+        }
+    }
+}
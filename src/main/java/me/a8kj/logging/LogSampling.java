@@ -0,0 +1,141 @@
+package me.a8kj.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-{@link LogKind} and per-{@link LogContext} sampling of log entries.
+ * <p>
+ * A {@link Sampler} registered for a kind applies to every entry of that kind; one
+ * registered for a context name and a kind takes precedence for entries of that
+ * context. {@link LogBuilder#send()}, and therefore every method of {@link Log},
+ * consults the sampler after the level check and before the entry is captured or
+ * formatted. Entries without a matching sampler are always kept.
+ * </p>
+ * <p>
+ * The samplers are an immutable snapshot replaced on every change, so the check is
+ * a single volatile read while no sampler is registered.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * LogSampling.setSampler(LogKind.CHAT, Sampler.everyNth(10));
+ * LogSampling.setSampler("Lobby", LogKind.CHAT, Sampler.probability(0.01));
+ * long dropped = LogSampling.getSampledOutCount(LogKind.CHAT);
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LogSampling {
+
+    private static final LogKind[] KINDS = LogKind.values();
+    private static final LongAdder[] sampledOut = new LongAdder[KINDS.length];
+
+    private static volatile Rules rules = new Rules(new Sampler[KINDS.length], Map.of(), true);
+
+    static {
+        for (int i = 0; i < sampledOut.length; i++) {
+            sampledOut[i] = new LongAdder();
+        }
+    }
+
+    private LogSampling() {
+    }
+
+    /**
+     * Samples every entry of a kind, replacing the previous sampler of that kind.
+     *
+     * @param kind    The {@link LogKind} to sample.
+     * @param sampler The {@link Sampler}, or {@code null} to keep every entry of the kind.
+     */
+    public static synchronized void setSampler(LogKind kind, Sampler sampler) {
+        Rules current = rules;
+        Sampler[] byKind = current.byKind.clone();
+        byKind[kind.ordinal()] = sampler;
+        rules = Rules.of(byKind, current.byContext);
+    }
+
+    /**
+     * Samples the entries of a kind logged with the given context, replacing the
+     * previous sampler of that pair. It takes precedence over a sampler for the kind.
+     *
+     * @param contextName The {@link LogContext#name()} to match.
+     * @param kind        The {@link LogKind} to sample.
+     * @param sampler     The {@link Sampler}, or {@code null} to remove the rule.
+     */
+    public static synchronized void setSampler(String contextName, LogKind kind, Sampler sampler) {
+        Objects.requireNonNull(contextName);
+        Rules current = rules;
+        Map<String, Sampler[]> byContext = new HashMap<>(current.byContext);
+        Sampler[] samplers = byContext.containsKey(contextName)
+                ? byContext.get(contextName).clone()
+                : new Sampler[KINDS.length];
+        samplers[kind.ordinal()] = sampler;
+        byContext.put(contextName, samplers);
+        rules = Rules.of(current.byKind, byContext);
+    }
+
+    /**
+     * Removes every sampler. The counters are kept.
+     */
+    public static synchronized void clearSamplers() {
+        rules = Rules.of(new Sampler[KINDS.length], Map.of());
+    }
+
+    /**
+     * Decides whether an entry is kept. Called once per entry, since samplers count
+     * and may be stateful.
+     *
+     * @param kind    The {@link LogKind} of the entry.
+     * @param context The {@link LogContext} of the entry, or {@code null} for a plain message.
+     * @return {@code true} if the entry is kept.
+     */
+    public static boolean sample(LogKind kind, LogContext context) {
+        Rules current = rules;
+        if (current.empty) return true;
+
+        Sampler sampler = null;
+        if (context != null && !current.byContext.isEmpty()) {
+            Sampler[] samplers = current.byContext.get(context.name());
+            if (samplers != null) {
+                sampler = samplers[kind.ordinal()];
+            }
+        }
+        if (sampler == null) {
+            sampler = current.byKind[kind.ordinal()];
+        }
+        if (sampler == null || sampler.sample()) return true;
+        sampledOut[kind.ordinal()].increment();
+        return false;
+    }
+
+    /**
+     * Returns the number of entries of a kind dropped by any sampler.
+     *
+     * @param kind The {@link LogKind} to query.
+     * @return The count since the application started.
+     */
+    public static long getSampledOutCount(LogKind kind) {
+        return sampledOut[kind.ordinal()].sum();
+    }
+
+    /**
+     * An immutable set of samplers.
+     */
+    private record Rules(Sampler[] byKind, Map<String, Sampler[]> byContext, boolean empty) {
+
+        static Rules of(Sampler[] byKind, Map<String, Sampler[]> byContext) {
+            boolean empty = byContext.values().stream().allMatch(LogSampling::isEmpty) && isEmpty(byKind);
+            return new Rules(byKind, Map.copyOf(byContext), empty);
+        }
+    }
+
+    private static boolean isEmpty(Sampler[] samplers) {
+        for (Sampler sampler : samplers) {
+            if (sampler != null) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,135 @@
+package me.a8kj.logging;
+
+import java.util.Objects;
+
+/**
+ * Key/value fields that are attached to every event logged by the current thread
+ * while the scope is open, such as a request id or the user being served.
+ * <p>
+ * Scopes nest: opening one inside another adds its fields, and an inner field shadows
+ * an outer one with the same key. Fields set on a single entry with
+ * {@link LogBuilder#field(String, Object)} take precedence over both. The fields are
+ * inherited by threads started inside the scope; for thread pools, {@link #wrap(Runnable)}
+ * carries them over to the task.
+ * </p>
+ * <p>
+ * The fields are stored as an immutable chain, so inheriting and capturing them costs
+ * a reference, and opening a scope allocates one node per field. A scope must be closed
+ * on the thread that opened it, which restores the fields that were active before.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * try (LogScope scope = LogScope.with("reqId", requestId).and("user", user)) {
+ *     Log.info("Handling request");
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LogScope implements AutoCloseable {
+
+    private static final InheritableThreadLocal<Field> CURRENT = new InheritableThreadLocal<>();
+
+    private final Field outer;
+    private boolean closed;
+
+    private LogScope(Field outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Opens a scope with one field on the current thread.
+     *
+     * @param key   The field name.
+     * @param value The field value; numbers, booleans and strings keep their type in structured output.
+     * @return The open scope, to be closed in a {@code try}-with-resources block.
+     * @throws NullPointerException if the key is null.
+     */
+    public static LogScope with(String key, Object value) {
+        Field outer = CURRENT.get();
+        CURRENT.set(new Field(Objects.requireNonNull(key), value, outer));
+        return new LogScope(outer);
+    }
+
+    /**
+     * Adds another field to this scope. It is removed together with the others on {@link #close()}.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @return This scope for chaining.
+     * @throws NullPointerException if the key is null.
+     */
+    public LogScope and(String key, Object value) {
+        CURRENT.set(new Field(Objects.requireNonNull(key), value, CURRENT.get()));
+        return this;
+    }
+
+    /**
+     * Returns the value of a field of the current thread's scopes.
+     *
+     * @param key The field name.
+     * @return The innermost value for the key, or {@code null} if it is not set.
+     */
+    public static Object get(String key) {
+        for (Field field = CURRENT.get(); field != null; field = field.outer) {
+            if (field.key.equals(key)) return field.value;
+        }
+        return null;
+    }
+
+    /**
+     * Captures the fields of the current thread for a task that runs elsewhere, e.g.
+     * in a thread pool. While the task runs, its thread sees the captured fields.
+     *
+     * @param task The task to wrap.
+     * @return A task running {@code task} within the captured fields.
+     */
+    public static Runnable wrap(Runnable task) {
+        Field captured = CURRENT.get();
+        return () -> {
+            Field previous = CURRENT.get();
+            set(captured);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return The innermost field of the current thread, or {@code null} outside any scope.
+     */
+    static Field current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Restores the fields that were active when this scope was opened.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        set(outer);
+    }
+
+    private static void set(Field field) {
+        if (field == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(field);
+        }
+    }
+
+    /**
+     * One field of a scope, linked to the fields of the enclosing scopes.
+     *
+     * @param key   The field name.
+     * @param value The field value.
+     * @param outer The next field outwards, or {@code null}.
+     */
+    record Field(String key, Object value, Field outer) {
+    }
+}
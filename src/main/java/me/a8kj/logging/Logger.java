@@ -17,4 +17,49 @@ public interface Logger {
      */
     void log(String message, LogKind level);
 
-}
\ No newline at end of file
+    /**
+     * Records a structured {@link LogEvent}. Implementations should override this
+     * to render the event in their own format; by default the event body is
+     * rendered to a string and passed to {@link #log(String, LogKind)}.
+     * <p>
+     * The event may be reused by the caller once this method returns, so
+     * implementations that keep it for later must store {@link LogEvent#copy()}.
+     * </p>
+     *
+     * @param event The event to record.
+     */
+    default void log(LogEvent event) {
+        log(event.render(), event.getKind());
+    }
+
+    /**
+     * Pushes any buffered entries to their final destination. Loggers that
+     * do not buffer can rely on the default, which does nothing.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Checks whether this logger would write an entry of the given kind and context.
+     * Callers use this to skip message formatting for entries nobody records,
+     * so implementations should answer without allocating.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if the entry would be written; {@code true} by default.
+     */
+    default boolean isEnabled(LogKind kind, LogContext context) {
+        return true;
+    }
+
+    /**
+     * Returns a short, stable name for this destination, used to label its metrics.
+     *
+     * @return The simple class name by default, or the full name for anonymous classes.
+     */
+    default String getName() {
+        String name = getClass().getSimpleName();
+        return name.isEmpty() ? getClass().getName() : name;
+    }
+
+}
@@ -0,0 +1,168 @@
+package me.a8kj.logging;
+
+import java.math.BigInteger;
+import java.text.DecimalFormatSymbols;
+import java.util.Formattable;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+
+/**
+ * Formats {@link LogEvent} templates straight into a {@link StringBuilder}.
+ * <p>
+ * The plain {@code %s}, {@code %d}, {@code %b}, {@code %n} and {@code %%} specifiers
+ * are handled here without boxing primitive arguments or creating a
+ * {@link java.util.Formatter}. Any other specifier (flags, width, precision,
+ * explicit indices or other conversions) falls back to {@link String#format},
+ * so the output is always identical to what {@code String.format} produces.
+ * </p>
+ * <p>
+ * A template that does not fit its arguments is not an error: it is written as is,
+ * followed by the arguments in brackets, so every destination receives the same text.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class MessageFormatter {
+
+    private static volatile Locale cachedLocale;
+    private static volatile boolean cachedAsciiDigits;
+
+    private MessageFormatter() {
+    }
+
+    /**
+     * Appends the formatted template to the builder.
+     *
+     * @param sb       The builder to append to.
+     * @param template The {@link String#format} template.
+     * @param event    The event holding the arguments.
+     */
+    static void formatTo(StringBuilder sb, String template, LogEvent event) {
+        int start = sb.length();
+        if (format(sb, template, event)) return;
+        sb.setLength(start);
+        try {
+            sb.append(String.format(template, event.getArgs()));
+        } catch (IllegalFormatException e) {
+            sb.setLength(start);
+            appendUnformatted(sb, template, event);
+        }
+    }
+
+    /**
+     * Writes {@code template [arg0, arg1, ...]} for a template that cannot be formatted.
+     */
+    private static void appendUnformatted(StringBuilder sb, String template, LogEvent event) {
+        sb.append(template).append(" [");
+        for (int i = 0; i < event.getArgCount(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(event.getArg(i));
+        }
+        sb.append(']');
+    }
+
+    private static boolean format(StringBuilder sb, String template, LogEvent event) {
+        int length = template.length();
+        int argIndex = 0;
+        int i = 0;
+        while (i < length) {
+            int percent = template.indexOf('%', i);
+            if (percent < 0) {
+                sb.append(template, i, length);
+                return true;
+            }
+            sb.append(template, i, percent);
+            if (percent + 1 >= length) return false;
+
+            char conversion = template.charAt(percent + 1);
+            switch (conversion) {
+                case '%' -> sb.append('%');
+                case 'n' -> sb.append(System.lineSeparator());
+                case 's', 'd', 'b' -> {
+                    if (argIndex >= event.getArgCount() || !appendArg(sb, conversion, event, argIndex)) {
+                        return false;
+                    }
+                    argIndex++;
+                }
+                default -> {
+                    return false;
+                }
+            }
+            i = percent + 2;
+        }
+        return true;
+    }
+
+    private static boolean appendArg(StringBuilder sb, char conversion, LogEvent event, int index) {
+        LogEvent.ArgType type = event.getArgType(index);
+        return switch (conversion) {
+            case 's' -> appendString(sb, event, index, type);
+            case 'd' -> appendDecimal(sb, event, index, type);
+            default -> appendBoolean(sb, event, index, type);
+        };
+    }
+
+    private static boolean appendString(StringBuilder sb, LogEvent event, int index, LogEvent.ArgType type) {
+        switch (type) {
+            case OBJECT -> {
+                Object value = event.getArg(index);
+                if (value instanceof Formattable) return false;
+                sb.append(value);
+            }
+            case INT, LONG -> sb.append(event.getLongArg(index));
+            case FLOAT -> sb.append((float) event.getDoubleArg(index));
+            case DOUBLE -> sb.append(event.getDoubleArg(index));
+            case BOOLEAN -> sb.append(event.getBooleanArg(index));
+            case CHAR -> sb.append((char) event.getLongArg(index));
+        }
+        return true;
+    }
+
+    private static boolean appendDecimal(StringBuilder sb, LogEvent event, int index, LogEvent.ArgType type) {
+        if (!asciiDigits()) return false;
+        switch (type) {
+            case INT, LONG -> sb.append(event.getLongArg(index));
+            case OBJECT -> {
+                Object value = event.getArg(index);
+                if (value instanceof Integer || value instanceof Long
+                        || value instanceof Short || value instanceof Byte) {
+                    sb.append(((Number) value).longValue());
+                } else if (value instanceof BigInteger) {
+                    sb.append(value);
+                } else {
+                    return false;
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean appendBoolean(StringBuilder sb, LogEvent event, int index, LogEvent.ArgType type) {
+        if (type == LogEvent.ArgType.BOOLEAN) {
+            sb.append(event.getBooleanArg(index));
+        } else if (type == LogEvent.ArgType.OBJECT) {
+            Object value = event.getArg(index);
+            boolean present = value instanceof Boolean b ? b : value != null;
+            sb.append(present);
+        } else {
+            sb.append(true);
+        }
+        return true;
+    }
+
+    /**
+     * {@code %d} renders digits of the default format locale; only ASCII digits
+     * are produced here, other locales go through {@link String#format}.
+     */
+    private static boolean asciiDigits() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (locale != cachedLocale) {
+            cachedAsciiDigits = DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+            cachedLocale = locale;
+        }
+        return cachedAsciiDigits;
+    }
+}
@@ -0,0 +1,180 @@
+package me.a8kj.logging;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which entries of a high-volume {@link LogKind} or {@link LogContext} are kept.
+ * <p>
+ * Samplers are registered with {@link LogSampling} and consulted by {@link LogBuilder#send()}
+ * before anything is formatted, so an entry that is sampled out costs a counter update.
+ * Every sampler counts the entries it kept and dropped, which allows reconstructing the
+ * original volume: a 1-in-10 sampler that kept 500 entries saw 5,000.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * LogSampling.setSampler(LogKind.CHAT, Sampler.firstPerInterval(100, 1000, Sampler.everyNth(50)));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public abstract class Sampler {
+
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private Sampler() {
+    }
+
+    /**
+     * Keeps every n-th entry, starting with the first one.
+     *
+     * @param n The sampling interval; 1 keeps every entry.
+     * @return A fixed-rate sampler.
+     * @throws IllegalArgumentException if n is not positive.
+     */
+    public static Sampler everyNth(int n) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive: " + n);
+        return new EveryNth(n);
+    }
+
+    /**
+     * Keeps each entry independently with the given probability, using a thread-local
+     * random number generator.
+     *
+     * @param probability The chance of keeping an entry, from 0 to 1.
+     * @return A random sampler.
+     * @throws IllegalArgumentException if the probability is outside of [0, 1].
+     */
+    public static Sampler probability(double probability) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability must be between 0 and 1: " + probability);
+        }
+        return new Probability(probability);
+    }
+
+    /**
+     * Keeps the first entries of every interval and hands the rest to another sampler.
+     *
+     * @param limit          The number of entries kept unconditionally per interval.
+     * @param intervalMillis The length of an interval in milliseconds.
+     * @param then           The sampler deciding about the entries beyond the limit.
+     * @return A burst-friendly sampler.
+     * @throws IllegalArgumentException if the limit is negative or the interval is not positive.
+     */
+    public static Sampler firstPerInterval(int limit, long intervalMillis, Sampler then) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative: " + limit);
+        if (intervalMillis <= 0) throw new IllegalArgumentException("intervalMillis must be positive: " + intervalMillis);
+        return new FirstPerInterval(limit, intervalMillis, Objects.requireNonNull(then));
+    }
+
+    /**
+     * Keeps the first entries of every interval and drops the rest.
+     *
+     * @param limit          The number of entries kept per interval.
+     * @param intervalMillis The length of an interval in milliseconds.
+     * @return A sampler that caps the entries per interval.
+     */
+    public static Sampler firstPerInterval(int limit, long intervalMillis) {
+        return firstPerInterval(limit, intervalMillis, probability(0));
+    }
+
+    /**
+     * Decides about one entry and updates the counters.
+     *
+     * @return {@code true} if the entry is kept.
+     */
+    public final boolean sample() {
+        if (accept()) {
+            kept.increment();
+            return true;
+        }
+        sampledOut.increment();
+        return false;
+    }
+
+    /**
+     * @return The number of entries this sampler kept.
+     */
+    public long getKeptCount() {
+        return kept.sum();
+    }
+
+    /**
+     * @return The number of entries this sampler dropped.
+     */
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * @return {@code true} if the next entry is kept.
+     */
+    abstract boolean accept();
+
+    private static final class EveryNth extends Sampler {
+
+        private final int n;
+        private final AtomicLong counter = new AtomicLong();
+
+        private EveryNth(int n) {
+            this.n = n;
+        }
+
+        @Override
+        boolean accept() {
+            return n == 1 || counter.getAndIncrement() % n == 0;
+        }
+    }
+
+    private static final class Probability extends Sampler {
+
+        private final double probability;
+
+        private Probability(double probability) {
+            this.probability = probability;
+        }
+
+        @Override
+        boolean accept() {
+            return probability >= 1 || ThreadLocalRandom.current().nextDouble() < probability;
+        }
+    }
+
+    private static final class FirstPerInterval extends Sampler {
+
+        private final int limit;
+        private final long intervalMillis;
+        private final Sampler then;
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile long windowStart = System.currentTimeMillis();
+
+        private FirstPerInterval(int limit, long intervalMillis, Sampler then) {
+            this.limit = limit;
+            this.intervalMillis = intervalMillis;
+            this.then = then;
+        }
+
+        @Override
+        boolean accept() {
+            long now = System.currentTimeMillis();
+            long start = windowStart;
+            if (now - start >= intervalMillis) {
+                synchronized (this) {
+                    if (windowStart == start) {
+                        count.set(0);
+                        windowStart = now;
+                    }
+                }
+            }
+            if (count.get() < limit && count.incrementAndGet() <= limit) {
+                return true;
+            }
+            return then.sample();
+        }
+    }
+}
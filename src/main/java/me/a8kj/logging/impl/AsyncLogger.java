@@ -0,0 +1,324 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.RingBuffer;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link Logger} decorator that moves the actual writing off the caller thread.
+ * <p>
+ * Log events are copied into the preallocated events of a {@link RingBuffer} and
+ * drained by a single background thread that forwards them to the wrapped logger. The caller only
+ * pays for claiming a slot, so slow destinations (disk, network, terminals) no longer
+ * add latency to the application threads. What happens when the buffer is full is
+ * decided by the configured {@link OverflowPolicy}.
+ * </p>
+ * <p>
+ * Implements {@link AutoCloseable}; closing drains every queued entry before the
+ * background thread stops. The wrapped logger itself is not closed.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * CompositeLogger sinks = new CompositeLogger();
+ * sinks.addLogger(new ConsoleLogger());
+ * sinks.addLogger(new FileLogger("logs.txt"));
+ * Log.addDestination(new AsyncLogger(sinks, 16384, OverflowPolicy.DROP_OLDEST));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class AsyncLogger implements Logger, AutoCloseable {
+
+    /**
+     * The number of slots used when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+    private static final long BLOCK_PARK_NANOS = 10_000L;
+
+    private final Logger delegate;
+    private final OverflowPolicy policy;
+    private final RingBuffer<LogEvent> buffer;
+    private final Thread consumer;
+    private final Thread shutdownHook;
+    private final LongAdder dropped = new LongAdder();
+    private final SinkMetrics metrics;
+    private final IntSupplier queueDepth;
+    private final AtomicLong completed = new AtomicLong();
+    private final LogEvent current = new LogEvent();
+
+    private volatile boolean running = true;
+    private volatile boolean consumerWaiting;
+
+    /**
+     * Creates an asynchronous logger with {@link #DEFAULT_CAPACITY} slots
+     * that blocks callers when the buffer is full.
+     *
+     * @param delegate The {@link Logger} that receives the entries on the background thread.
+     */
+    public AsyncLogger(Logger delegate) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates an asynchronous logger and starts its background thread.
+     *
+     * @param delegate The {@link Logger} that receives the entries on the background thread.
+     * @param capacity The number of preallocated slots; rounded up to a power of two.
+     * @param policy   The {@link OverflowPolicy} applied when the buffer is full.
+     * @throws NullPointerException     if the delegate or policy is null.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public AsyncLogger(Logger delegate, int capacity, OverflowPolicy policy) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.buffer = new RingBuffer<>(capacity, LogEvent::new);
+        this.metrics = LogMetrics.sink(getName());
+        this.queueDepth = buffer::size;
+        this.metrics.addQueueDepth(queueDepth);
+
+        this.consumer = new Thread(this::drain, "SimpleLog-AsyncLogger");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+
+        this.shutdownHook = new Thread(this::close, "SimpleLog-AsyncLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a plain message for the background thread.
+     *
+     * @param message The message content to be logged.
+     * @param kind    The {@link LogKind} severity level.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Queues an event for the background thread. When the buffer is full the
+     * configured {@link OverflowPolicy} decides whether the caller waits, an entry
+     * is dropped or the event is written synchronously.
+     *
+     * @param event The {@link LogEvent} to dispatch.
+     */
+    @Override
+    public void log(LogEvent event) {
+        if (!running) {
+            delegate.log(event);
+            return;
+        }
+        if (event.getThrowable() != null) {
+            // Render on the caller, so the copy and every other destination share one trace.
+            event.getRenderedStackTrace();
+        }
+
+        long sequence = buffer.tryClaim();
+        int tries = 0;
+        boolean discarded = false;
+        while (sequence < 0) {
+            switch (policy) {
+                case DROP_NEWEST -> {
+                    drop();
+                    return;
+                }
+                case CALLER_RUNS -> {
+                    delegate.log(event);
+                    return;
+                }
+                case DROP_OLDEST -> {
+                    // At most one queued entry makes room for this one; if that is not enough,
+                    // another producer took the slot and this entry is dropped instead.
+                    if (discarded || !discardOldest()) {
+                        drop();
+                        return;
+                    }
+                    discarded = true;
+                }
+                case BLOCK -> {
+                    if (++tries < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.unpark(consumer);
+                        LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    }
+                }
+            }
+            sequence = buffer.tryClaim();
+        }
+
+        buffer.get(sequence).copyFrom(event);
+        buffer.publish(sequence);
+
+        if (!running) {
+            // Closed while this entry was queued; the consumer may already have stopped.
+            drainRemaining();
+        } else if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Delegates to the wrapped logger so that filtered entries are rejected
+     * before they are formatted or queued.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if the wrapped logger would write the entry.
+     */
+    @Override
+    public boolean isEnabled(LogKind kind, LogContext context) {
+        return delegate.isEnabled(kind, context);
+    }
+
+    /**
+     * Waits until every entry queued so far has been handed to the wrapped logger,
+     * then flushes it.
+     */
+    @Override
+    public void flush() {
+        long target = buffer.claimed();
+        while (running && completed.get() < target && Thread.currentThread() != consumer) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        delegate.flush();
+    }
+
+    /**
+     * @return {@code "AsyncLogger(<delegate name>)"}.
+     */
+    @Override
+    public String getName() {
+        return "AsyncLogger(" + delegate.getName() + ")";
+    }
+
+    /**
+     * Returns the number of entries discarded by {@link OverflowPolicy#DROP_OLDEST}
+     * or {@link OverflowPolicy#DROP_NEWEST} since this logger was created.
+     *
+     * @return The total count of dropped entries.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns an estimate of the entries waiting to be written.
+     *
+     * @return The approximate queue depth.
+     */
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting new entries, waits for the background thread to write every
+     * queued entry, stops it and flushes the wrapped logger. Entries logged after
+     * closing are written synchronously on the caller thread.
+     */
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.flush();
+        metrics.removeQueueDepth(queueDepth);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; this call is the hook itself.
+        }
+    }
+
+    private boolean discardOldest() {
+        long oldest = buffer.tryAcquire();
+        if (oldest < 0) return false;
+        buffer.get(oldest).clear();
+        buffer.release(oldest);
+        completed.incrementAndGet();
+        drop();
+        return true;
+    }
+
+    private void drainRemaining() {
+        long sequence;
+        while ((sequence = buffer.tryAcquire()) >= 0) {
+            LogEvent event = buffer.get(sequence);
+            try {
+                delegate.log(event);
+            } catch (RuntimeException ignored) {
+            } finally {
+                event.clear();
+                buffer.release(sequence);
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    private void drop() {
+        dropped.increment();
+        if (LogMetrics.isEnabled()) {
+            metrics.addDropped();
+        }
+    }
+
+    private void drain() {
+        int idle = 0;
+        while (running || !buffer.isEmpty()) {
+            long sequence = buffer.tryAcquire();
+            if (sequence < 0) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+
+            // Copy the entry out first, so a slow delegate does not hold the slot producers need next.
+            LogEvent slot = buffer.get(sequence);
+            current.copyFrom(slot);
+            slot.clear();
+            buffer.release(sequence);
+            try {
+                delegate.log(current);
+            } catch (RuntimeException ignored) {
+            } finally {
+                current.clear();
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    private int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES * 2) {
+            Thread.yield();
+        } else {
+            consumerWaiting = true;
+            if (running && buffer.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            consumerWaiting = false;
+        }
+        return idle + 1;
+    }
+}
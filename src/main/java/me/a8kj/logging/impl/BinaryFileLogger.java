@@ -0,0 +1,420 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.LogScheduler;
+import me.a8kj.logging.util.TextEncoder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A file logger that stores events in a compact binary format instead of text.
+ * <p>
+ * Message templates are never formatted and exceptions are never turned into
+ * stack-trace strings on the logging thread. Each event is written as its raw parts:
+ * the timestamp as a long, the {@link LogKind} ordinal, the template, context and
+ * thread name as ids into a string dictionary (each string is written once, at its
+ * first use), the typed arguments as raw values and the throwable as its class,
+ * message and stack frames. Arguments that are neither primitives, boxed primitives,
+ * strings nor big numbers are stored as their {@code toString()} value.
+ * </p>
+ * <p>
+ * {@link BinaryLogDecoder} turns the file back into the text layout of {@link FileLogger}.
+ * Batching and flushing follow a {@link FlushPolicy}, like the text file destinations.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * try (BinaryFileLogger logger = new BinaryFileLogger("logs.bin")) {
+ *     Log.addDestination(logger);
+ *     Log.info("Application started");
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class BinaryFileLogger implements Logger, AutoCloseable {
+
+    private static final int MAX_DICTIONARY = 1 << 16;
+    private static final int MIN_BUFFER = 64;
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final FlushPolicy flushPolicy;
+    private final ByteBuffer batch;
+    private final TextEncoder encoder = new TextEncoder(StandardCharsets.UTF_8);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final Set<Throwable> written = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ScheduledFuture<?> flushTask;
+    private final Thread shutdownHook;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SinkMetrics metrics;
+
+    private int pendingRecords;
+
+    /**
+     * Opens a binary logger that commits every 512 records, every second and
+     * immediately for errors.
+     *
+     * @param fileName The path to the log file; appended to if it exists.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public BinaryFileLogger(String fileName) throws IOException {
+        this(fileName, FlushPolicy.grouped(512, 1000));
+    }
+
+    /**
+     * Opens a binary logger.
+     *
+     * @param fileName    The path to the log file; appended to if it exists, after removing
+     *                    a record that a crash left incomplete at its end.
+     * @param flushPolicy The {@link FlushPolicy} deciding when a batch is written; its buffer
+     *                    size is the capacity of the batch buffer in bytes.
+     * @throws IOException If the file cannot be opened for writing, or exists and is not a binary log.
+     */
+    public BinaryFileLogger(String fileName, FlushPolicy flushPolicy) throws IOException {
+        this.fileName = fileName;
+        this.metrics = LogMetrics.sink(getName());
+        Path path = Path.of(fileName);
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() > 0) {
+            // A record cut short by a crash would swallow the header appended below.
+            long valid = BinaryLogDecoder.validLength(path);
+            if (valid == 0 && channel.size() > BinaryLogFormat.MAGIC.length) {
+                channel.close();
+                throw new IOException("Not a SimpleLog binary log: " + fileName);
+            }
+            if (valid < channel.size()) {
+                channel.truncate(valid);
+            }
+        }
+        this.flushPolicy = flushPolicy;
+        this.batch = ByteBuffer.allocateDirect(Math.max(MIN_BUFFER, flushPolicy.getBufferSize()));
+        writeHeader();
+        this.flushTask = flushPolicy.getMaxDelayMillis() > 0
+                ? LogScheduler.scheduleAtFixedRate(this::flush, flushPolicy.getMaxDelayMillis())
+                : null;
+        this.shutdownHook = new Thread(this::flush, "SimpleLog-BinaryFileLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Writes a plain message as an event without arguments.
+     *
+     * @param message The message to log.
+     * @param kind    The severity level of the log entry.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Encodes an event into the current batch without formatting it, and commits
+     * the batch when the flush policy asks for it.
+     *
+     * @param event The {@link LogEvent} to persist.
+     */
+    @Override
+    public void log(LogEvent event) {
+        lock.lock();
+        try {
+            if (dictionary.size() >= MAX_DICTIONARY) {
+                // Start a new dictionary section so memory stays bounded for dynamic messages.
+                dictionary.clear();
+                writeHeader();
+            }
+
+            ensure(10);
+            batch.put((byte) BinaryLogFormat.EVENT);
+            batch.putLong(event.getTimestamp());
+            batch.put((byte) event.getKind().ordinal());
+            putRef(event.getTemplate());
+            putRef(event.getContext() == null ? null : event.getContext().name());
+            putRef(event.getThreadName());
+
+            int count = event.getArgCount();
+            putVarint(count);
+            for (int i = 0; i < count; i++) {
+                putArg(event, i);
+            }
+
+            Throwable throwable = event.getThrowable();
+            ensure(1);
+            batch.put((byte) (throwable == null ? 0 : 1));
+            if (throwable != null) {
+                putThrowable(throwable);
+                written.clear();
+            }
+
+            if (++pendingRecords >= flushPolicy.getMaxRecords() || flushPolicy.isImmediate(event.getKind())) {
+                commit();
+            }
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code "BinaryFileLogger[<file name>]"}.
+     */
+    @Override
+    public String getName() {
+        return "BinaryFileLogger[" + fileName + "]";
+    }
+
+    /**
+     * Writes the current batch to the file.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            if (batch.position() == 0) return;
+            commit();
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Commits the pending batch and closes the file.
+     *
+     * @throws Exception If an I/O error occurs while writing or closing.
+     */
+    @Override
+    public void close() throws Exception {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; the hook commits the batch.
+        }
+        lock.lock();
+        try {
+            if (batch.position() > 0) {
+                commit();
+            }
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putArg(LogEvent event, int index) throws IOException {
+        ensure(9);
+        switch (event.getArgType(index)) {
+            case INT -> {
+                batch.put((byte) BinaryLogFormat.ARG_INT);
+                batch.putInt((int) event.getLongArg(index));
+            }
+            case LONG -> {
+                batch.put((byte) BinaryLogFormat.ARG_LONG);
+                batch.putLong(event.getLongArg(index));
+            }
+            case FLOAT -> {
+                batch.put((byte) BinaryLogFormat.ARG_FLOAT);
+                batch.putFloat((float) event.getDoubleArg(index));
+            }
+            case DOUBLE -> {
+                batch.put((byte) BinaryLogFormat.ARG_DOUBLE);
+                batch.putDouble(event.getDoubleArg(index));
+            }
+            case BOOLEAN -> {
+                batch.put((byte) BinaryLogFormat.ARG_BOOLEAN);
+                batch.put((byte) (event.getBooleanArg(index) ? 1 : 0));
+            }
+            case CHAR -> {
+                batch.put((byte) BinaryLogFormat.ARG_CHAR);
+                batch.putChar((char) event.getLongArg(index));
+            }
+            case OBJECT -> putObject(event.getArg(index));
+        }
+    }
+
+    private void putObject(Object value) throws IOException {
+        if (value == null) {
+            batch.put((byte) BinaryLogFormat.ARG_NULL);
+        } else if (value instanceof Integer v) {
+            batch.put((byte) BinaryLogFormat.ARG_INT);
+            batch.putInt(v);
+        } else if (value instanceof Long v) {
+            batch.put((byte) BinaryLogFormat.ARG_LONG);
+            batch.putLong(v);
+        } else if (value instanceof Float v) {
+            batch.put((byte) BinaryLogFormat.ARG_FLOAT);
+            batch.putFloat(v);
+        } else if (value instanceof Double v) {
+            batch.put((byte) BinaryLogFormat.ARG_DOUBLE);
+            batch.putDouble(v);
+        } else if (value instanceof Boolean v) {
+            batch.put((byte) BinaryLogFormat.ARG_BOOLEAN);
+            batch.put((byte) (v ? 1 : 0));
+        } else if (value instanceof Character v) {
+            batch.put((byte) BinaryLogFormat.ARG_CHAR);
+            batch.putChar(v);
+        } else if (value instanceof Short v) {
+            batch.put((byte) BinaryLogFormat.ARG_SHORT);
+            batch.putShort(v);
+        } else if (value instanceof Byte v) {
+            batch.put((byte) BinaryLogFormat.ARG_BYTE);
+            batch.put(v);
+        } else if (value instanceof BigInteger) {
+            batch.put((byte) BinaryLogFormat.ARG_BIG_INTEGER);
+            putString(value.toString());
+        } else if (value instanceof BigDecimal) {
+            batch.put((byte) BinaryLogFormat.ARG_BIG_DECIMAL);
+            putString(value.toString());
+        } else {
+            batch.put((byte) BinaryLogFormat.ARG_STRING);
+            putString(value instanceof String s ? s : String.valueOf(value));
+        }
+    }
+
+    /**
+     * Writes a throwable with its frames, suppressed exceptions and causes.
+     * Each throwable is written once per event, which also breaks cause cycles.
+     */
+    private void putThrowable(Throwable throwable) throws IOException {
+        written.add(throwable);
+        putRef(throwable.getClass().getName());
+        putRef(throwable.getClass().getSimpleName());
+        String message = throwable.getMessage();
+        String localized = throwable.getLocalizedMessage();
+        putString(message);
+        ensure(1);
+        if (localized == message) {
+            batch.put((byte) 0);
+        } else {
+            batch.put((byte) 1);
+            putString(localized);
+        }
+
+        StackTraceElement[] frames = throwable.getStackTrace();
+        putVarint(frames.length);
+        for (StackTraceElement frame : frames) {
+            String loader = frame.getClassLoaderName();
+            String module = frame.getModuleName();
+            String version = frame.getModuleVersion();
+            // StackTraceElement.toString() hides built-in loaders and JDK module versions.
+            if ("app".equals(loader) || "platform".equals(loader)) loader = null;
+            if (module != null && (module.startsWith("java.") || module.startsWith("jdk."))) version = null;
+            putRef(loader);
+            putRef(module);
+            putRef(version);
+            putRef(frame.getClassName());
+            putRef(frame.getMethodName());
+            putRef(frame.getFileName());
+            int line = frame.getLineNumber();
+            putVarint((line << 1) ^ (line >> 31));
+        }
+
+        Throwable[] suppressed = throwable.getSuppressed();
+        int count = 0;
+        for (Throwable t : suppressed) {
+            if (!written.contains(t)) count++;
+        }
+        putVarint(count);
+        for (Throwable t : suppressed) {
+            if (!written.contains(t)) putThrowable(t);
+        }
+
+        Throwable cause = throwable.getCause();
+        boolean hasCause = cause != null && !written.contains(cause);
+        ensure(1);
+        batch.put((byte) (hasCause ? 1 : 0));
+        if (hasCause) {
+            putThrowable(cause);
+        }
+    }
+
+    private void putRef(String value) throws IOException {
+        if (value == null) {
+            putVarint(BinaryLogFormat.REF_NULL);
+            return;
+        }
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            putVarint(id + 1);
+            return;
+        }
+        dictionary.put(value, dictionary.size() + 1);
+        putVarint(BinaryLogFormat.REF_NEW);
+        putString(value);
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            putVarint(0);
+            return;
+        }
+        ByteBuffer bytes = encoder.encode(value);
+        putVarint(bytes.remaining() + 1);
+        while (bytes.hasRemaining()) {
+            if (!batch.hasRemaining()) commitBytes();
+            int n = Math.min(bytes.remaining(), batch.remaining());
+            batch.put(batch.position(), bytes, bytes.position(), n);
+            batch.position(batch.position() + n);
+            bytes.position(bytes.position() + n);
+        }
+    }
+
+    private void putVarint(int value) throws IOException {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            batch.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        batch.put((byte) value);
+    }
+
+    private void writeHeader() throws IOException {
+        ensure(BinaryLogFormat.MAGIC.length + 1);
+        batch.put(BinaryLogFormat.MAGIC);
+        batch.put(BinaryLogFormat.VERSION);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (batch.remaining() < bytes) {
+            commitBytes();
+        }
+    }
+
+    private void commit() throws IOException {
+        commitBytes();
+        pendingRecords = 0;
+    }
+
+    private void commitBytes() throws IOException {
+        batch.flip();
+        if (LogMetrics.isEnabled()) {
+            metrics.addBytes(batch.remaining());
+        }
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+    }
+}
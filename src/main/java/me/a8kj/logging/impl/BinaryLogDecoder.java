@@ -0,0 +1,393 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+import me.a8kj.logging.Log;
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serial;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads files written by {@link BinaryFileLogger} and renders them in the text
+ * layout of {@link FileLogger}.
+ * <p>
+ * {@link #next()} returns the stored entries one by one as {@link LogEvent}s, whose
+ * messages are formatted only when they are rendered. A stored exception comes back
+ * as a {@link RecordedThrowable} carrying the original class name, message and stack
+ * frames. A record cut short by a crash ends the file without an error;
+ * {@link BinaryFileLogger} removes such a record before it appends to the file again.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * java -cp SimpleLog.jar me.a8kj.logging.impl.BinaryLogDecoder logs.bin logs.txt
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class BinaryLogDecoder implements AutoCloseable {
+
+    private static final LogKind[] KINDS = LogKind.values();
+
+    private final CountingInputStream counter;
+    private final DataInputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private byte[] bytes = new byte[256];
+    private long validLength;
+
+    /**
+     * Creates a decoder reading from the given stream.
+     *
+     * @param in The binary log content, starting at a header.
+     */
+    public BinaryLogDecoder(InputStream in) {
+        this.counter = new CountingInputStream(new BufferedInputStream(in, 65536));
+        this.in = new DataInputStream(counter);
+    }
+
+    /**
+     * Measures the readable part of a binary log: the bytes up to the end of its last
+     * complete record. Anything after it is a record cut short by a crash, or data
+     * that cannot be decoded.
+     *
+     * @param file The binary log file.
+     * @return The length of the content ending with a complete record.
+     * @throws IOException If the file cannot be read.
+     */
+    static long validLength(Path file) throws IOException {
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(file))) {
+            try {
+                while (decoder.next() != null) {
+                    // Only the position after each record matters.
+                }
+            } catch (IOException corrupt) {
+                // Keep everything up to the last record that could be read.
+            }
+            return decoder.validLength;
+        }
+    }
+
+    /**
+     * Decodes a whole file into the {@link FileLogger} text layout.
+     *
+     * @param file The binary log file.
+     * @param out  The destination of the text lines.
+     * @throws IOException If the file cannot be read or is not a binary log.
+     */
+    public static void decode(Path file, Appendable out) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(file))) {
+            for (LogEvent event = decoder.next(); event != null; event = decoder.next()) {
+                line.setLength(0);
+                out.append(appendLine(line, event));
+            }
+        }
+    }
+
+    /**
+     * Decodes a binary log to standard output, or to a text file if a second path is given.
+     *
+     * @param args The binary log file and optionally the text file to write.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BinaryLogDecoder <binary log> [text output]");
+            System.exit(2);
+        }
+        Writer writer = args.length == 2
+                ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try {
+            decode(Path.of(args[0]), writer);
+        } finally {
+            writer.flush();
+            if (args.length == 2) writer.close();
+        }
+    }
+
+    /**
+     * Renders a decoded event exactly like {@link FileLogger} renders a live one,
+     * including the line separator.
+     *
+     * @param sb    The builder to append to.
+     * @param event An event returned by {@link #next()}.
+     * @return The same builder for chaining.
+     */
+    public static StringBuilder appendLine(StringBuilder sb, LogEvent event) {
+        if (!(event.getThrowable() instanceof RecordedThrowable recorded)) {
+            return FileLayout.appendLine(sb, event);
+        }
+        FileLayout.appendPrefix(sb, event);
+        if (event.getContext() != null) {
+            sb.append('[').append(event.getContext().name()).append("] ");
+        }
+        event.formatMessageTo(sb);
+        sb.append(" | ").append(recorded.getSimpleName()).append(": ").append(recorded.getMessage());
+        Log.getStackTraceRenderer().appendTo(sb.append('\n'), recorded);
+        return sb.append(System.lineSeparator());
+    }
+
+    /**
+     * Reads the next entry.
+     *
+     * @return The next {@link LogEvent}, or {@code null} at the end of the file.
+     * @throws IOException If the content is not a valid binary log.
+     */
+    public LogEvent next() throws IOException {
+        try {
+            for (; ; ) {
+                int tag = in.read();
+                if (tag < 0) return null;
+                if (tag == BinaryLogFormat.MAGIC[0]) {
+                    readHeader();
+                    validLength = counter.count;
+                } else if (tag == BinaryLogFormat.EVENT) {
+                    LogEvent event = readEvent();
+                    validLength = counter.count;
+                    return event;
+                } else {
+                    throw new IOException("Unknown record type " + tag);
+                }
+            }
+        } catch (EOFException truncated) {
+            return null;
+        }
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException If the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        for (int i = 1; i < BinaryLogFormat.MAGIC.length; i++) {
+            if (in.readByte() != BinaryLogFormat.MAGIC[i]) {
+                throw new IOException("Not a SimpleLog binary log");
+            }
+        }
+        int version = in.readUnsignedByte();
+        if (version != BinaryLogFormat.VERSION) {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+        dictionary.clear();
+    }
+
+    private LogEvent readEvent() throws IOException {
+        long timestamp = in.readLong();
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= KINDS.length) {
+            throw new IOException("Unknown log kind " + ordinal);
+        }
+        LogKind kind = KINDS[ordinal];
+        String template = readRef();
+        String context = readRef();
+        String thread = readRef();
+
+        int count = readVarint();
+        Object[] args = count == 0 ? null : new Object[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = readArg();
+        }
+
+        Throwable throwable = in.readBoolean() ? readThrowable() : null;
+        return new LogEvent(timestamp, kind, context == null ? null : new LogContext(context),
+                thread, template, args, throwable);
+    }
+
+    private Object readArg() throws IOException {
+        int type = in.readUnsignedByte();
+        return switch (type) {
+            case BinaryLogFormat.ARG_NULL -> null;
+            case BinaryLogFormat.ARG_INT -> in.readInt();
+            case BinaryLogFormat.ARG_LONG -> in.readLong();
+            case BinaryLogFormat.ARG_FLOAT -> in.readFloat();
+            case BinaryLogFormat.ARG_DOUBLE -> in.readDouble();
+            case BinaryLogFormat.ARG_BOOLEAN -> in.readBoolean();
+            case BinaryLogFormat.ARG_CHAR -> in.readChar();
+            case BinaryLogFormat.ARG_SHORT -> in.readShort();
+            case BinaryLogFormat.ARG_BYTE -> in.readByte();
+            case BinaryLogFormat.ARG_STRING -> readString();
+            case BinaryLogFormat.ARG_BIG_INTEGER -> new BigInteger(readString());
+            case BinaryLogFormat.ARG_BIG_DECIMAL -> new BigDecimal(readString());
+            default -> throw new IOException("Unknown argument type " + type);
+        };
+    }
+
+    private RecordedThrowable readThrowable() throws IOException {
+        String className = readRef();
+        String simpleName = readRef();
+        String message = readString();
+        String localized = in.readBoolean() ? readString() : message;
+
+        StackTraceElement[] frames = new StackTraceElement[readVarint()];
+        for (int i = 0; i < frames.length; i++) {
+            String loader = readRef();
+            String module = readRef();
+            String version = readRef();
+            String declaringClass = readRef();
+            String method = readRef();
+            String file = readRef();
+            int zigzag = readVarint();
+            int line = (zigzag >>> 1) ^ -(zigzag & 1);
+            frames[i] = new StackTraceElement(loader, module, version, declaringClass, method, file, line);
+        }
+
+        RecordedThrowable throwable = new RecordedThrowable(className, simpleName, message, localized);
+        throwable.setStackTrace(frames);
+        int suppressed = readVarint();
+        for (int i = 0; i < suppressed; i++) {
+            throwable.addSuppressed(readThrowable());
+        }
+        if (in.readBoolean()) {
+            throwable.initCause(readThrowable());
+        }
+        return throwable;
+    }
+
+    private String readRef() throws IOException {
+        int ref = readVarint();
+        if (ref == BinaryLogFormat.REF_NULL) return null;
+        if (ref == BinaryLogFormat.REF_NEW) {
+            String value = readString();
+            dictionary.add(value);
+            return value;
+        }
+        if (ref - 1 > dictionary.size()) {
+            throw new IOException("Unknown dictionary entry " + (ref - 1));
+        }
+        return dictionary.get(ref - 2);
+    }
+
+    private String readString() throws IOException {
+        int length = readVarint();
+        if (length == 0) return null;
+        length--;
+        if (bytes.length < length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length, bytes.length * 2));
+        }
+        in.readFully(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Counts the bytes handed to the {@link DataInputStream}, so the end of every
+     * record is known despite the buffering underneath.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * A stand-in for an exception read from a binary log. It prints the original
+     * class name, message and stack frames, together with its causes and suppressed
+     * exceptions, just like the original did.
+     */
+    @Getter
+    public static final class RecordedThrowable extends Throwable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The fully qualified class name of the original exception.
+         */
+        private final String className;
+        /**
+         * The simple class name of the original exception.
+         */
+        private final String simpleName;
+        private final String localizedMessage;
+
+        private RecordedThrowable(String className, String simpleName, String message, String localizedMessage) {
+            super(message);
+            this.className = className;
+            this.simpleName = simpleName;
+            this.localizedMessage = localizedMessage;
+        }
+
+        /**
+         * @return The localized message of the original exception.
+         */
+        @Override
+        public String getLocalizedMessage() {
+            return localizedMessage;
+        }
+
+        /**
+         * @return The same header the original exception printed.
+         */
+        @Override
+        public String toString() {
+            return localizedMessage != null ? className + ": " + localizedMessage : className;
+        }
+
+        /**
+         * The frames are set from the log; capturing the decoder's own stack is skipped.
+         *
+         * @return This throwable.
+         */
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
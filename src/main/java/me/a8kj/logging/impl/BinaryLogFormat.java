@@ -0,0 +1,47 @@
+package me.a8kj.logging.impl;
+
+/**
+ * The constants of the binary log format shared by {@link BinaryFileLogger}
+ * and {@link BinaryLogDecoder}.
+ * <p>
+ * A file is a sequence of records. A header record (the magic bytes followed by
+ * the format version) starts the file and every time the writer resets its string
+ * dictionary. An event record is {@link #EVENT} followed by the timestamp as a
+ * big-endian long, the {@code LogKind} ordinal, the template, context and thread
+ * references, the typed arguments and an optional throwable.
+ * </p>
+ * <p>
+ * Integers are unsigned LEB128 varints. A dictionary reference is {@code 0} for
+ * {@code null}, {@code 1} for a new entry whose UTF-8 string follows inline and
+ * receives the next id, or {@code id + 1} for an entry defined earlier. An inline
+ * string is its byte length plus one ({@code 0} for {@code null}) followed by the bytes.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class BinaryLogFormat {
+
+    static final byte[] MAGIC = {'S', 'L', 'O', 'G'};
+    static final byte VERSION = 1;
+
+    static final int EVENT = 1;
+
+    static final int REF_NULL = 0;
+    static final int REF_NEW = 1;
+
+    static final int ARG_NULL = 0;
+    static final int ARG_INT = 1;
+    static final int ARG_LONG = 2;
+    static final int ARG_FLOAT = 3;
+    static final int ARG_DOUBLE = 4;
+    static final int ARG_BOOLEAN = 5;
+    static final int ARG_CHAR = 6;
+    static final int ARG_SHORT = 7;
+    static final int ARG_BYTE = 8;
+    static final int ARG_STRING = 9;
+    static final int ARG_BIG_INTEGER = 10;
+    static final int ARG_BIG_DECIMAL = 11;
+
+    private BinaryLogFormat() {
+    }
+}
@@ -0,0 +1,421 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.TimestampFormatter;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * A console destination that batches its output and writes it on a background thread.
+ * <p>
+ * {@link ConsoleLogger} prints and flushes every line on the calling thread, so
+ * concurrent callers serialize on {@code System.out} and a slow terminal or pipe stalls
+ * them. This logger renders the line on the calling thread into a per-thread buffer and
+ * only holds its lock to copy the bytes into a shared batch buffer. A writer thread
+ * swaps the batch with a second buffer and writes it to {@link FileDescriptor#out}
+ * through a {@link FileChannel} with a single system call.
+ * </p>
+ * <p>
+ * The {@link FlushPolicy} controls the batching: its buffer size is the capacity of
+ * each batch buffer in bytes, and its maximum delay is the longest time a line waits
+ * before it is written; zero writes every batch as soon as possible. A batch is also
+ * written once it holds the policy's record count, once it is half full, or as soon
+ * as an immediate kind is logged. When the batch buffer is full, callers wait at most
+ * the configured time for the writer and then drop the line; see
+ * {@link #getDroppedCount()}.
+ * </p>
+ * <p>
+ * The output bypasses {@code System.out}, so text printed there directly may appear
+ * out of order relative to logged lines, and a replaced {@code System.out} is not used.
+ * Implements {@link AutoCloseable}; closing writes every pending line and stops the
+ * writer thread. Standard output itself stays open.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * Log.addDestination(new BufferedConsoleLogger(FlushPolicy.grouped(256, 20), 100));
+ * Log.info("Application started");
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class BufferedConsoleLogger implements Logger, AutoCloseable {
+
+    /**
+     * The batch buffer size used by the default constructor, in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    /**
+     * The longest time a caller waits for room in the batch buffer by default, in milliseconds.
+     */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 1000;
+
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TimestampFormatter timestamps;
+    private final LevelStyleTable styles;
+    private final FlushPolicy flushPolicy;
+    private final long maxLatencyNanos;
+    private final long maxWaitNanos;
+    private final Charset charset;
+    private final FileOutputStream stdout = new FileOutputStream(FileDescriptor.out);
+    private final FileChannel channel = stdout.getChannel();
+    private final ThreadLocal<ConsoleLayout> layouts = ThreadLocal.withInitial(ConsoleLayout::new);
+    private final LongAdder dropped = new LongAdder();
+    private final SinkMetrics metrics = LogMetrics.sink(getName());
+    private final IntSupplier queueDepth = this::getPendingBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Signalled when the writer thread has something to do.
+     */
+    private final Condition work = lock.newCondition();
+    /**
+     * Signalled when the writer thread freed the batch buffer or finished a write.
+     */
+    private final Condition progress = lock.newCondition();
+
+    private final Thread writer;
+    private final Thread shutdownHook;
+
+    /*
+     * Guarded by the lock. The writer thread owns the draining buffer while it writes.
+     */
+    private ByteBuffer pending;
+    private ByteBuffer draining;
+    private int pendingRecords;
+    private long firstPendingNanos;
+    private boolean urgent;
+    private long appendedBytes;
+    private long writtenBytes;
+    private boolean running = true;
+
+    /**
+     * Creates a buffered console logger with the "HH:mm:ss" time of day, colors as
+     * reported by {@link AnsiUtils#isEnabled()}, a 64 KiB batch buffer, a write at
+     * least every 50 milliseconds or 256 lines, and a one second wait when full.
+     */
+    public BufferedConsoleLogger() {
+        this(FlushPolicy.grouped(256, 50).withBufferSize(DEFAULT_BUFFER_SIZE), DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Creates a buffered console logger with the "HH:mm:ss" time of day and colors as
+     * reported by {@link AnsiUtils#isEnabled()}.
+     *
+     * @param flushPolicy   The {@link FlushPolicy} controlling buffer size, latency and immediate kinds.
+     * @param maxWaitMillis The longest time a caller waits when the buffer is full before the line is dropped.
+     */
+    public BufferedConsoleLogger(FlushPolicy flushPolicy, long maxWaitMillis) {
+        this(TimestampFormatter.TIME_OF_DAY, AnsiUtils.isEnabled(), flushPolicy, maxWaitMillis);
+    }
+
+    /**
+     * Creates a buffered console logger and starts its writer thread.
+     *
+     * @param timestamps    The {@link TimestampFormatter} rendering the leading timestamp.
+     * @param colors        True for colored level badges; false for plain text, in which case
+     *                      ANSI codes inside messages are stripped as well.
+     * @param flushPolicy   The {@link FlushPolicy} controlling buffer size, latency and immediate kinds.
+     * @param maxWaitMillis The longest time a caller waits when the buffer is full before the line is dropped.
+     * @throws IllegalArgumentException if the wait is negative.
+     */
+    public BufferedConsoleLogger(TimestampFormatter timestamps, boolean colors, FlushPolicy flushPolicy, long maxWaitMillis) {
+        if (maxWaitMillis < 0) throw new IllegalArgumentException("maxWaitMillis must not be negative: " + maxWaitMillis);
+        this.timestamps = timestamps;
+        this.styles = LevelStyleTable.of(colors);
+        this.flushPolicy = flushPolicy;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(flushPolicy.getMaxDelayMillis());
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.charset = System.out.charset();
+        this.pending = ByteBuffer.allocate(flushPolicy.getBufferSize());
+        this.draining = ByteBuffer.allocate(flushPolicy.getBufferSize());
+        this.metrics.addQueueDepth(queueDepth);
+
+        this.writer = new Thread(this::drain, "SimpleLog-BufferedConsoleLogger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        this.shutdownHook = new Thread(this::close, "SimpleLog-BufferedConsoleLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a plain message for the console.
+     *
+     * @param message The message content to be logged.
+     * @param kind    The severity level or category of the log message.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Renders an event on the calling thread and appends it to the batch buffer.
+     * Lines larger than the buffer are written directly once the buffer has been drained.
+     * After {@link #close()} lines are written synchronously.
+     *
+     * @param event The {@link LogEvent} to print.
+     */
+    @Override
+    public void log(LogEvent event) {
+        ConsoleLayout layout = layouts.get();
+        int length = layout.render(event, timestamps, styles, charset);
+        byte[] bytes = layout.bytes();
+        layout.trim();
+
+        lock.lock();
+        try {
+            if (running && length <= pending.capacity()) {
+                if (awaitRoom(length)) {
+                    append(bytes, length, event.getKind());
+                    recordBytes(length);
+                    return;
+                }
+                if (running) {
+                    drop();
+                    return;
+                }
+            }
+            if (awaitWritten(appendedBytes)) {
+                writeDirect(bytes, length);
+                recordBytes(length);
+            } else {
+                drop();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every line logged so far has been written to standard output.
+     */
+    @Override
+    public void flush() {
+        if (Thread.currentThread() == writer) return;
+        lock.lock();
+        try {
+            long target = appendedBytes;
+            urgent = true;
+            work.signal();
+            while (writtenBytes < target && writer.isAlive()) {
+                progress.awaitNanos(FLUSH_PARK_NANOS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lines discarded because the buffer stayed full for longer
+     * than the maximum wait, or because the caller was interrupted while waiting.
+     *
+     * @return The total count of dropped lines.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of bytes appended to the batch buffer but not yet written.
+     *
+     * @return The current backlog in bytes.
+     */
+    public int getPendingBytes() {
+        lock.lock();
+        try {
+            return (int) (appendedBytes - writtenBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every pending line and stops the writer thread. Lines logged afterwards
+     * are written synchronously on the caller thread.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!running) return;
+            running = false;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        metrics.removeQueueDepth(queueDepth);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; this call is the hook itself.
+        }
+    }
+
+    /**
+     * Waits until the batch buffer has room for the given number of bytes. Returns
+     * {@code false} if the wait timed out or the logger was closed meanwhile.
+     * Must be called with the lock held.
+     */
+    private boolean awaitRoom(int length) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            while (pending.remaining() < length) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0 || !running) return false;
+                urgent = true;
+                work.signal();
+                progress.awaitNanos(left);
+            }
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits until everything appended up to the target has been written.
+     * Must be called with the lock held.
+     */
+    private boolean awaitWritten(long target) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            while (writtenBytes < target && writer.isAlive()) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) return false;
+                urgent = true;
+                work.signal();
+                progress.awaitNanos(left);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void append(byte[] bytes, int length, LogKind kind) {
+        if (pending.position() == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        pending.put(bytes, 0, length);
+        appendedBytes += length;
+        if (++pendingRecords >= flushPolicy.getMaxRecords()
+                || flushPolicy.isImmediate(kind)
+                || pending.position() >= pending.capacity() / 2) {
+            urgent = true;
+            work.signal();
+        } else if (pendingRecords == 1) {
+            // Let the writer start the latency timer.
+            work.signal();
+        }
+    }
+
+    private void writeDirect(byte[] bytes, int length) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ignored) {
+        }
+        appendedBytes += length;
+        writtenBytes += length;
+    }
+
+    private void drain() {
+        while (true) {
+            ByteBuffer batch;
+            long target;
+            lock.lock();
+            try {
+                while (!ready()) {
+                    if (pending.position() == 0) {
+                        work.await();
+                    } else {
+                        work.awaitNanos(firstPendingNanos + maxLatencyNanos - System.nanoTime());
+                    }
+                }
+                if (pending.position() == 0) return;
+                batch = pending;
+                pending = draining;
+                draining = batch;
+                target = appendedBytes;
+                pendingRecords = 0;
+                urgent = false;
+                progress.signalAll();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+            } catch (IOException ignored) {
+            } finally {
+                batch.clear();
+            }
+
+            lock.lock();
+            try {
+                writtenBytes = target;
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the writer should write the pending batch now, or stop if it is
+     * empty and the logger is closed. Must be called with the lock held.
+     */
+    private boolean ready() {
+        if (!running) return true;
+        if (pending.position() == 0) return false;
+        return urgent || System.nanoTime() - firstPendingNanos >= maxLatencyNanos;
+    }
+
+    private void drop() {
+        dropped.increment();
+        if (LogMetrics.isEnabled()) {
+            metrics.addDropped();
+        }
+    }
+
+    private void recordBytes(int length) {
+        if (LogMetrics.isEnabled()) {
+            metrics.addBytes(length);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package me.a8kj.logging.impl;
 
 
-import me.a8kj.logging.Log;
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
 import me.a8kj.logging.LogKind;
+import me.a8kj.logging.LogLevels;
 import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -14,22 +18,126 @@ import java.util.List;
  * This class acts as a container for multiple loggers, distributing a single log
  * message to all registered destinations. It is the core of the multi-channel
  * logging system.
+ * <p>
+ * Destinations are kept in an immutable routing table with one array of loggers per
+ * {@link LogKind}. Adding or removing a destination builds a new table and publishes
+ * it atomically, so dispatching an entry is one volatile
+ * read and an array walk without locks. A destination registered with a minimum kind
+ * is simply absent from the arrays of less severe kinds and is never invoked for them.
+ * Entries below the level of their context (see {@link LogLevels}) are dropped first.
+ * </p>
+ * <p>
+ * By default the destinations are invoked one after another on the caller thread, so a
+ * stalled destination delays the caller and every destination after it. A destination
+ * registered with an {@link IsolationPolicy}, or any destination added after
+ * {@link #setDefaultIsolation(IsolationPolicy)}, is wrapped in an {@link IsolatedLogger}
+ * with its own queue and drain worker instead; dispatching to it only copies the event
+ * into its queue, and {@link #getHealth(Logger)} reports whether it keeps up.
+ * </p>
+ * <p>
+ * While {@link LogMetrics} is enabled, every call of a destination is counted and timed
+ * under the destination's {@link Logger#getName() name}. For an isolated destination
+ * this is the time spent queueing the entry.
+ * </p>
  *
  * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
  */
 public class CompositeLogger implements Logger {
 
+    private static final LogKind[] KINDS = LogKind.values();
+
     /**
-     * The collection of registered loggers that will receive broadcasted messages.
+     * The registered destinations with their filters, in registration order.
+     * Only modified under the lock of this instance.
      */
-    private final List<Logger> loggers = Collections.synchronizedList(new ArrayList<>());
+    private final List<Route> routes = new ArrayList<>();
+    private volatile RoutingTable table = new RoutingTable(new Logger[0], emptyRows(), new SinkMetrics[KINDS.length][0]);
+    private IsolationPolicy defaultIsolation;
+
     /**
-     * Adds a new logger destination to the broadcast list.
+     * Sets the isolation applied to destinations added from now on without a policy of
+     * their own. Destinations that are already registered are not affected.
+     *
+     * @param isolation The {@link IsolationPolicy} of new destinations, or {@code null}
+     *                  to invoke them on the caller thread again.
+     */
+    public synchronized void setDefaultIsolation(IsolationPolicy isolation) {
+        this.defaultIsolation = isolation;
+    }
+
+    /**
+     * Adds a new logger destination to the broadcast list. It receives every kind.
      *
      * @param logger The {@link Logger} implementation to register.
      */
     public void addLogger(Logger logger) {
-        loggers.add(logger);
+        addLogger(logger, LogKind.DEBUG);
+    }
+
+    /**
+     * Adds a new logger destination that only receives entries at least as severe
+     * as the given kind.
+     *
+     * @param logger      The {@link Logger} implementation to register.
+     * @param minimumKind The least severe {@link LogKind} the destination receives.
+     */
+    public synchronized void addLogger(Logger logger, LogKind minimumKind) {
+        addLogger(logger, minimumKind, defaultIsolation);
+    }
+
+    /**
+     * Adds a new logger destination with its own queue and drain worker, so that it
+     * cannot delay the caller or the other destinations.
+     *
+     * @param logger      The {@link Logger} implementation to register.
+     * @param minimumKind The least severe {@link LogKind} the destination receives.
+     * @param isolation   The {@link IsolationPolicy} of the destination's queue, or
+     *                    {@code null} to invoke it on the caller thread.
+     */
+    public synchronized void addLogger(Logger logger, LogKind minimumKind, IsolationPolicy isolation) {
+        Logger target = isolation == null ? logger : new IsolatedLogger(logger, isolation);
+        routes.add(new Route(logger, target, minimumKind, LogMetrics.sink(target.getName())));
+        rebuild();
+    }
+
+    /**
+     * Removes a logger destination. Entries being dispatched concurrently may still
+     * reach it once. An isolated destination is given the chance to write its queued
+     * entries first, for as long as it keeps making progress.
+     *
+     * @param logger The {@link Logger} to unregister.
+     * @return {@code true} if the logger was registered.
+     */
+    public boolean removeLogger(Logger logger) {
+        List<Route> removed;
+        synchronized (this) {
+            removed = routes.stream().filter(route -> route.logger == logger).toList();
+            if (removed.isEmpty()) return false;
+            routes.removeAll(removed);
+            rebuild();
+        }
+        for (Route route : removed) {
+            if (route.target instanceof IsolatedLogger isolated) {
+                isolated.close();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether a registered destination keeps up with its entries. Destinations
+     * invoked on the caller thread are always {@link SinkHealth#HEALTHY}.
+     *
+     * @param logger The registered {@link Logger}.
+     * @return The health of the destination, or {@code null} if it is not registered.
+     */
+    public synchronized SinkHealth getHealth(Logger logger) {
+        for (Route route : routes) {
+            if (route.logger == logger) {
+                return route.target instanceof IsolatedLogger isolated ? isolated.getHealth() : SinkHealth.HEALTHY;
+            }
+        }
+        return null;
     }
 
     /**
@@ -38,14 +146,105 @@ public class CompositeLogger implements Logger {
      * {@code log} methods.
      *
      * @param message The message content to be logged.
-     * @param level   The {@link LogKind} severity level.
+     * @param kind    The {@link LogKind} severity level.
      */
     @Override
     public void log(String message, LogKind kind) {
-        if(kind == LogKind.DEBUG && !Log.isDebugEnabled()) return;
-        for (Logger logger : loggers) {
-            logger.log(message, kind);
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Broadcasts a structured event to every logger routed for its kind. The same event
+     * instance is shared by all destinations, so values such as the timestamp
+     * and the formatted message are computed at most once; isolated destinations
+     * queue their own copy.
+     *
+     * @param event The {@link LogEvent} to dispatch.
+     */
+    @Override
+    public void log(LogEvent event) {
+        if (!LogLevels.isEnabled(event.getKind(), event.getContext())) return;
+        RoutingTable current = table;
+        int kind = event.getKind().ordinal();
+        if (LogMetrics.isEnabled()) {
+            logMeasured(event, current.byKind[kind], current.metricsByKind[kind]);
+            return;
+        }
+        for (Logger logger : current.byKind[kind]) {
+            logger.log(event);
+        }
+    }
+
+    /**
+     * Flushes every registered logger. Isolated destinations are flushed by their drain
+     * worker, and degraded ones are not waited for.
+     */
+    @Override
+    public void flush() {
+        for (Logger logger : table.all) {
+            logger.flush();
+        }
+    }
+
+    /**
+     * Checks whether at least one logger routed for the kind accepts the given entry.
+     * Entries below the level of their context are rejected.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if any destination would write the entry.
+     */
+    @Override
+    public boolean isEnabled(LogKind kind, LogContext context) {
+        if (!LogLevels.isEnabled(kind, context)) return false;
+        for (Logger logger : table.byKind[kind.ordinal()]) {
+            if (logger.isEnabled(kind, context)) return true;
         }
+        return false;
     }
 
-}
\ No newline at end of file
+    private static void logMeasured(LogEvent event, Logger[] loggers, SinkMetrics[] metrics) {
+        for (int i = 0; i < loggers.length; i++) {
+            long start = System.nanoTime();
+            loggers[i].log(event);
+            metrics[i].recordLog(System.nanoTime() - start);
+        }
+    }
+
+    private void rebuild() {
+        Logger[] all = new Logger[routes.size()];
+        Logger[][] byKind = emptyRows();
+        SinkMetrics[][] metricsByKind = new SinkMetrics[KINDS.length][];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = routes.get(i).target;
+        }
+        for (LogKind kind : KINDS) {
+            List<Route> routed = routes.stream()
+                    .filter(route -> kind.isAtLeast(route.minimumKind))
+                    .toList();
+            byKind[kind.ordinal()] = routed.stream().map(Route::target).toArray(Logger[]::new);
+            metricsByKind[kind.ordinal()] = routed.stream().map(Route::metrics).toArray(SinkMetrics[]::new);
+        }
+        table = new RoutingTable(all, byKind, metricsByKind);
+    }
+
+    private static Logger[][] emptyRows() {
+        Logger[][] rows = new Logger[KINDS.length][];
+        Arrays.fill(rows, new Logger[0]);
+        return rows;
+    }
+
+    /**
+     * A registered destination, the logger entries are dispatched to (the destination
+     * itself or its {@link IsolatedLogger}), its minimum kind and its metrics.
+     */
+    private record Route(Logger logger, Logger target, LogKind minimumKind, SinkMetrics metrics) {
+    }
+
+    /**
+     * An immutable snapshot of the destinations, indexed by {@link LogKind} ordinal.
+     * The metrics rows are parallel to the logger rows.
+     */
+    private record RoutingTable(Logger[] all, Logger[][] byKind, SinkMetrics[][] metricsByKind) {
+    }
+}
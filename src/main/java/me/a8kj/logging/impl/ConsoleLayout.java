@@ -0,0 +1,101 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.TextEncoder;
+import me.a8kj.logging.util.TimestampFormatter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Renders console lines, {@code [timestamp] BADGE | message}, into a reused byte array.
+ * <p>
+ * The timestamp and the body are built in a reused {@link StringBuilder} and encoded
+ * straight to bytes, and the level badge is copied from the bytes cached by the
+ * {@link LevelStyleTable}, so no intermediate strings are created. Instances are not
+ * thread-safe; each console destination keeps one per writer.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class ConsoleLayout {
+
+    private static final int MAX_RETAINED_LINE = 16384;
+
+    private StringBuilder line = new StringBuilder(256);
+    private byte[] output = new byte[512];
+    private TextEncoder encoder;
+
+    /**
+     * Renders an event. The bytes stay valid in {@link #bytes()} until the next call.
+     *
+     * @param event      The event to render.
+     * @param timestamps The {@link TimestampFormatter} for the leading timestamp.
+     * @param styles     The badges; if they are plain, ANSI codes in the message are stripped too.
+     * @param charset    The charset of the output.
+     * @return The number of bytes written to the start of {@link #bytes()}.
+     */
+    int render(LogEvent event, TimestampFormatter timestamps, LevelStyleTable styles, Charset charset) {
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = new TextEncoder(charset);
+        }
+
+        line.setLength(0);
+        timestamps.formatTo(line.append('['), event.getTimestamp(), event.getNanos()).append("] ");
+        int length = put(encoder.encode(line), 0);
+        length = put(styles.badgeBytes(event.getKind(), charset), length);
+
+        line.setLength(0);
+        event.renderTo(line.append(" | ")).append(System.lineSeparator());
+        if (!styles.isColored()) {
+            AnsiUtils.stripColorsInPlace(line);
+        }
+        length = put(encoder.encode(line), length);
+
+        if (line.capacity() > MAX_RETAINED_LINE) {
+            line = new StringBuilder(256);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the output of the last {@link #render} call. The array is replaced by a
+     * smaller one after an oversized line, so it must be fetched after every call.
+     *
+     * @return The reused output array.
+     */
+    byte[] bytes() {
+        return output;
+    }
+
+    /**
+     * Drops an output array that grew beyond the retained size. Call this once the
+     * bytes of the last line have been consumed.
+     */
+    void trim() {
+        if (output.length > MAX_RETAINED_LINE) {
+            output = new byte[512];
+        }
+    }
+
+    private int put(ByteBuffer bytes, int offset) {
+        int length = bytes.remaining();
+        ensureOutput(offset + length);
+        bytes.get(bytes.position(), output, offset, length);
+        return offset + length;
+    }
+
+    private int put(byte[] bytes, int offset) {
+        ensureOutput(offset + bytes.length);
+        System.arraycopy(bytes, 0, output, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
+    private void ensureOutput(int size) {
+        if (output.length < size) {
+            output = Arrays.copyOf(output, Math.max(size, output.length * 2));
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package me.a8kj.logging.impl;
 
-import com.diogonunes.jcolor.Attribute;
+import me.a8kj.logging.LogEvent;
 import me.a8kj.logging.LogKind;
 import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
 import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.TimestampFormatter;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.io.PrintStream;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * An implementation of {@link Logger} that outputs log messages
  * to the standard console (System.out) with ANSI color coding.
  * <p>
  * Each {@link LogKind} is assigned a specific color for better
- * readability. Timestamps are formatted in "HH:mm:ss".
+ * readability. Timestamps are taken from the {@link LogEvent} and formatted in "HH:mm:ss"
+ * unless another {@link TimestampFormatter} is given.
+ * </p>
+ * <p>
+ * Colors follow {@link AnsiUtils#isEnabled()} by default, so they are switched off
+ * when the output is not a terminal; the line is then printed as plain text.
  * </p>
  *
  * <p>Example usage:</p>
@@ -37,8 +45,41 @@ import java.time.format.DateTimeFormatter;
  */
 public class ConsoleLogger implements Logger {
 
-    private static final DateTimeFormatter formatter =
-            DateTimeFormatter.ofPattern("HH:mm:ss");
+    private final TimestampFormatter timestamps;
+    private final LevelStyleTable styles;
+    private final ConsoleLayout layout = new ConsoleLayout();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SinkMetrics metrics = LogMetrics.sink(getName());
+
+    /**
+     * Creates a console logger that shows the time of day as "HH:mm:ss".
+     * Colors are used if {@link AnsiUtils#isEnabled()} reports color support.
+     */
+    public ConsoleLogger() {
+        this(TimestampFormatter.TIME_OF_DAY);
+    }
+
+    /**
+     * Creates a console logger with a custom timestamp format.
+     * Colors are used if {@link AnsiUtils#isEnabled()} reports color support.
+     *
+     * @param timestamps The {@link TimestampFormatter} rendering the leading timestamp.
+     */
+    public ConsoleLogger(TimestampFormatter timestamps) {
+        this(timestamps, AnsiUtils.isEnabled());
+    }
+
+    /**
+     * Creates a console logger with a custom timestamp format and an explicit color setting.
+     *
+     * @param timestamps The {@link TimestampFormatter} rendering the leading timestamp.
+     * @param colors     True for colored level badges; false for plain text, in which case
+     *                   ANSI codes inside messages are stripped as well.
+     */
+    public ConsoleLogger(TimestampFormatter timestamps, boolean colors) {
+        this.timestamps = timestamps;
+        this.styles = LevelStyleTable.of(colors);
+    }
 
     /**
      * Logs a message to the console with color coding based on {@link LogKind}.
@@ -49,18 +90,34 @@ public class ConsoleLogger implements Logger {
      */
     @Override
     public void log(String message, LogKind kind) {
-        String time = LocalTime.now().format(formatter);
-
-        String coloredLevel = switch (kind) {
-            case INFO -> AnsiUtils.cyan("INFO");
-            case WARN -> AnsiUtils.yellow("WARN");
-            case CUSTOM -> AnsiUtils.color(" CUSTOM ", Attribute.BRIGHT_BLUE_TEXT());
-            case DEBUG -> AnsiUtils.color("DEBUG", Attribute.BRIGHT_WHITE_TEXT());
-            case ERROR, EXCEPTION -> AnsiUtils.red("ERROR");
-            case FATAL -> AnsiUtils.errorStyle(" FATAL ");
-            case CHAT -> AnsiUtils.green("CHAT");
-        };
+        log(LogEvent.of(message, kind));
+    }
 
-        System.out.println("[" + time + "] " + coloredLevel + " | " + message);
+    /**
+     * Logs an event to the console with color coding based on its {@link LogKind}.
+     * The line is prefixed with the event timestamp and the log level.
+     * <p>
+     * The line is built in a reused buffer and encoded straight to bytes, so no
+     * intermediate strings are created for the message; the level badge is copied
+     * from bytes encoded once per {@link LogKind}.
+     * </p>
+     *
+     * @param event The {@link LogEvent} to print.
+     */
+    @Override
+    public void log(LogEvent event) {
+        lock.lock();
+        try {
+            PrintStream out = System.out;
+            int length = layout.render(event, timestamps, styles, out.charset());
+            out.write(layout.bytes(), 0, length);
+            out.flush();
+            layout.trim();
+            if (LogMetrics.isEnabled()) {
+                metrics.addBytes(length);
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -0,0 +1,91 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.util.TimestampFormatter;
+
+/**
+ * The plain-text line layout shared by the file destinations:
+ * {@code [timestamp] [KIND] [Context] message}, followed by the throwable
+ * details and a line separator. Timestamps default to
+ * {@link TimestampFormatter#ISO_LOCAL_MILLIS}.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class FileLayout {
+
+    private FileLayout() {
+    }
+
+    /**
+     * Appends the complete line for an event, including the trailing line separator.
+     *
+     * @param sb    The builder to append to.
+     * @param event The event to render.
+     * @return The same builder for chaining.
+     */
+    static StringBuilder appendLine(StringBuilder sb, LogEvent event) {
+        return appendLine(sb, event, TimestampFormatter.ISO_LOCAL_MILLIS);
+    }
+
+    /**
+     * Appends the complete line for an event with a custom timestamp format.
+     *
+     * @param sb         The builder to append to.
+     * @param event      The event to render.
+     * @param timestamps The {@link TimestampFormatter} for the leading timestamp.
+     * @return The same builder for chaining.
+     */
+    static StringBuilder appendLine(StringBuilder sb, LogEvent event, TimestampFormatter timestamps) {
+        return event.renderTo(appendPrefix(sb, event, timestamps)).append(System.lineSeparator());
+    }
+
+    /**
+     * Appends the {@code [timestamp] [KIND] } prefix that precedes the entry body.
+     *
+     * @param sb    The builder to append to.
+     * @param event The event to render.
+     * @return The same builder for chaining.
+     */
+    static StringBuilder appendPrefix(StringBuilder sb, LogEvent event) {
+        return appendPrefix(sb, event, TimestampFormatter.ISO_LOCAL_MILLIS);
+    }
+
+    /**
+     * Appends the {@code [timestamp] [KIND] } prefix with a custom timestamp format.
+     *
+     * @param sb         The builder to append to.
+     * @param event      The event to render.
+     * @param timestamps The {@link TimestampFormatter} for the timestamp.
+     * @return The same builder for chaining.
+     */
+    static StringBuilder appendPrefix(StringBuilder sb, LogEvent event, TimestampFormatter timestamps) {
+        timestamps.formatTo(sb.append('['), event.getTimestamp(), event.getNanos());
+        return sb.append("] [").append(event.getKind().name()).append("] ");
+    }
+
+    /**
+     * Counts the bytes a line occupies in UTF-8 without encoding it. An unpaired
+     * surrogate counts as the single {@code '?'} the writer replaces it with.
+     *
+     * @param chars  The characters of the line.
+     * @param length The number of characters to count.
+     * @return The encoded length in bytes.
+     */
+    static long utf8Length(char[] chars, int length) {
+        long bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -1,23 +1,37 @@
 package me.a8kj.logging.impl;
 
+import me.a8kj.logging.LogEvent;
 import me.a8kj.logging.LogKind;
 import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
 import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.LogScheduler;
+import me.a8kj.logging.util.TimestampFormatter;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A logger implementation that persists log entries to a local file.
  * <p>
  * This implementation uses a {@link BufferedWriter} opened once at initialization
- * for improved performance. Each log message is flushed immediately to ensure
- * that entries are saved in real-time. ANSI color codes are stripped to maintain
+ * for improved performance. By default each log message is flushed immediately to
+ * ensure that entries are saved in real-time; a {@link FlushPolicy} can group
+ * several messages into one flush instead. ANSI color codes are stripped to maintain
  * readability across different text editors.
  * </p>
  * <p>
+ * With an {@link IndexPolicy}, a sparse index of the written blocks is kept next to
+ * the file, so a {@link LogReader} can answer time range, kind and context queries
+ * without scanning the whole log.
+ * </p>
+ * <p>
  * Implements {@link AutoCloseable} to allow proper resource management.
  * </p>
  *
@@ -33,19 +47,85 @@ import java.time.LocalDateTime;
  */
 public class FileLogger implements Logger, AutoCloseable {
 
+    private static final int MAX_RETAINED_LINE = 16384;
+
     private final String fileName;
     private final BufferedWriter writer;
+    private final FlushPolicy flushPolicy;
+    private final TimestampFormatter timestamps;
+    private final ScheduledFuture<?> flushTask;
+    private final Thread shutdownHook;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SinkMetrics metrics;
+    private final LogIndexWriter index;
+    private StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private int pendingRecords;
 
     /**
      * Initializes a new FileLogger writing to the specified file.
-     * If the file does not exist, it will be created.
+     * If the file does not exist, it will be created. Every message is flushed immediately.
      *
      * @param fileName The path to the log file.
      * @throws IOException If the file cannot be opened for writing.
      */
     public FileLogger(String fileName) throws IOException {
+        this(fileName, FlushPolicy.always());
+    }
+
+    /**
+     * Initializes a new FileLogger writing to the specified file with a custom flush policy.
+     * If the file does not exist, it will be created. Buffered messages are flushed on a
+     * background timer if the policy defines a delay, and when the JVM shuts down.
+     *
+     * @param fileName    The path to the log file.
+     * @param flushPolicy The {@link FlushPolicy} deciding when lines reach the file.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public FileLogger(String fileName, FlushPolicy flushPolicy) throws IOException {
+        this(fileName, flushPolicy, TimestampFormatter.ISO_LOCAL_MILLIS);
+    }
+
+    /**
+     * Initializes a new FileLogger with a custom flush policy and timestamp format.
+     *
+     * @param fileName    The path to the log file.
+     * @param flushPolicy The {@link FlushPolicy} deciding when lines reach the file.
+     * @param timestamps  The {@link TimestampFormatter} rendering the leading timestamp of each line.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public FileLogger(String fileName, FlushPolicy flushPolicy, TimestampFormatter timestamps) throws IOException {
+        this(fileName, flushPolicy, timestamps, null);
+    }
+
+    /**
+     * Initializes a new FileLogger that also maintains a sidecar index for {@link LogReader}.
+     * The index is written to {@code <fileName>.idx} whenever the file itself is flushed.
+     *
+     * @param fileName    The path to the log file.
+     * @param flushPolicy The {@link FlushPolicy} deciding when lines reach the file.
+     * @param timestamps  The {@link TimestampFormatter} rendering the leading timestamp of each line.
+     * @param indexPolicy The {@link IndexPolicy} deciding the block size, or {@code null} for no index.
+     * @throws IOException If the file or its index cannot be opened for writing.
+     */
+    public FileLogger(String fileName, FlushPolicy flushPolicy, TimestampFormatter timestamps,
+                      IndexPolicy indexPolicy) throws IOException {
         this.fileName = fileName;
-        this.writer = new BufferedWriter(new FileWriter(fileName, true));
+        this.flushPolicy = flushPolicy;
+        this.timestamps = timestamps;
+        this.metrics = LogMetrics.sink(getName());
+        this.writer = new BufferedWriter(new FileWriter(fileName, StandardCharsets.UTF_8, true), flushPolicy.getBufferSize());
+        try {
+            this.index = indexPolicy != null ? new LogIndexWriter(Path.of(fileName), indexPolicy) : null;
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        this.flushTask = flushPolicy.getMaxDelayMillis() > 0
+                ? LogScheduler.scheduleAtFixedRate(this::flush, flushPolicy.getMaxDelayMillis())
+                : null;
+        this.shutdownHook = new Thread(this::flush, "SimpleLog-FileLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
     /**
@@ -57,22 +137,109 @@ public class FileLogger implements Logger, AutoCloseable {
      */
     @Override
     public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Writes an event to the file using its captured timestamp and kind.
+     * ANSI color codes are only stripped when the rendered body contains any.
+     * The line is built in a reused buffer and handed to the writer as characters,
+     * so no intermediate strings are created for the message.
+     *
+     * @param event The {@link LogEvent} to persist.
+     */
+    @Override
+    public void log(LogEvent event) {
+        lock.lock();
+        try {
+            line.setLength(0);
+            FileLayout.appendLine(line, event, timestamps);
+
+            AnsiUtils.stripColorsInPlace(line);
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            line.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+            if (index != null || LogMetrics.isEnabled()) {
+                long bytes = FileLayout.utf8Length(chars, length);
+                if (index != null) index.add(event, bytes);
+                if (LogMetrics.isEnabled()) metrics.addBytes(bytes);
+            }
+
+            if (++pendingRecords >= flushPolicy.getMaxRecords() || flushPolicy.isImmediate(event.getKind())) {
+                flushWriter();
+            }
+
+            if (line.capacity() > MAX_RETAINED_LINE) {
+                line = new StringBuilder(256);
+                chars = new char[256];
+            }
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code "FileLogger[<file name>]"}.
+     */
+    @Override
+    public String getName() {
+        return "FileLogger[" + fileName + "]";
+    }
+
+    /**
+     * Pushes every buffered line to the file, regardless of the flush policy.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
         try {
-            String cleanMessage = AnsiUtils.stripColors(message);
-            writer.write(String.format("[%s] [%s] %s%n", LocalDateTime.now(), kind, cleanMessage));
-            writer.flush();
+            if (pendingRecords == 0) return;
+            flushWriter();
         } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Flushes the writer, then the index, so the index never points past the lines on disk.
+     */
+    private void flushWriter() throws IOException {
+        writer.flush();
+        pendingRecords = 0;
+        if (index != null) index.flush();
+    }
+
     /**
      * Closes the underlying file writer. Should be called when logging is complete
-     * to release system resources.
+     * to release system resources. Buffered lines are flushed first, and the open
+     * index block, if any, is completed.
      *
      * @throws Exception If an I/O error occurs while closing the writer.
      */
     @Override
     public void close() throws Exception {
-        writer.close();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; the hook flushes the writer.
+        }
+        lock.lock();
+        try {
+            try {
+                writer.close();
+            } finally {
+                if (index != null) index.close();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 }
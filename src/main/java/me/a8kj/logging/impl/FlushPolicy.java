@@ -0,0 +1,115 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+import me.a8kj.logging.LogKind;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Decides when a file destination pushes its buffered lines to the operating system.
+ * <p>
+ * Flushing after every line turns each log call into a {@code write} system call.
+ * A grouped policy instead commits several lines at once: after a number of records,
+ * after a maximum delay measured by a background timer, or whenever the write buffer
+ * fills up. Important kinds are still flushed immediately.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * FileLogger logger = new FileLogger("logs.txt", FlushPolicy.grouped(256, 1000));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class FlushPolicy {
+
+    /**
+     * The write buffer size used when none is given, in characters.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The number of records after which the buffer is flushed.
+     */
+    private final int maxRecords;
+    /**
+     * The maximum time a record stays buffered, in milliseconds; zero disables the timer.
+     */
+    private final long maxDelayMillis;
+    /**
+     * The size of the write buffer; the buffer is flushed whenever it fills up.
+     */
+    private final int bufferSize;
+    /**
+     * The kinds that are flushed as soon as they are written.
+     */
+    private final Set<LogKind> immediateKinds;
+
+    private FlushPolicy(int maxRecords, long maxDelayMillis, int bufferSize, Set<LogKind> immediateKinds) {
+        if (maxRecords <= 0) throw new IllegalArgumentException("maxRecords must be positive: " + maxRecords);
+        if (maxDelayMillis < 0) throw new IllegalArgumentException("maxDelayMillis must not be negative: " + maxDelayMillis);
+        if (bufferSize <= 0) throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        this.maxRecords = maxRecords;
+        this.maxDelayMillis = maxDelayMillis;
+        this.bufferSize = bufferSize;
+        this.immediateKinds = Collections.unmodifiableSet(immediateKinds);
+    }
+
+    /**
+     * Flushes after every record. This is the behavior of a {@link FileLogger}
+     * created without a policy.
+     *
+     * @return A policy that flushes every line.
+     */
+    public static FlushPolicy always() {
+        return new FlushPolicy(1, 0, DEFAULT_BUFFER_SIZE, EnumSet.allOf(LogKind.class));
+    }
+
+    /**
+     * Groups records into one flush. {@link LogKind#ERROR}, {@link LogKind#EXCEPTION}
+     * and {@link LogKind#FATAL} entries are still flushed immediately.
+     *
+     * @param maxRecords     Flush once this many records are buffered.
+     * @param maxDelayMillis Flush buffered records at least this often; zero disables the timer.
+     * @return A grouped flush policy.
+     */
+    public static FlushPolicy grouped(int maxRecords, long maxDelayMillis) {
+        return new FlushPolicy(maxRecords, maxDelayMillis, DEFAULT_BUFFER_SIZE,
+                EnumSet.of(LogKind.ERROR, LogKind.EXCEPTION, LogKind.FATAL));
+    }
+
+    /**
+     * Returns a copy of this policy that flushes the given kinds immediately
+     * instead of the current set.
+     *
+     * @param kinds The kinds that must reach the file without delay.
+     * @return A new policy.
+     */
+    public FlushPolicy immediateFor(LogKind... kinds) {
+        Set<LogKind> set = EnumSet.noneOf(LogKind.class);
+        set.addAll(Arrays.asList(kinds));
+        return new FlushPolicy(maxRecords, maxDelayMillis, bufferSize, set);
+    }
+
+    /**
+     * Returns a copy of this policy with another write buffer size.
+     *
+     * @param bufferSize The buffer size in characters.
+     * @return A new policy.
+     */
+    public FlushPolicy withBufferSize(int bufferSize) {
+        return new FlushPolicy(maxRecords, maxDelayMillis, bufferSize, immediateKinds);
+    }
+
+    /**
+     * @param kind The kind of the record just written.
+     * @return {@code true} if records of this kind are flushed without delay.
+     */
+    public boolean isImmediate(LogKind kind) {
+        return immediateKinds.contains(kind);
+    }
+}
@@ -0,0 +1,562 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.AnsiUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+/**
+ * A logger that posts its entries in batches to an HTTP endpoint, such as a webhook
+ * or a log collector, using {@link HttpClient}.
+ * <p>
+ * Callers only render the entry into the current batch; nothing on their path waits
+ * for the network. A background thread closes a batch once it is full or old enough
+ * (see {@link HttpPolicy}) and sends it asynchronously, keeping at most a fixed number
+ * of requests in flight. The body is UTF-8 text in the file layout, one entry per line.
+ * </p>
+ * <p>
+ * Responses {@code 2xx} complete a batch. {@code 429} and {@code 5xx} responses and
+ * I/O errors put it back at the head of the queue and pause sending for an exponentially
+ * growing delay, or the delay given by a {@code Retry-After} header. Any other status
+ * drops the batch. While the endpoint is slow or unavailable, batches beyond the memory
+ * limit go to the spill directory and are sent, oldest first, once it recovers; spilled
+ * batches left over from an earlier run are sent as well. Without a spill directory the
+ * oldest batches are dropped and counted. Batches may arrive out of order when a request
+ * is retried while others are in flight.
+ * </p>
+ * <p>
+ * Implements {@link AutoCloseable}; closing sends the remaining entries, waiting up to
+ * the request timeout, and spills whatever could not be delivered.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * HttpLogger http = new HttpLogger(URI.create("https://logs.example.com/ingest"),
+ *         HttpPolicy.defaults().withSpillDirectory(Path.of("logs/spill")));
+ * Log.addDestination(http, LogKind.WARN);
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class HttpLogger implements Logger, AutoCloseable {
+
+    /**
+     * The content type of the default request.
+     */
+    public static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private static final String SPILL_SUFFIX = ".batch";
+    private static final int MAX_RETAINED_LINE = 16384;
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HttpClient client;
+    private final boolean ownsClient;
+    private final HttpRequest.Builder request;
+    private final URI endpoint;
+    private final HttpPolicy policy;
+    private final Thread dispatcher;
+    private final Thread shutdownHook;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wake = lock.newCondition();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final SinkMetrics metrics;
+    private final IntSupplier queueDepth;
+
+    private StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private StringBuilder batch = new StringBuilder(4096);
+    private int batchRecords;
+    private long batchBytes;
+    private long batchStartNanos;
+
+    private final ArrayDeque<Batch> retry = new ArrayDeque<>();
+    private final ArrayDeque<Path> spilled = new ArrayDeque<>();
+    private final ArrayDeque<Batch> ready = new ArrayDeque<>();
+    private long spilledBytes;
+    private long spillSequence;
+    private final Set<Batch> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int failures;
+    private long retryAtNanos = System.nanoTime();
+    private long closeDeadlineNanos;
+    private boolean stopped;
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates a logger posting to the given endpoint with {@link HttpPolicy#defaults()}.
+     *
+     * @param endpoint The URI receiving the batches.
+     * @throws IOException Never for the default policy, which does not spill to disk.
+     */
+    public HttpLogger(URI endpoint) throws IOException {
+        this(endpoint, HttpPolicy.defaults());
+    }
+
+    /**
+     * Creates a logger posting to the given endpoint.
+     *
+     * @param endpoint The URI receiving the batches.
+     * @param policy   The {@link HttpPolicy} deciding batching, retries and spilling.
+     * @throws IOException If the spill directory cannot be created or read.
+     */
+    public HttpLogger(URI endpoint, HttpPolicy policy) throws IOException {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofMillis(policy.getRequestTimeoutMillis())).build(), true,
+                HttpRequest.newBuilder(endpoint).header("Content-Type", CONTENT_TYPE), policy);
+    }
+
+    /**
+     * Creates a logger with a caller-provided client and request template, e.g. to add
+     * authentication headers. The template must define the URI; the method, body and
+     * timeout are set for every batch. The client is not closed by this logger.
+     *
+     * @param client  The {@link HttpClient} sending the requests.
+     * @param request The request template, including the URI and headers such as {@code Content-Type}.
+     * @param policy  The {@link HttpPolicy} deciding batching, retries and spilling.
+     * @throws IOException If the spill directory cannot be created or read.
+     */
+    public HttpLogger(HttpClient client, HttpRequest.Builder request, HttpPolicy policy) throws IOException {
+        this(client, false, request, policy);
+    }
+
+    private HttpLogger(HttpClient client, boolean ownsClient, HttpRequest.Builder request, HttpPolicy policy) throws IOException {
+        this.client = client;
+        this.ownsClient = ownsClient;
+        this.request = request;
+        this.endpoint = request.copy().build().uri();
+        this.policy = policy;
+        this.metrics = LogMetrics.sink(getName());
+        this.queueDepth = this::getPendingBatches;
+        if (policy.getSpillDirectory() != null) {
+            loadSpilled(policy.getSpillDirectory());
+        }
+        this.metrics.addQueueDepth(queueDepth);
+
+        this.dispatcher = new Thread(this::dispatch, "SimpleLog-HttpLogger");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+
+        this.shutdownHook = new Thread(this::close, "SimpleLog-HttpLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private void loadSpilled(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(SPILL_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            spilled.addLast(file);
+            spilledBytes += Files.size(file);
+            String name = file.getFileName().toString();
+            try {
+                spillSequence = Math.max(spillSequence, Long.parseLong(name.substring(0, name.length() - SPILL_SUFFIX.length())) + 1);
+            } catch (NumberFormatException ignored) {
+                // Not one of ours, but in the right format; it is sent like the others.
+            }
+        }
+    }
+
+    /**
+     * Adds a plain message to the current batch.
+     *
+     * @param message The message content to be logged.
+     * @param kind    The {@link LogKind} severity level.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Renders an event into the current batch. The batch is handed to the background
+     * thread once it reaches the record or byte limit. Events logged after
+     * {@link #close()} are dropped.
+     *
+     * @param event The {@link LogEvent} to send.
+     */
+    @Override
+    public void log(LogEvent event) {
+        if (!running) {
+            drop(1);
+            return;
+        }
+        lock.lock();
+        try {
+            line.setLength(0);
+            FileLayout.appendLine(line, event);
+            AnsiUtils.stripColorsInPlace(line);
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            line.getChars(0, length, chars, 0);
+            long bytes = FileLayout.utf8Length(chars, length);
+
+            if (batchRecords > 0 && batchBytes + bytes > policy.getMaxBatchBytes()) {
+                seal();
+            }
+            if (batchRecords == 0) {
+                batchStartNanos = System.nanoTime();
+                wake.signal();
+            }
+            batch.append(chars, 0, length);
+            batchBytes += bytes;
+            if (++batchRecords >= policy.getMaxBatchRecords() || batchBytes >= policy.getMaxBatchBytes()) {
+                seal();
+            }
+
+            if (line.capacity() > MAX_RETAINED_LINE) {
+                line = new StringBuilder(256);
+                chars = new char[256];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current batch so it is sent without waiting for it to fill up.
+     * Does not wait for the request.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            if (batchRecords > 0) seal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code "HttpLogger[<endpoint>]"}.
+     */
+    @Override
+    public String getName() {
+        return "HttpLogger[" + endpoint + "]";
+    }
+
+    /**
+     * Returns the number of entries that were dropped: logged after closing, rejected by
+     * the endpoint, or discarded because neither memory nor the spill directory had room.
+     *
+     * @return The total count of dropped entries.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The number of entries the endpoint has accepted.
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * Returns the number of completed batches waiting to be sent, in memory and spilled.
+     *
+     * @return The pending batch count.
+     */
+    public int getPendingBatches() {
+        lock.lock();
+        try {
+            return retry.size() + spilled.size() + ready.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting entries and sends the remaining batches, waiting up to the
+     * request timeout of the policy. Batches that could not be delivered by then are
+     * spilled, or dropped without a spill directory.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!running) return;
+            closeDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getRequestTimeoutMillis());
+            running = false;
+            wake.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsClient) {
+            client.shutdownNow();
+        }
+        metrics.removeQueueDepth(queueDepth);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; this call is the hook itself.
+        }
+    }
+
+    /**
+     * Moves the current batch to the send queue. Must hold the lock.
+     */
+    private void seal() {
+        ready.addLast(new Batch(batch.toString().getBytes(StandardCharsets.UTF_8), batchRecords, null));
+        if (batch.capacity() > policy.getMaxBatchBytes() * 2) {
+            batch = new StringBuilder(4096);
+        } else {
+            batch.setLength(0);
+        }
+        batchRecords = 0;
+        batchBytes = 0;
+        wake.signal();
+    }
+
+    private void dispatch() {
+        long ageNanos = TimeUnit.MILLISECONDS.toNanos(policy.getMaxBatchAgeMillis());
+        List<Batch> toSpill = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            Batch send = null;
+            Path sendFile = null;
+            lock.lock();
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    if (batchRecords > 0 && (!running || now - batchStartNanos >= ageNanos)) {
+                        seal();
+                    }
+                    while (ready.size() > policy.getMaxPendingBatches()) {
+                        Batch oldest = ready.pollFirst();
+                        if (policy.getSpillDirectory() != null) toSpill.add(oldest);
+                        else drop(oldest.records);
+                    }
+                    if (!toSpill.isEmpty()) break;
+
+                    boolean pending = !retry.isEmpty() || !spilled.isEmpty() || !ready.isEmpty();
+                    if (pending && inFlight.size() < policy.getMaxInFlight() && now - retryAtNanos >= 0) {
+                        send = retry.pollFirst();
+                        if (send == null) sendFile = spilled.pollFirst();
+                        if (send == null && sendFile == null) send = ready.pollFirst();
+                        if (send != null) inFlight.add(send);
+                        break;
+                    }
+
+                    if (!running && (!pending && inFlight.isEmpty() || now - closeDeadlineNanos >= 0)) {
+                        // Requests still outstanding are abandoned; keep their batches like the unsent ones.
+                        for (Batch left : inFlight) if (left.file == null) toSpill.add(left);
+                        for (Batch left : retry) if (left.file == null) toSpill.add(left);
+                        toSpill.addAll(ready);
+                        inFlight.clear();
+                        retry.clear();
+                        ready.clear();
+                        stopped = true;
+                        if (policy.getSpillDirectory() == null) {
+                            toSpill.forEach(left -> drop(left.records));
+                            toSpill.clear();
+                        }
+                        stop = true;
+                        break;
+                    }
+
+                    long wait = running ? IDLE_WAIT_NANOS : closeDeadlineNanos - now;
+                    if (batchRecords > 0) wait = Math.min(wait, batchStartNanos + ageNanos - now);
+                    if (pending && inFlight.size() < policy.getMaxInFlight()) wait = Math.min(wait, retryAtNanos - now);
+                    wake.awaitNanos(Math.max(wait, 1));
+                }
+            } catch (InterruptedException e) {
+                stop = true;
+            } finally {
+                lock.unlock();
+            }
+
+            for (Batch batch : toSpill) {
+                spill(batch);
+            }
+            toSpill.clear();
+            if (sendFile != null) {
+                send = readSpilled(sendFile);
+                if (send == null) continue;
+                lock.lock();
+                try {
+                    inFlight.add(send);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (send != null) {
+                send(send);
+            }
+        }
+    }
+
+    private void send(Batch batch) {
+        HttpRequest post = request.copy()
+                .timeout(Duration.ofMillis(policy.getRequestTimeoutMillis()))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(batch.payload))
+                .build();
+        try {
+            client.sendAsync(post, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> complete(batch, response, error));
+        } catch (RuntimeException e) {
+            complete(batch, null, e);
+        }
+    }
+
+    /**
+     * Handles the outcome of a request. Outcomes arriving after the background thread
+     * has given up on the request are ignored; the batch was already kept or counted.
+     */
+    private void complete(Batch batch, HttpResponse<?> response, Throwable error) {
+        int status = response != null ? response.statusCode() : 0;
+        boolean retryable = error != null || status == 429 || status >= 500;
+        boolean success = status >= 200 && status < 300;
+
+        lock.lock();
+        try {
+            if (stopped || !inFlight.remove(batch)) {
+                return;
+            }
+            if (success) {
+                failures = 0;
+                delivered.add(batch.records);
+                if (LogMetrics.isEnabled()) metrics.addBytes(batch.payload.length);
+            } else if (retryable) {
+                failures++;
+                retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelay(response));
+                retry.addFirst(batch);
+                return;
+            } else {
+                drop(batch.records);
+            }
+            if (batch.file != null) {
+                spilledBytes -= batch.payload.length + Integer.BYTES;
+            }
+        } finally {
+            wake.signal();
+            lock.unlock();
+        }
+        if (batch.file != null) {
+            deleteSpilled(batch.file);
+        }
+    }
+
+    private long retryDelay(HttpResponse<?> response) {
+        if (response != null) {
+            String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+            if (retryAfter != null) {
+                try {
+                    return Math.min(Math.max(Long.parseLong(retryAfter.trim()), 0) * 1000, policy.getMaxBackoffMillis());
+                } catch (NumberFormatException ignored) {
+                    // An HTTP date; fall back to the exponential backoff.
+                }
+            }
+        }
+        return policy.backoffMillis(failures);
+    }
+
+    /**
+     * Writes a batch to the spill directory: the record count followed by the body.
+     * Runs on the background thread only.
+     */
+    private void spill(Batch batch) {
+        Path file = policy.getSpillDirectory().resolve(String.format("%019d%s", spillSequence++, SPILL_SUFFIX));
+        byte[] content = ByteBuffer.allocate(Integer.BYTES + batch.payload.length)
+                .putInt(batch.records).put(batch.payload).array();
+        try {
+            Files.write(file, content);
+        } catch (IOException e) {
+            drop(batch.records);
+            return;
+        }
+
+        List<Path> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            spilled.addLast(file);
+            spilledBytes += content.length;
+            while (policy.getMaxSpillBytes() > 0 && spilledBytes > policy.getMaxSpillBytes() && spilled.size() > 1) {
+                Path oldest = spilled.pollFirst();
+                evicted.add(oldest);
+                spilledBytes -= oldest.toFile().length();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Path oldest : evicted) {
+            Batch lost = readSpilled(oldest);
+            if (lost != null) drop(lost.records);
+            deleteSpilled(oldest);
+        }
+    }
+
+    private Batch readSpilled(Path file) {
+        try {
+            byte[] content = Files.readAllBytes(file);
+            if (content.length < Integer.BYTES) {
+                deleteSpilled(file);
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            int records = buffer.getInt();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            return new Batch(payload, records, file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void deleteSpilled(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void drop(int records) {
+        dropped.add(records);
+        if (LogMetrics.isEnabled()) {
+            for (int i = 0; i < records; i++) metrics.addDropped();
+        }
+    }
+
+    /**
+     * A completed request body.
+     *
+     * @param payload The UTF-8 body.
+     * @param records The number of entries in the body.
+     * @param file    The spill file holding the batch, or {@code null} if it only exists in memory.
+     */
+    private record Batch(byte[] payload, int records, Path file) {
+    }
+}
@@ -0,0 +1,203 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Decides how an {@link HttpLogger} batches, sends, retries and buffers its entries.
+ * <p>
+ * Entries are collected into one request body until the batch holds
+ * {@code maxBatchRecords} entries, reaches {@code maxBatchBytes}, or its first entry
+ * is {@code maxBatchAgeMillis} old. At most {@code maxInFlight} requests are sent
+ * concurrently. A request answered with {@code 429} or {@code 5xx}, or failing with an
+ * I/O error, is retried after an exponential backoff between {@code initialBackoffMillis}
+ * and {@code maxBackoffMillis}. Batches waiting beyond {@code maxPendingBatches} are
+ * spilled to files in the spill directory, or dropped oldest-first if there is none.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * HttpPolicy policy = HttpPolicy.defaults()
+ *         .withMaxBatchAgeMillis(2000)
+ *         .withSpillDirectory(Path.of("logs/http-spill"));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class HttpPolicy {
+
+    /**
+     * The number of entries after which a batch is sent.
+     */
+    private final int maxBatchRecords;
+    /**
+     * The body size in bytes after which a batch is sent.
+     */
+    private final int maxBatchBytes;
+    /**
+     * The maximum time an entry waits for its batch to fill up, in milliseconds.
+     */
+    private final long maxBatchAgeMillis;
+    /**
+     * The number of requests that may be outstanding at the same time.
+     */
+    private final int maxInFlight;
+    /**
+     * The delay before the first retry, in milliseconds; it doubles with every further failure.
+     */
+    private final long initialBackoffMillis;
+    /**
+     * The upper bound of the retry delay, in milliseconds.
+     */
+    private final long maxBackoffMillis;
+    /**
+     * The number of completed batches kept in memory while waiting to be sent.
+     */
+    private final int maxPendingBatches;
+    /**
+     * The directory receiving the batches beyond {@code maxPendingBatches}, or {@code null} to drop them.
+     */
+    private final Path spillDirectory;
+    /**
+     * The total size of the spilled batches in bytes; the oldest are deleted beyond it. Zero means no limit.
+     */
+    private final long maxSpillBytes;
+    /**
+     * The timeout of a single request, in milliseconds. Closing the logger waits this long
+     * for the remaining batches to be delivered.
+     */
+    private final long requestTimeoutMillis;
+
+    private HttpPolicy(int maxBatchRecords, int maxBatchBytes, long maxBatchAgeMillis, int maxInFlight,
+                       long initialBackoffMillis, long maxBackoffMillis, int maxPendingBatches,
+                       Path spillDirectory, long maxSpillBytes, long requestTimeoutMillis) {
+        if (maxBatchRecords <= 0) throw new IllegalArgumentException("maxBatchRecords must be positive: " + maxBatchRecords);
+        if (maxBatchBytes <= 0) throw new IllegalArgumentException("maxBatchBytes must be positive: " + maxBatchBytes);
+        if (maxBatchAgeMillis <= 0) throw new IllegalArgumentException("maxBatchAgeMillis must be positive: " + maxBatchAgeMillis);
+        if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        if (initialBackoffMillis <= 0) throw new IllegalArgumentException("initialBackoffMillis must be positive: " + initialBackoffMillis);
+        if (maxBackoffMillis < initialBackoffMillis) {
+            throw new IllegalArgumentException("maxBackoffMillis must not be below initialBackoffMillis: " + maxBackoffMillis);
+        }
+        if (maxPendingBatches <= 0) throw new IllegalArgumentException("maxPendingBatches must be positive: " + maxPendingBatches);
+        if (maxSpillBytes < 0) throw new IllegalArgumentException("maxSpillBytes must not be negative: " + maxSpillBytes);
+        if (requestTimeoutMillis <= 0) throw new IllegalArgumentException("requestTimeoutMillis must be positive: " + requestTimeoutMillis);
+        this.maxBatchRecords = maxBatchRecords;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchAgeMillis = maxBatchAgeMillis;
+        this.maxInFlight = maxInFlight;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxPendingBatches = maxPendingBatches;
+        this.spillDirectory = spillDirectory;
+        this.maxSpillBytes = maxSpillBytes;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    /**
+     * Sends batches of up to 500 entries or 256 KiB at least once a second, with four
+     * requests in flight, backoff from half a second up to one minute and 64 pending
+     * batches in memory. Nothing is spilled to disk.
+     *
+     * @return The default HTTP policy.
+     */
+    public static HttpPolicy defaults() {
+        return new HttpPolicy(500, 256 * 1024, 1000, 4, 500, 60_000, 64, null, 0, 10_000);
+    }
+
+    /**
+     * @param maxBatchRecords The number of entries after which a batch is sent.
+     * @return A copy of this policy with another batch length.
+     */
+    public HttpPolicy withMaxBatchRecords(int maxBatchRecords) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param maxBatchBytes The body size in bytes after which a batch is sent.
+     * @return A copy of this policy with another batch size.
+     */
+    public HttpPolicy withMaxBatchBytes(int maxBatchBytes) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param maxBatchAgeMillis The maximum time an entry waits for its batch to fill up.
+     * @return A copy of this policy with another batch age.
+     */
+    public HttpPolicy withMaxBatchAgeMillis(long maxBatchAgeMillis) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param maxInFlight The number of requests that may be outstanding at the same time.
+     * @return A copy of this policy with another in-flight window.
+     */
+    public HttpPolicy withMaxInFlight(int maxInFlight) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param initialBackoffMillis The delay before the first retry.
+     * @param maxBackoffMillis     The upper bound of the retry delay.
+     * @return A copy of this policy with another backoff range.
+     */
+    public HttpPolicy withBackoff(long initialBackoffMillis, long maxBackoffMillis) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param maxPendingBatches The number of completed batches kept in memory.
+     * @return A copy of this policy with another memory bound.
+     */
+    public HttpPolicy withMaxPendingBatches(int maxPendingBatches) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param spillDirectory The directory receiving the batches that do not fit in memory,
+     *                       or {@code null} to drop them.
+     * @return A copy of this policy with another spill directory.
+     */
+    public HttpPolicy withSpillDirectory(Path spillDirectory) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param maxSpillBytes The total size of the spilled batches; zero means no limit.
+     * @return A copy of this policy with another spill limit.
+     */
+    public HttpPolicy withMaxSpillBytes(long maxSpillBytes) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * @param requestTimeoutMillis The timeout of a single request.
+     * @return A copy of this policy with another request timeout.
+     */
+    public HttpPolicy withRequestTimeoutMillis(long requestTimeoutMillis) {
+        return new HttpPolicy(maxBatchRecords, maxBatchBytes, maxBatchAgeMillis, maxInFlight, initialBackoffMillis,
+                maxBackoffMillis, maxPendingBatches, spillDirectory, maxSpillBytes, requestTimeoutMillis);
+    }
+
+    /**
+     * Computes the delay before the next attempt.
+     *
+     * @param failures The number of consecutive failures, at least one.
+     * @return The backoff in milliseconds.
+     */
+    public long backoffMillis(int failures) {
+        int shift = Math.min(Math.max(failures - 1, 0), Long.numberOfLeadingZeros(initialBackoffMillis) - 1);
+        return Math.min(initialBackoffMillis << shift, maxBackoffMillis);
+    }
+}
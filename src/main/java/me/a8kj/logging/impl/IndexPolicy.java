@@ -0,0 +1,87 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+
+/**
+ * Decides how densely a {@link FileLogger} indexes its file for {@link LogReader}.
+ * <p>
+ * The index is sparse: consecutive records are grouped into blocks, and only one
+ * entry per block is written to the sidecar file, holding the byte range, the time
+ * range and bitmaps of the kinds and contexts inside. A block is closed once it holds
+ * {@code maxRecords} records or once a record arrives {@code maxBlockMillis} after
+ * the first one, whichever comes first. Smaller blocks make narrow queries read less
+ * of the log at the cost of a larger index.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * FileLogger logger = new FileLogger("logs.txt", FlushPolicy.grouped(256, 1000),
+ *         TimestampFormatter.ISO_LOCAL_MILLIS, IndexPolicy.defaults());
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class IndexPolicy {
+
+    /**
+     * The number of records per block used by {@link #defaults()}.
+     */
+    public static final int DEFAULT_MAX_RECORDS = 1024;
+
+    /**
+     * The time span of a block used by {@link #defaults()}, in milliseconds.
+     */
+    public static final long DEFAULT_MAX_BLOCK_MILLIS = 1000;
+
+    /**
+     * The number of records after which a block is closed.
+     */
+    private final int maxRecords;
+    /**
+     * The time span after which a block is closed, in milliseconds; zero only closes by count.
+     */
+    private final long maxBlockMillis;
+
+    private IndexPolicy(int maxRecords, long maxBlockMillis) {
+        if (maxRecords <= 0) throw new IllegalArgumentException("maxRecords must be positive: " + maxRecords);
+        if (maxBlockMillis < 0) throw new IllegalArgumentException("maxBlockMillis must not be negative: " + maxBlockMillis);
+        this.maxRecords = maxRecords;
+        this.maxBlockMillis = maxBlockMillis;
+    }
+
+    /**
+     * Indexes every {@value #DEFAULT_MAX_RECORDS} records or every second.
+     *
+     * @return The default index policy.
+     */
+    public static IndexPolicy defaults() {
+        return new IndexPolicy(DEFAULT_MAX_RECORDS, DEFAULT_MAX_BLOCK_MILLIS);
+    }
+
+    /**
+     * Indexes every {@code maxRecords} records, regardless of time.
+     *
+     * @param maxRecords The number of records per block.
+     * @return A count-based index policy.
+     */
+    public static IndexPolicy everyRecords(int maxRecords) {
+        return new IndexPolicy(maxRecords, 0);
+    }
+
+    /**
+     * @param maxRecords The number of records after which a block is closed.
+     * @return A copy of this policy with another block size.
+     */
+    public IndexPolicy withMaxRecords(int maxRecords) {
+        return new IndexPolicy(maxRecords, maxBlockMillis);
+    }
+
+    /**
+     * @param maxBlockMillis The time span after which a block is closed; zero only closes by count.
+     * @return A copy of this policy with another block duration.
+     */
+    public IndexPolicy withMaxBlockMillis(long maxBlockMillis) {
+        return new IndexPolicy(maxRecords, maxBlockMillis);
+    }
+}
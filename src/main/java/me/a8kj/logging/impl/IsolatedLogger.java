@@ -0,0 +1,386 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.RingBuffer;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link Logger} decorator that gives one destination its own queue and drain worker,
+ * so that a slow or stalled destination cannot delay the caller or any other destination.
+ * <p>
+ * Like {@link AsyncLogger}, events are copied into the preallocated events of a
+ * {@link RingBuffer}; each destination gets its own copy, and the caller only pays for
+ * claiming a slot. A virtual thread drains the queue into the wrapped logger and also
+ * performs its flushes. The {@link IsolationPolicy} sizes the queue, decides what happens
+ * when it is full, and sets the stall threshold after which the destination is reported
+ * as {@link SinkHealth#DEGRADED}. Callers never wait for a degraded destination: under
+ * {@link OverflowPolicy#BLOCK} and {@link OverflowPolicy#CALLER_RUNS} they drop the entry
+ * instead, and {@link #flush()} returns without waiting for it.
+ * </p>
+ * <p>
+ * Usually created by {@link CompositeLogger#addLogger(Logger, LogKind, IsolationPolicy)}.
+ * Closing drains the queue while the destination keeps making progress; the wrapped
+ * logger itself is not closed.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * IsolatedLogger file = new IsolatedLogger(new FileLogger("logs.txt"), IsolationPolicy.defaults());
+ * Log.addDestination(file);
+ * if (file.getHealth() == SinkHealth.DEGRADED) {
+ *     // alert: the disk no longer keeps up
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class IsolatedLogger implements Logger, AutoCloseable {
+
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+    private static final long BLOCK_PARK_NANOS = 10_000L;
+
+    private final Logger delegate;
+    private final IsolationPolicy policy;
+    private final long maxStallNanos;
+    private final RingBuffer<LogEvent> buffer;
+    private final Thread worker;
+    private final Thread shutdownHook;
+    private final LongAdder dropped = new LongAdder();
+    private final SinkMetrics metrics;
+    private final IntSupplier queueDepth;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong flushTarget = new AtomicLong();
+    private final LogEvent current = new LogEvent();
+
+    private volatile boolean running = true;
+    private volatile boolean workerWaiting;
+    private volatile boolean writing;
+    private volatile long flushedUpTo;
+    private volatile long lastProgressNanos;
+    private volatile long lastDropNanos;
+
+    /**
+     * Creates an isolated destination and starts its drain worker.
+     *
+     * @param delegate The {@link Logger} that receives the entries on the drain worker.
+     * @param policy   The {@link IsolationPolicy} sizing the queue and defining its overflow and health.
+     * @throws NullPointerException if the delegate or policy is null.
+     */
+    public IsolatedLogger(Logger delegate, IsolationPolicy policy) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.maxStallNanos = policy.getMaxStallMillis() * 1_000_000L;
+        this.buffer = new RingBuffer<>(policy.getCapacity(), LogEvent::new);
+        this.metrics = LogMetrics.sink(getName());
+        this.queueDepth = buffer::size;
+        this.metrics.addQueueDepth(queueDepth);
+
+        long now = System.nanoTime();
+        this.lastProgressNanos = now;
+        this.lastDropNanos = now - maxStallNanos - 1;
+
+        this.worker = Thread.ofVirtual().name("SimpleLog-IsolatedLogger").unstarted(this::drain);
+        this.worker.start();
+
+        this.shutdownHook = new Thread(this::close, "SimpleLog-IsolatedLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a plain message for the drain worker.
+     *
+     * @param message The message content to be logged.
+     * @param kind    The {@link LogKind} severity level.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Queues a copy of the event for the drain worker. When the queue is full the
+     * {@link OverflowPolicy} of the policy decides what happens. Once the destination is
+     * degraded, {@link OverflowPolicy#BLOCK} and {@link OverflowPolicy#CALLER_RUNS} drop
+     * the entry instead of waiting for the destination.
+     *
+     * @param event The {@link LogEvent} to dispatch.
+     */
+    @Override
+    public void log(LogEvent event) {
+        if (!running) {
+            delegate.log(event);
+            return;
+        }
+        if (event.getThrowable() != null) {
+            // Each isolated destination gets a copy; rendering first makes them all carry the same trace.
+            event.getRenderedStackTrace();
+        }
+
+        long sequence = buffer.tryClaim();
+        int tries = 0;
+        boolean discarded = false;
+        while (sequence < 0) {
+            switch (policy.getOverflowPolicy()) {
+                case DROP_NEWEST -> {
+                    drop();
+                    return;
+                }
+                case CALLER_RUNS -> {
+                    if (getHealth() == SinkHealth.DEGRADED) {
+                        drop();
+                    } else {
+                        delegate.log(event);
+                    }
+                    return;
+                }
+                case DROP_OLDEST -> {
+                    // At most one queued entry makes room for this one; if that is not enough,
+                    // another producer took the slot and this entry is dropped instead.
+                    if (discarded || !discardOldest()) {
+                        drop();
+                        return;
+                    }
+                    discarded = true;
+                }
+                case BLOCK -> {
+                    if (getHealth() == SinkHealth.DEGRADED) {
+                        drop();
+                        return;
+                    }
+                    if (++tries < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.unpark(worker);
+                        LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    }
+                }
+            }
+            sequence = buffer.tryClaim();
+        }
+
+        buffer.get(sequence).copyFrom(event);
+        buffer.publish(sequence);
+
+        if (!running && !worker.isAlive()) {
+            // Closed while this entry was queued and the worker has already stopped.
+            drainRemaining();
+        } else if (workerWaiting) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Delegates to the wrapped logger so that filtered entries are rejected
+     * before they are formatted or queued.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if the wrapped logger would write the entry.
+     */
+    @Override
+    public boolean isEnabled(LogKind kind, LogContext context) {
+        return delegate.isEnabled(kind, context);
+    }
+
+    /**
+     * Asks the drain worker to flush the wrapped logger once every entry queued so far
+     * has been written, and waits for it while the destination is healthy.
+     */
+    @Override
+    public void flush() {
+        if (!running) {
+            delegate.flush();
+            return;
+        }
+        long target = buffer.claimed();
+        flushTarget.accumulateAndGet(target, Math::max);
+        while (running && flushedUpTo < target && Thread.currentThread() != worker
+                && getHealth() == SinkHealth.HEALTHY) {
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+    }
+
+    /**
+     * @return {@code "IsolatedLogger(<delegate name>)"}.
+     */
+    @Override
+    public String getName() {
+        return "IsolatedLogger(" + delegate.getName() + ")";
+    }
+
+    /**
+     * @return The logger receiving the entries.
+     */
+    public Logger getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Reports whether the destination keeps up. It is {@link SinkHealth#DEGRADED} while
+     * entries wait, or a call of the wrapped logger is running, and the drain worker has
+     * made no progress within the stall threshold of the policy, and for the same time
+     * after an entry was dropped.
+     *
+     * @return The current health of the destination.
+     */
+    public SinkHealth getHealth() {
+        long now = System.nanoTime();
+        if (now - lastDropNanos <= maxStallNanos) return SinkHealth.DEGRADED;
+        if (now - lastProgressNanos > maxStallNanos && (writing || !buffer.isEmpty())) return SinkHealth.DEGRADED;
+        return SinkHealth.HEALTHY;
+    }
+
+    /**
+     * Returns the number of entries discarded because the queue was full
+     * since this logger was created.
+     *
+     * @return The total count of dropped entries.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns an estimate of the entries waiting to be written.
+     *
+     * @return The approximate queue depth.
+     */
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting new entries and waits for the drain worker to write the queued
+     * ones, as long as it keeps making progress. A stalled destination is abandoned to
+     * its worker after the stall threshold. Entries logged after closing are written
+     * synchronously on the caller thread.
+     */
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            while (!worker.join(Duration.ofMillis(policy.getMaxStallMillis()))) {
+                if (getHealth() == SinkHealth.DEGRADED) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!worker.isAlive()) {
+            delegate.flush();
+        }
+        metrics.removeQueueDepth(queueDepth);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; this call is the hook itself.
+        }
+    }
+
+    private boolean discardOldest() {
+        long oldest = buffer.tryAcquire();
+        if (oldest < 0) return false;
+        buffer.get(oldest).clear();
+        buffer.release(oldest);
+        completed.incrementAndGet();
+        drop();
+        return true;
+    }
+
+    private void drainRemaining() {
+        long sequence;
+        while ((sequence = buffer.tryAcquire()) >= 0) {
+            LogEvent event = buffer.get(sequence);
+            try {
+                delegate.log(event);
+            } catch (RuntimeException ignored) {
+            } finally {
+                event.clear();
+                buffer.release(sequence);
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    private void drop() {
+        dropped.increment();
+        lastDropNanos = System.nanoTime();
+        if (LogMetrics.isEnabled()) {
+            metrics.addDropped();
+        }
+    }
+
+    private void drain() {
+        int idle = 0;
+        while (running || !buffer.isEmpty()) {
+            long target = flushTarget.get();
+            if (target > flushedUpTo && completed.get() >= target) {
+                flushDelegate(target);
+            }
+            long sequence = buffer.tryAcquire();
+            if (sequence < 0) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+
+            // Copy the entry out first, so a stalled destination does not hold the slot producers need next.
+            LogEvent slot = buffer.get(sequence);
+            current.copyFrom(slot);
+            slot.clear();
+            buffer.release(sequence);
+            writing = true;
+            try {
+                delegate.log(current);
+            } catch (RuntimeException ignored) {
+            } finally {
+                writing = false;
+                current.clear();
+                completed.incrementAndGet();
+                lastProgressNanos = System.nanoTime();
+            }
+        }
+    }
+
+    private void flushDelegate(long target) {
+        writing = true;
+        try {
+            delegate.flush();
+        } catch (RuntimeException ignored) {
+        } finally {
+            writing = false;
+        }
+        flushedUpTo = target;
+        lastProgressNanos = System.nanoTime();
+    }
+
+    private int idle(int idle) {
+        lastProgressNanos = System.nanoTime();
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES * 2) {
+            Thread.yield();
+        } else {
+            workerWaiting = true;
+            if (running && buffer.isEmpty() && flushTarget.get() <= flushedUpTo) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            workerWaiting = false;
+        }
+        return idle + 1;
+    }
+}
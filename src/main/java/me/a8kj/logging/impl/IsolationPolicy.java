@@ -0,0 +1,85 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * Decides how an {@link IsolatedLogger} queues entries for its destination and when
+ * the destination counts as {@link SinkHealth#DEGRADED degraded}.
+ * <p>
+ * Every isolated destination owns a queue of {@code capacity} preallocated entries.
+ * When the queue is full, the {@link OverflowPolicy} applies; {@link OverflowPolicy#BLOCK}
+ * only waits while the destination is healthy, and {@link OverflowPolicy#CALLER_RUNS}
+ * writes on the caller thread while it is healthy, giving up the isolation for that
+ * entry; both drop the entry once the destination is degraded. A destination
+ * that makes no progress for {@code maxStallMillis} while entries are waiting, or that
+ * dropped an entry within that time, is degraded.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * Log.addDestination(new FileLogger("logs.txt"), LogKind.DEBUG,
+ *         IsolationPolicy.defaults().withCapacity(65536).withOverflowPolicy(OverflowPolicy.BLOCK));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class IsolationPolicy {
+
+    /**
+     * The number of entries queued for the destination.
+     */
+    private final int capacity;
+    /**
+     * What happens to a new entry when the queue is full.
+     */
+    private final OverflowPolicy overflowPolicy;
+    /**
+     * The time without progress after which the destination is degraded, in milliseconds.
+     */
+    private final long maxStallMillis;
+
+    private IsolationPolicy(int capacity, OverflowPolicy overflowPolicy, long maxStallMillis) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (maxStallMillis <= 0) throw new IllegalArgumentException("maxStallMillis must be positive: " + maxStallMillis);
+        this.capacity = capacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.maxStallMillis = maxStallMillis;
+    }
+
+    /**
+     * Queues up to {@link AsyncLogger#DEFAULT_CAPACITY} entries, drops new entries when
+     * the queue is full and marks the destination degraded after one second without progress.
+     *
+     * @return The default isolation policy.
+     */
+    public static IsolationPolicy defaults() {
+        return new IsolationPolicy(AsyncLogger.DEFAULT_CAPACITY, OverflowPolicy.DROP_NEWEST, 1000);
+    }
+
+    /**
+     * @param capacity The number of entries queued for the destination; rounded up to a power of two.
+     * @return A copy of this policy with another queue size.
+     */
+    public IsolationPolicy withCapacity(int capacity) {
+        return new IsolationPolicy(capacity, overflowPolicy, maxStallMillis);
+    }
+
+    /**
+     * @param overflowPolicy What happens to a new entry when the queue is full.
+     * @return A copy of this policy with another overflow policy.
+     */
+    public IsolationPolicy withOverflowPolicy(OverflowPolicy overflowPolicy) {
+        return new IsolationPolicy(capacity, overflowPolicy, maxStallMillis);
+    }
+
+    /**
+     * @param maxStallMillis The time without progress after which the destination is degraded.
+     * @return A copy of this policy with another stall threshold.
+     */
+    public IsolationPolicy withMaxStallMillis(long maxStallMillis) {
+        return new IsolationPolicy(capacity, overflowPolicy, maxStallMillis);
+    }
+}
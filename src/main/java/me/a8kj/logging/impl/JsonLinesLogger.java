@@ -0,0 +1,240 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.LogScope;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.JsonWriter;
+import me.a8kj.logging.util.LogScheduler;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A logger that writes one JSON object per line (JSON Lines) to a local file.
+ * <p>
+ * Each line holds the timestamp in milliseconds since the epoch, the kind, the context,
+ * the thread, the formatted message, the structured fields of the event (see
+ * {@link me.a8kj.logging.LogBuilder#field(String, Object)} and {@link LogScope}) and the
+ * attached exception:
+ * </p>
+ * <pre>
+ * {"timestamp":1714571107123,"kind":"ERROR","context":"Database","thread":"main",
+ *  "message":"Query failed","fields":{"reqId":"a81f","shard":3},
+ *  "error":{"type":"java.sql.SQLException","message":"timeout","stackTrace":"..."}}
+ * </pre>
+ * <p>
+ * A {@link JsonWriter} encodes the line straight into a reused UTF-8 buffer, which
+ * is handed to the file when the {@link FlushPolicy} says so; the policy's buffer size
+ * is counted in bytes here. Typed fields keep their JSON type, so the output can be
+ * ingested without parsing the message. {@code nanos} is only written when precise
+ * timestamps are enabled, and {@code context}, {@code fields} and {@code error} only
+ * when present.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * try (JsonLinesLogger logger = new JsonLinesLogger("logs.jsonl", FlushPolicy.grouped(256, 1000))) {
+ *     Log.addDestination(logger);
+ *     Log.create().message("Order placed").field("orderId", 42L).send();
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class JsonLinesLogger implements Logger, AutoCloseable {
+
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+    private static final int MAX_RETAINED_MESSAGE = 16384;
+
+    private final String fileName;
+    private final FileOutputStream out;
+    private final FlushPolicy flushPolicy;
+    private final JsonWriter json;
+    private final ScheduledFuture<?> flushTask;
+    private final Thread shutdownHook;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SinkMetrics metrics;
+    private StringBuilder message = new StringBuilder(256);
+    private int pendingRecords;
+
+    /**
+     * Initializes a logger appending to the specified file. Every line is flushed immediately.
+     *
+     * @param fileName The path to the log file.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public JsonLinesLogger(String fileName) throws IOException {
+        this(fileName, FlushPolicy.always());
+    }
+
+    /**
+     * Initializes a logger appending to the specified file with a custom flush policy.
+     * Buffered lines are flushed on a background timer if the policy defines a delay,
+     * and when the JVM shuts down.
+     *
+     * @param fileName    The path to the log file.
+     * @param flushPolicy The {@link FlushPolicy} deciding when lines reach the file.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public JsonLinesLogger(String fileName, FlushPolicy flushPolicy) throws IOException {
+        this.fileName = fileName;
+        this.flushPolicy = flushPolicy;
+        this.json = new JsonWriter(flushPolicy.getBufferSize() + 1024);
+        this.metrics = LogMetrics.sink(getName());
+        this.out = new FileOutputStream(fileName, true);
+        this.flushTask = flushPolicy.getMaxDelayMillis() > 0
+                ? LogScheduler.scheduleAtFixedRate(this::flush, flushPolicy.getMaxDelayMillis())
+                : null;
+        this.shutdownHook = new Thread(this::flush, "SimpleLog-JsonLinesLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Writes a plain message as a JSON line.
+     *
+     * @param message The message to log (may contain ANSI codes).
+     * @param kind    The severity level of the log entry.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Encodes an event as one JSON line into the write buffer. ANSI color codes are
+     * stripped from the message. If the message or a field cannot be rendered, the
+     * partial line is discarded and the exception is rethrown, so the buffer only ever
+     * holds complete lines.
+     *
+     * @param event The {@link LogEvent} to persist.
+     */
+    @Override
+    public void log(LogEvent event) {
+        lock.lock();
+        int start = json.size();
+        try {
+            message.setLength(0);
+            event.formatMessageTo(message);
+            AnsiUtils.stripColorsInPlace(message);
+
+            json.beginObject()
+                    .name("timestamp").value(event.getTimestamp());
+            if (event.getNanos() != 0) {
+                json.name("nanos").value(event.getNanos());
+            }
+            json.name("kind").value(event.getKind().name());
+            if (event.getContext() != null) {
+                json.name("context").value(event.getContext().name());
+            }
+            json.name("thread").value(event.getThreadName())
+                    .name("message").value(message);
+
+            if (event.getFieldCount() > 0) {
+                json.name("fields").beginObject();
+                for (int i = 0; i < event.getFieldCount(); i++) {
+                    json.name(event.getFieldKey(i));
+                    writeField(event, i);
+                }
+                json.endObject();
+            }
+
+            Throwable throwable = event.getThrowable();
+            if (throwable != null) {
+                json.name("error").beginObject()
+                        .name("type").value(throwable.getClass().getName())
+                        .name("message").value(throwable.getMessage())
+                        .name("stackTrace").value(event.getRenderedStackTrace())
+                        .endObject();
+            }
+            json.endObject().newLine();
+
+            if (LogMetrics.isEnabled()) {
+                metrics.addBytes(json.size() - start);
+            }
+            if (++pendingRecords >= flushPolicy.getMaxRecords() || json.size() >= flushPolicy.getBufferSize()
+                    || flushPolicy.isImmediate(event.getKind())) {
+                writeBuffer();
+            }
+        } catch (IOException ignored) {
+        } catch (RuntimeException e) {
+            if (json.size() > start) {
+                json.truncate(start);
+            }
+            throw e;
+        } finally {
+            if (message.capacity() > MAX_RETAINED_MESSAGE) {
+                message = new StringBuilder(256);
+            }
+            lock.unlock();
+        }
+    }
+
+    private void writeField(LogEvent event, int index) {
+        switch (event.getFieldType(index)) {
+            case INT, LONG -> json.value(event.getLongField(index));
+            case FLOAT, DOUBLE -> json.value(event.getDoubleField(index));
+            case BOOLEAN -> json.value(event.getBooleanField(index));
+            case CHAR -> json.value(String.valueOf((char) event.getLongField(index)));
+            case OBJECT -> json.value(event.getField(index));
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        json.writeTo(out);
+        json.reset(MAX_RETAINED_BUFFER);
+        pendingRecords = 0;
+    }
+
+    /**
+     * @return {@code "JsonLinesLogger[<file name>]"}.
+     */
+    @Override
+    public String getName() {
+        return "JsonLinesLogger[" + fileName + "]";
+    }
+
+    /**
+     * Writes every buffered line to the file, regardless of the flush policy.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            if (pendingRecords == 0) return;
+            writeBuffer();
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered lines and closes the file.
+     *
+     * @throws Exception If an I/O error occurs while closing the file.
+     */
+    @Override
+    public void close() throws Exception {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; the hook flushes the buffer.
+        }
+        lock.lock();
+        try {
+            if (pendingRecords > 0) writeBuffer();
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package me.a8kj.logging.impl;
+
+import com.diogonunes.jcolor.Ansi;
+import com.diogonunes.jcolor.Attribute;
+import me.a8kj.logging.LogKind;
+
+import java.nio.charset.Charset;
+
+/**
+ * The level badges of the console destinations, rendered once per {@link LogKind}.
+ * <p>
+ * The colored table applies the ANSI styles through JColor at class initialization;
+ * the plain table holds the same labels without escape sequences. Each table also
+ * keeps the encoded bytes of its badges for the charset last asked for, so writing
+ * a badge is a plain array copy.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class LevelStyleTable {
+
+    /**
+     * Badges with ANSI colors.
+     */
+    static final LevelStyleTable COLORED = new LevelStyleTable(true);
+    /**
+     * Badges without escape sequences, for terminals without color support and redirected output.
+     */
+    static final LevelStyleTable PLAIN = new LevelStyleTable(false);
+
+    private final boolean colored;
+    private final String[] badges = new String[LogKind.values().length];
+    private volatile Encoded encoded;
+
+    private LevelStyleTable(boolean colored) {
+        this.colored = colored;
+        for (LogKind kind : LogKind.values()) {
+            badges[kind.ordinal()] = switch (kind) {
+                case INFO -> style("INFO", Attribute.CYAN_TEXT());
+                case WARN -> style("WARN", Attribute.YELLOW_TEXT());
+                case CUSTOM -> style(" CUSTOM ", Attribute.BRIGHT_BLUE_TEXT());
+                case DEBUG -> style("DEBUG", Attribute.BRIGHT_WHITE_TEXT());
+                case ERROR, EXCEPTION -> style("ERROR", Attribute.RED_TEXT());
+                case FATAL -> style(" FATAL ", Attribute.RED_BACK(), Attribute.BLACK_TEXT(), Attribute.BOLD());
+                case CHAT -> style("CHAT", Attribute.GREEN_TEXT());
+            };
+        }
+    }
+
+    /**
+     * @param colors Whether ANSI colors are wanted.
+     * @return The matching table.
+     */
+    static LevelStyleTable of(boolean colors) {
+        return colors ? COLORED : PLAIN;
+    }
+
+    /**
+     * @return {@code true} if the badges contain ANSI escape sequences.
+     */
+    boolean isColored() {
+        return colored;
+    }
+
+    /**
+     * @param kind The kind of the entry.
+     * @return The badge text.
+     */
+    String badge(LogKind kind) {
+        return badges[kind.ordinal()];
+    }
+
+    /**
+     * Returns the encoded badge. The array is shared and must not be modified.
+     *
+     * @param kind    The kind of the entry.
+     * @param charset The charset of the output stream.
+     * @return The badge bytes in the given charset.
+     */
+    byte[] badgeBytes(LogKind kind, Charset charset) {
+        Encoded current = encoded;
+        if (current == null || !current.charset.equals(charset)) {
+            byte[][] bytes = new byte[badges.length][];
+            for (int i = 0; i < badges.length; i++) {
+                bytes[i] = badges[i].getBytes(charset);
+            }
+            current = new Encoded(charset, bytes);
+            encoded = current;
+        }
+        return current.bytes[kind.ordinal()];
+    }
+
+    private String style(String label, Attribute... attributes) {
+        return colored ? Ansi.colorize(label, attributes) : label;
+    }
+
+    private record Encoded(Charset charset, byte[][] bytes) {
+    }
+}
@@ -0,0 +1,72 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogKind;
+
+import java.nio.file.Path;
+
+/**
+ * The constants of the sidecar index shared by {@link LogIndexWriter} and {@link LogReader}.
+ * <p>
+ * The index of {@code logs.txt} is stored in {@code logs.txt.idx}. It starts with an
+ * eight byte header (the magic bytes, the format version and three reserved bytes)
+ * followed by fixed-size entries, one per block of consecutive records. An entry holds,
+ * as big-endian values, the byte offset of the block's first record, the offset just
+ * past its last record, the smallest and largest timestamp in milliseconds, the record
+ * count, a bitmap of the {@code LogKind} ordinals and a 64-bit Bloom filter of the
+ * context names. A truncated trailing entry is ignored.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class LogIndexFormat {
+
+    static final byte[] MAGIC = {'S', 'L', 'I', 'X'};
+    static final byte VERSION = 1;
+
+    static final String SUFFIX = ".idx";
+
+    static final int HEADER_SIZE = 8;
+    static final int ENTRY_SIZE = 48;
+
+    private LogIndexFormat() {
+    }
+
+    /**
+     * @param logFile The log file.
+     * @return The path of its sidecar index.
+     */
+    static Path indexFile(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @param kind A log kind.
+     * @return The bit of the kind in an entry's kind bitmap.
+     */
+    static int kindBit(LogKind kind) {
+        return 1 << kind.ordinal();
+    }
+
+    /**
+     * Hashes a context name to the two bits it sets in an entry's Bloom filter.
+     * Entries without context use the bits of the empty name.
+     *
+     * @param context The context, or {@code null}.
+     * @return The bits of the context.
+     */
+    static long contextBits(LogContext context) {
+        return contextBits(context == null ? "" : context.name());
+    }
+
+    /**
+     * Hashes a context name to the two bits it sets in an entry's Bloom filter.
+     *
+     * @param name The context name.
+     * @return The bits of the name.
+     */
+    static long contextBits(String name) {
+        int h = name.hashCode() * 0x9E3779B1;
+        return (1L << (h >>> 26)) | (1L << ((h >>> 20) & 63));
+    }
+}
@@ -0,0 +1,156 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the sparse block index of a plain-text log file; see {@link LogIndexFormat}.
+ * <p>
+ * The owning logger reports every record with its encoded length after writing it,
+ * so the writer can follow the byte offset without asking the file system. An existing
+ * index is continued if it matches the log file; otherwise it is started over. Records
+ * written while no index was kept are simply not covered, and {@link LogReader} scans
+ * them linearly. Not thread-safe; the owning logger serializes the calls.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+final class LogIndexWriter implements AutoCloseable {
+
+    private final IndexPolicy policy;
+    private final DataOutputStream out;
+
+    private long offset;
+    private long blockStart;
+    private long blockFirst;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private int records;
+    private int kindMask;
+    private long contextBloom;
+
+    /**
+     * Opens the index of a log file for appending.
+     *
+     * @param logFile The log file, already opened for appending by the caller.
+     * @param policy  The {@link IndexPolicy} deciding the block size.
+     * @throws IOException If the index cannot be read or written.
+     */
+    LogIndexWriter(Path logFile, IndexPolicy policy) throws IOException {
+        this.policy = policy;
+        this.offset = logFile.toFile().length();
+        FileChannel channel = FileChannel.open(LogIndexFormat.indexFile(logFile),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.position(validLength(channel, offset));
+            channel.truncate(channel.position());
+            if (channel.position() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(LogIndexFormat.HEADER_SIZE)
+                        .put(LogIndexFormat.MAGIC).put(LogIndexFormat.VERSION).clear();
+                while (header.hasRemaining()) channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * Returns how much of an existing index can be kept: everything up to the last
+     * complete entry, or nothing if the header is foreign or the entries point past
+     * the end of the log file (it was truncated or replaced).
+     */
+    private static long validLength(FileChannel channel, long logSize) throws IOException {
+        long size = channel.size();
+        if (size < LogIndexFormat.HEADER_SIZE) return 0;
+
+        ByteBuffer header = ByteBuffer.allocate(LogIndexFormat.HEADER_SIZE);
+        channel.read(header, 0);
+        for (int i = 0; i < LogIndexFormat.MAGIC.length; i++) {
+            if (header.get(i) != LogIndexFormat.MAGIC[i]) return 0;
+        }
+        if (header.get(LogIndexFormat.MAGIC.length) != LogIndexFormat.VERSION) return 0;
+
+        long entries = (size - LogIndexFormat.HEADER_SIZE) / LogIndexFormat.ENTRY_SIZE;
+        long length = LogIndexFormat.HEADER_SIZE + entries * LogIndexFormat.ENTRY_SIZE;
+        if (entries > 0) {
+            ByteBuffer last = ByteBuffer.allocate(16);
+            channel.read(last, length - LogIndexFormat.ENTRY_SIZE);
+            if (last.getLong(8) > logSize) return 0;
+        }
+        return length;
+    }
+
+    /**
+     * Accounts for a record the logger has just written.
+     *
+     * @param event The event behind the record.
+     * @param bytes The encoded length of the record, including its line separator.
+     * @throws IOException If a completed block cannot be written.
+     */
+    void add(LogEvent event, long bytes) throws IOException {
+        long timestamp = event.getTimestamp();
+        if (records > 0 && (records >= policy.getMaxRecords()
+                || policy.getMaxBlockMillis() > 0 && timestamp - blockFirst >= policy.getMaxBlockMillis())) {
+            closeBlock();
+        }
+        if (records == 0) {
+            blockStart = offset;
+            blockFirst = timestamp;
+            minTimestamp = timestamp;
+            maxTimestamp = timestamp;
+        } else {
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+        records++;
+        kindMask |= LogIndexFormat.kindBit(event.getKind());
+        contextBloom |= LogIndexFormat.contextBits(event.getContext());
+        offset += bytes;
+    }
+
+    private void closeBlock() throws IOException {
+        out.writeLong(blockStart);
+        out.writeLong(offset);
+        out.writeLong(minTimestamp);
+        out.writeLong(maxTimestamp);
+        out.writeInt(records);
+        out.writeInt(kindMask);
+        out.writeLong(contextBloom);
+        records = 0;
+        kindMask = 0;
+        contextBloom = 0;
+    }
+
+    /**
+     * Writes the completed blocks to the index file. The open block stays open.
+     *
+     * @throws IOException If writing fails.
+     */
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Completes the open block and closes the index file.
+     *
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (records > 0) closeBlock();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package me.a8kj.logging.impl;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.a8kj.logging.LogKind;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Selects the records a {@link LogReader} returns: a time range, a set of kinds and
+ * a set of context names. Every condition left unset matches everything.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * LogQuery query = LogQuery.between(from, from + 5 * 60_000)
+ *         .withKinds(LogKind.ERROR, LogKind.EXCEPTION)
+ *         .withContexts("Database");
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class LogQuery {
+
+    /**
+     * The start of the time range in milliseconds since the epoch, inclusive.
+     */
+    private final long fromMillis;
+    /**
+     * The end of the time range in milliseconds since the epoch, exclusive.
+     */
+    private final long toMillis;
+    /**
+     * The kinds to return.
+     */
+    private final Set<LogKind> kinds;
+    /**
+     * The context names to return; empty returns every context and plain messages.
+     */
+    private final Set<String> contexts;
+
+    @Getter(AccessLevel.NONE)
+    private final int kindMask;
+    @Getter(AccessLevel.NONE)
+    private final long[] contextBits;
+
+    private LogQuery(long fromMillis, long toMillis, Set<LogKind> kinds, Set<String> contexts) {
+        if (fromMillis > toMillis) {
+            throw new IllegalArgumentException("fromMillis must not be after toMillis: " + fromMillis + " > " + toMillis);
+        }
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.kinds = Collections.unmodifiableSet(kinds);
+        this.contexts = Collections.unmodifiableSet(contexts);
+
+        int mask = 0;
+        for (LogKind kind : kinds) mask |= LogIndexFormat.kindBit(kind);
+        this.kindMask = mask;
+        this.contextBits = contexts.stream().mapToLong(LogIndexFormat::contextBits).toArray();
+    }
+
+    /**
+     * Matches every record.
+     *
+     * @return A query without conditions.
+     */
+    public static LogQuery all() {
+        return new LogQuery(Long.MIN_VALUE, Long.MAX_VALUE, EnumSet.allOf(LogKind.class), Set.of());
+    }
+
+    /**
+     * Matches the records logged within a time range.
+     *
+     * @param fromMillis The start in milliseconds since the epoch, inclusive.
+     * @param toMillis   The end in milliseconds since the epoch, exclusive.
+     * @return A time range query.
+     */
+    public static LogQuery between(long fromMillis, long toMillis) {
+        return all().withTimeRange(fromMillis, toMillis);
+    }
+
+    /**
+     * @param fromMillis The start in milliseconds since the epoch, inclusive.
+     * @param toMillis   The end in milliseconds since the epoch, exclusive.
+     * @return A copy of this query with another time range.
+     */
+    public LogQuery withTimeRange(long fromMillis, long toMillis) {
+        return new LogQuery(fromMillis, toMillis, kinds, contexts);
+    }
+
+    /**
+     * @param kinds The kinds to return.
+     * @return A copy of this query restricted to the given kinds.
+     */
+    public LogQuery withKinds(LogKind... kinds) {
+        EnumSet<LogKind> set = EnumSet.noneOf(LogKind.class);
+        set.addAll(Arrays.asList(kinds));
+        return new LogQuery(fromMillis, toMillis, set, contexts);
+    }
+
+    /**
+     * @param contexts The context names to return, as passed to {@code LogContext}.
+     * @return A copy of this query restricted to the given contexts.
+     */
+    public LogQuery withContexts(String... contexts) {
+        return new LogQuery(fromMillis, toMillis, kinds, new LinkedHashSet<>(Arrays.asList(contexts)));
+    }
+
+    /**
+     * Tests a block of the index. A match only means the block may contain matching
+     * records; the records themselves are checked by {@link #matches}.
+     */
+    boolean matchesBlock(long minTimestamp, long maxTimestamp, int kindMask, long contextBloom) {
+        if (maxTimestamp < fromMillis || minTimestamp >= toMillis) return false;
+        if ((kindMask & this.kindMask) == 0) return false;
+        if (contextBits.length == 0) return true;
+        for (long bits : contextBits) {
+            if ((contextBloom & bits) == bits) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tests a record. A timestamp of {@code -1} is unknown and passes the time range.
+     */
+    boolean matches(long timestamp, LogKind kind, String context) {
+        if (timestamp != -1 && (timestamp < fromMillis || timestamp >= toMillis)) return false;
+        if (!kinds.contains(kind)) return false;
+        return contexts.isEmpty() || contexts.contains(context);
+    }
+}
@@ -0,0 +1,365 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.util.TimestampFormatter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Queries the plain-text files written by {@link FileLogger} by time range, kind and
+ * context, using the sidecar index kept with an {@link IndexPolicy}.
+ * <p>
+ * The index lists, for every block of records, its byte range, time range and bitmaps
+ * of the kinds and contexts inside. A query first discards every block the index rules
+ * out, then memory-maps only the remaining byte ranges and checks each of their records.
+ * Parts of the file the index does not cover, such as lines written before the index
+ * existed or the block still being filled, are read as well, so a query never misses a
+ * record. Without an index the whole file is scanned.
+ * </p>
+ * <p>
+ * A record is a line starting with {@code [timestamp] [KIND] }, followed by the lines of
+ * an attached stack trace. Timestamps are read back with the {@link TimestampFormatter}
+ * the file was written with; if that format does not identify an instant (e.g.
+ * {@link TimestampFormatter#TIME_OF_DAY}), the time range is only applied per block.
+ * A message without context that itself starts with {@code [name] } is taken for a context.
+ * </p>
+ * <p>
+ * A reader may be used while the logger keeps writing; each query sees the file as it
+ * is when the query starts. Instances are not thread-safe.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * try (LogReader reader = new LogReader("logs.txt")) {
+ *     reader.query(LogQuery.between(from, to).withKinds(LogKind.ERROR))
+ *             .forEach(entry -&gt; System.out.println(entry.text()));
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LogReader implements AutoCloseable {
+
+    /**
+     * One record of the log file.
+     *
+     * @param offset    The byte offset of the record in the file.
+     * @param timestamp The time in milliseconds since the epoch, or {@code -1} if it could not be read.
+     * @param kind      The {@link LogKind} of the record.
+     * @param context   The context name, or {@code null} for a plain message.
+     * @param text      The complete record, including stack trace lines, without the final line separator.
+     */
+    public record Entry(long offset, long timestamp, LogKind kind, String context, String text) {
+    }
+
+    private static final int WINDOW_SIZE = 1 << 20;
+    private static final LogKind[] KINDS = LogKind.values();
+
+    private final FileChannel channel;
+    private final TimestampFormatter timestamps;
+    private final ByteBuffer index;
+    private final int blockCount;
+    private long bytesRead;
+    private boolean timestampsReadable = true;
+
+    /**
+     * Opens a log file written with the default timestamp format.
+     *
+     * @param fileName The path to the log file.
+     * @throws IOException If the file or its index cannot be read.
+     */
+    public LogReader(String fileName) throws IOException {
+        this(fileName, TimestampFormatter.ISO_LOCAL_MILLIS);
+    }
+
+    /**
+     * Opens a log file written with a custom timestamp format.
+     *
+     * @param fileName   The path to the log file.
+     * @param timestamps The {@link TimestampFormatter} the file was written with.
+     * @throws IOException If the file or its index cannot be read.
+     */
+    public LogReader(String fileName, TimestampFormatter timestamps) throws IOException {
+        Path file = Path.of(fileName);
+        this.timestamps = timestamps;
+        this.index = readIndex(LogIndexFormat.indexFile(file));
+        this.blockCount = (index.limit() - LogIndexFormat.HEADER_SIZE) / LogIndexFormat.ENTRY_SIZE;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    private static ByteBuffer readIndex(Path indexFile) throws IOException {
+        ByteBuffer empty = ByteBuffer.allocate(LogIndexFormat.HEADER_SIZE);
+        if (!Files.isRegularFile(indexFile)) return empty;
+
+        byte[] bytes = Files.readAllBytes(indexFile);
+        if (bytes.length < LogIndexFormat.HEADER_SIZE
+                || !Arrays.equals(bytes, 0, LogIndexFormat.MAGIC.length, LogIndexFormat.MAGIC, 0, LogIndexFormat.MAGIC.length)
+                || bytes[LogIndexFormat.MAGIC.length] != LogIndexFormat.VERSION) {
+            return empty;
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * @return The number of indexed blocks.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns how many bytes of the log file the queries of this reader have scanned,
+     * which shows how much of the file the index allowed them to skip.
+     *
+     * @return The number of bytes read so far.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Streams the records matching a query in file order. The stream reads lazily, so
+     * stopping early, e.g. with {@link Stream#limit(long)}, reads less of the file.
+     * Read errors during the stream are thrown as {@link UncheckedIOException}.
+     *
+     * @param query The {@link LogQuery} to apply.
+     * @return The matching records.
+     * @throws IOException If the size of the file cannot be determined.
+     */
+    public Stream<Entry> query(LogQuery query) throws IOException {
+        long size = channel.size();
+        long[] ranges = new long[2 * (2 * blockCount + 1)];
+        int count = 0;
+        long covered = 0;
+        for (int i = 0; i < blockCount; i++) {
+            int at = LogIndexFormat.HEADER_SIZE + i * LogIndexFormat.ENTRY_SIZE;
+            long start = Math.min(index.getLong(at), size);
+            long end = Math.min(index.getLong(at + 8), size);
+            if (start < covered) continue;
+
+            if (start > covered) {
+                count = addRange(ranges, count, covered, start);
+            }
+            if (query.matchesBlock(index.getLong(at + 16), index.getLong(at + 24), index.getInt(at + 36), index.getLong(at + 40))) {
+                count = addRange(ranges, count, start, end);
+            }
+            covered = end;
+        }
+        if (size > covered) {
+            count = addRange(ranges, count, covered, size);
+        }
+
+        Cursor cursor = new Cursor(query, Arrays.copyOf(ranges, count));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Appends a byte range, joining it with the previous one if they touch.
+     */
+    private static int addRange(long[] ranges, int count, long start, long end) {
+        if (end <= start) return count;
+        if (count > 0 && ranges[count - 1] == start) {
+            ranges[count - 1] = end;
+            return count;
+        }
+        ranges[count] = start;
+        ranges[count + 1] = end;
+        return count + 2;
+    }
+
+    /**
+     * Closes the log file. Streams of this reader must not be used afterwards.
+     *
+     * @throws IOException If closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Walks the selected byte ranges record by record. A range always starts at a
+     * record, so records never cross ranges.
+     */
+    private final class Cursor implements Iterator<Entry> {
+
+        private final LogQuery query;
+        private final long[] ranges;
+        private int range = -2;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+        private long position;
+        private long end;
+        private byte[] bytes = new byte[256];
+
+        private String line;
+        private long lineOffset;
+        private Entry next;
+
+        Cursor(LogQuery query, long[] ranges) {
+            this.query = query;
+            this.ranges = ranges;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = advance();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Entry entry = next;
+            next = null;
+            return entry;
+        }
+
+        private Entry advance() throws IOException {
+            while (true) {
+                if (line == null && !readLine()) {
+                    if (!nextRange()) return null;
+                    continue;
+                }
+                long offset = lineOffset;
+                String text = line;
+                line = null;
+
+                int kindEnd = kindEnd(text);
+                StringBuilder record = null;
+                while (readLine() && kindEnd(line) < 0) {
+                    if (record == null) record = new StringBuilder(text);
+                    record.append('\n').append(line);
+                    line = null;
+                }
+                // Lines before the first record of a range cannot belong to a record.
+                if (kindEnd < 0) continue;
+
+                Entry entry = toEntry(offset, text, kindEnd, record);
+                if (query.matches(entry.timestamp(), entry.kind(), entry.context())) return entry;
+            }
+        }
+
+        private Entry toEntry(long offset, String header, int kindEnd, StringBuilder record) {
+            int timestampEnd = header.indexOf("] [");
+            LogKind kind = LogKind.valueOf(header.substring(timestampEnd + 3, kindEnd));
+
+            String context = null;
+            int bodyStart = kindEnd + 2;
+            if (header.startsWith("[", bodyStart)) {
+                int contextEnd = header.indexOf("] ", bodyStart);
+                if (contextEnd > 0) context = header.substring(bodyStart + 1, contextEnd);
+            }
+
+            long timestamp = -1;
+            if (timestampsReadable) {
+                try {
+                    timestamp = timestamps.parse(header.subSequence(1, timestampEnd));
+                } catch (DateTimeParseException ignored) {
+                    // Not written by this format; keep the record.
+                } catch (DateTimeException e) {
+                    timestampsReadable = false;
+                }
+            }
+            return new Entry(offset, timestamp, kind, context, record == null ? header : record.toString());
+        }
+
+        private boolean nextRange() {
+            range += 2;
+            if (range >= ranges.length) return false;
+            position = ranges[range];
+            end = ranges[range + 1];
+            window = null;
+            return true;
+        }
+
+        /**
+         * Reads the next line of the current range into {@link #line}.
+         *
+         * @return {@code false} at the end of the range.
+         */
+        private boolean readLine() throws IOException {
+            if (line != null) return true;
+            if (position >= end) return false;
+
+            long size = WINDOW_SIZE;
+            while (true) {
+                if (window == null || position < windowStart || position >= windowEnd) {
+                    map(position, size);
+                }
+                int from = (int) (position - windowStart);
+                int limit = (int) (windowEnd - windowStart);
+                int newline = from;
+                while (newline < limit && window.get(newline) != '\n') newline++;
+
+                if (newline < limit || windowEnd == end) {
+                    int length = newline - from;
+                    long consumed = newline < limit ? length + 1 : length;
+                    if (length > 0 && window.get(newline - 1) == '\r') length--;
+                    if (bytes.length < length) bytes = new byte[Math.max(length, bytes.length * 2)];
+                    window.get(from, bytes, 0, length);
+
+                    line = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                    lineOffset = position;
+                    position += consumed;
+                    bytesRead += consumed;
+                    return true;
+                }
+                // The line is longer than the window; map a larger one starting at the line.
+                size = Math.min(Integer.MAX_VALUE, Math.max(WINDOW_SIZE, (windowEnd - position) * 2));
+                window = null;
+            }
+        }
+
+        private void map(long start, long size) throws IOException {
+            windowStart = start;
+            windowEnd = Math.min(end, start + size);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        }
+    }
+
+    /**
+     * Finds the header of a record, {@code [timestamp] [KIND] }.
+     *
+     * @param line A line of the file.
+     * @return The index of the {@code ]} closing the kind, or {@code -1} if the line does not start a record.
+     */
+    private static int kindEnd(String line) {
+        if (line.isEmpty() || line.charAt(0) != '[') return -1;
+        int timestampEnd = line.indexOf("] [");
+        if (timestampEnd < 0) return -1;
+        int kindEnd = line.indexOf(']', timestampEnd + 3);
+        if (kindEnd < 0 || kindEnd + 1 < line.length() && line.charAt(kindEnd + 1) != ' ') return -1;
+
+        String name = line.substring(timestampEnd + 3, kindEnd);
+        for (LogKind kind : KINDS) {
+            if (kind.name().equals(name)) return kindEnd;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,393 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.TextEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * A file logger that appends to pre-allocated, memory-mapped segment files.
+ * <p>
+ * Every segment has a fixed size and is mapped once with a {@link MappedByteBuffer}.
+ * A writer renders and encodes its line on its own thread, claims space in the
+ * current segment with one atomic increment and copies the bytes into the mapping.
+ * Appending a line therefore costs a memory copy and no system call; the operating
+ * system writes the pages back in the background. When a segment is full, the writer
+ * that crossed the boundary seals it (truncating it to the used length) and opens
+ * the next one.
+ * </p>
+ * <p>
+ * Segments are named {@code <fileName>.000001}, {@code <fileName>.000002} and so on,
+ * and use the same text layout as {@link FileLogger}. A record is copied in three
+ * steps: its body, then its first byte (the {@code [} of the header), then its final
+ * byte (the end of the line separator), which acts as the record's commit marker. A
+ * record torn by a crash therefore either lacks its first byte or its final byte. The
+ * unused tail of the last segment is still zero-filled; {@link #recover(Path)} keeps
+ * every complete record, including all lines of multi-line ones, and trims the rest.
+ * The latest existing segment is recovered automatically on start-up.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * try (MappedFileLogger logger = new MappedFileLogger("logs.txt", 64 * 1024 * 1024)) {
+ *     Log.addDestination(logger);
+ *     Log.info("Application started");
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class MappedFileLogger implements Logger, AutoCloseable {
+
+    /**
+     * The segment size used when none is given: 64 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int MIN_SEGMENT_SIZE = 4096;
+    private static final int MAX_RETAINED_LINE = 16384;
+
+    private final Path base;
+    private final int segmentSize;
+    private final SinkMetrics metrics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ThreadLocal<LineBuffer> buffers = ThreadLocal.withInitial(LineBuffer::new);
+
+    private volatile Segment current;
+    private int nextIndex;
+
+    /**
+     * Creates a mapped logger with {@link #DEFAULT_SEGMENT_SIZE} segments.
+     *
+     * @param fileName The base path of the segment files.
+     * @throws IOException If the first segment cannot be created.
+     */
+    public MappedFileLogger(String fileName) throws IOException {
+        this(fileName, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a mapped logger and opens its first segment after the highest
+     * existing one, recovering that existing segment if it was not sealed.
+     *
+     * @param fileName    The base path of the segment files.
+     * @param segmentSize The size of each segment in bytes; at least 4096.
+     * @throws IOException              If the first segment cannot be created.
+     * @throws IllegalArgumentException If the segment size is too small.
+     */
+    public MappedFileLogger(String fileName, int segmentSize) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be at least " + MIN_SEGMENT_SIZE + ": " + segmentSize);
+        }
+        this.base = Path.of(fileName).toAbsolutePath();
+        this.segmentSize = segmentSize;
+        this.metrics = LogMetrics.sink(getName());
+
+        int latest = latestIndex();
+        if (latest > 0) {
+            recover(segmentPath(latest));
+        }
+        this.nextIndex = latest + 1;
+        this.current = openSegment();
+    }
+
+    /**
+     * Writes a plain message to the current segment.
+     *
+     * @param message The message to log (may contain ANSI codes).
+     * @param kind    The severity level of the log entry.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Encodes an event on the calling thread and copies it into the current segment.
+     * Lines longer than a segment are truncated to the segment size.
+     *
+     * @param event The {@link LogEvent} to persist.
+     */
+    @Override
+    public void log(LogEvent event) {
+        LineBuffer buffer = buffers.get();
+        StringBuilder line = buffer.line;
+        line.setLength(0);
+        FileLayout.appendLine(line, event);
+        AnsiUtils.stripColorsInPlace(line);
+        ByteBuffer bytes = buffer.encoder.encode(line);
+        int length = Math.min(bytes.limit(), segmentSize);
+        if (length < bytes.limit()) {
+            bytes.put(length - 1, (byte) '\n');
+        }
+
+        for (; ; ) {
+            Segment segment = current;
+            if (segment == null) return;
+
+            long start = segment.claimed.getAndAdd(length);
+            if (start + length <= segment.capacity) {
+                segment.write((int) start, bytes, length);
+                if (LogMetrics.isEnabled()) {
+                    metrics.addBytes(length);
+                }
+                break;
+            }
+            if (start <= segment.capacity) {
+                segment.end = (int) start;
+                roll(segment);
+            } else {
+                while (current == segment) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        if (line.capacity() > MAX_RETAINED_LINE) {
+            buffers.remove();
+        }
+    }
+
+    /**
+     * @return {@code "MappedFileLogger[<file name>]"}.
+     */
+    @Override
+    public String getName() {
+        return "MappedFileLogger[" + base + "]";
+    }
+
+    /**
+     * Forces the pages of the current segment to the storage device.
+     */
+    @Override
+    public void flush() {
+        Segment segment = current;
+        if (segment != null) {
+            try {
+                segment.mapped.force();
+            } catch (UncheckedIOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Seals the current segment, truncating it to the used length.
+     * Lines logged after closing are discarded.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            Segment segment = current;
+            if (segment == null) return;
+            current = null;
+            long used = segment.claimed.getAndAdd(segment.capacity + 1L);
+            if (used > segment.capacity) {
+                // A writer crossed the boundary and is about to roll; its claim start is the end.
+                while (segment.end < 0) {
+                    Thread.onSpinWait();
+                }
+                used = segment.end;
+            }
+            segment.seal((int) used);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Repairs a segment left behind by a crash: complete records are kept whole, while
+     * zero-filled holes and torn records are dropped, and the file is truncated. Sealed
+     * segments are left untouched.
+     * <p>
+     * Records are claimed back to back, so the segment consists of runs of written bytes
+     * separated by holes. A run must start with a {@code [timestamp] [KIND] } header;
+     * otherwise it is the body of a record whose first byte was never written. A run
+     * that does not end with a line separator ends with a record whose commit marker is
+     * missing, which is dropped from its header onwards.
+     * </p>
+     *
+     * @param segment The path of the segment file.
+     * @throws IOException If the file cannot be read or rewritten.
+     */
+    public static void recover(Path segment) throws IOException {
+        byte[] data = Files.readAllBytes(segment);
+        if (data.length == 0 || data[data.length - 1] != 0) return;
+
+        byte[] kept = new byte[data.length];
+        int size = 0;
+        int start = 0;
+        while (start < data.length) {
+            if (data[start] == 0) {
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < data.length && data[end] != 0) {
+                end++;
+            }
+            if (isRecordStart(data, start, end)) {
+                int keep = data[end - 1] == '\n' ? end : lastRecordStart(data, start, end);
+                System.arraycopy(data, start, kept, size, keep - start);
+                size += keep - start;
+            }
+            start = end;
+        }
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(kept, 0, size);
+            while (content.hasRemaining()) {
+                channel.write(content, content.position());
+            }
+            channel.truncate(size);
+        }
+    }
+
+    /**
+     * Finds the start of the last record in a run: the last line that begins with a header.
+     */
+    private static int lastRecordStart(byte[] data, int start, int end) {
+        for (int i = end - 1; i > start; i--) {
+            if (data[i - 1] == '\n' && isRecordStart(data, i, end)) return i;
+        }
+        return start;
+    }
+
+    /**
+     * Checks for a {@code [timestamp] [KIND] } header at the given position.
+     */
+    private static boolean isRecordStart(byte[] data, int position, int end) {
+        if (data[position] != '[') return false;
+        int i = position + 1;
+        while (i < end && data[i] != ']' && data[i] != '\n') i++;
+        if (i + 2 >= end || data[i] != ']' || data[i + 1] != ' ' || data[i + 2] != '[') return false;
+        int kindStart = i + 3;
+        int kindEnd = kindStart;
+        while (kindEnd < end && data[kindEnd] >= 'A' && data[kindEnd] <= 'Z') kindEnd++;
+        if (kindEnd + 1 >= end || data[kindEnd] != ']' || data[kindEnd + 1] != ' ') return false;
+        String kind = new String(data, kindStart, kindEnd - kindStart, StandardCharsets.US_ASCII);
+        for (LogKind candidate : LogKind.values()) {
+            if (candidate.name().equals(kind)) return true;
+        }
+        return false;
+    }
+
+    private void roll(Segment full) {
+        lock.lock();
+        try {
+            if (current != full) return;
+            full.seal(full.end);
+            try {
+                current = openSegment();
+            } catch (IOException e) {
+                current = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        Path path = segmentPath(nextIndex++);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize), segmentSize);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return base.resolveSibling(base.getFileName() + "." + String.format("%06d", index));
+    }
+
+    private int latestIndex() throws IOException {
+        Path dir = base.getParent();
+        String prefix = base.getFileName() + ".";
+        int latest = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.length() == prefix.length() + 6) {
+                    try {
+                        latest = Math.max(latest, Integer.parseInt(name.substring(prefix.length())));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * One mapped segment file and its claim counters.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer mapped;
+        private final int capacity;
+        private final AtomicLong claimed = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private volatile int end = -1;
+
+        private Segment(Path path, MappedByteBuffer mapped, int capacity) {
+            this.path = path;
+            this.mapped = mapped;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Copies a record into its claimed region. The body is stored first, then the
+         * first byte, and the final byte, the end of the line separator, is stored last
+         * and marks the record as complete.
+         */
+        private void write(int start, ByteBuffer bytes, int length) {
+            mapped.put(start + 1, bytes, 1, length - 2);
+            mapped.put(start, bytes.get(0));
+            mapped.put(start + length - 1, bytes.get(length - 1));
+            written.addAndGet(length);
+        }
+
+        /**
+         * Waits for every writer of the used region, forces the pages and
+         * truncates the file to the used length.
+         */
+        private void seal(int used) {
+            while (written.get() < used) {
+                Thread.onSpinWait();
+            }
+            try {
+                mapped.force();
+            } catch (UncheckedIOException ignored) {
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(used);
+            } catch (IOException ignored) {
+                // Platforms that refuse to truncate a mapped file keep the zero-filled
+                // tail, which recover() removes.
+            }
+        }
+    }
+
+    /**
+     * The per-thread rendering and encoding buffers.
+     */
+    private static final class LineBuffer {
+        private final StringBuilder line = new StringBuilder(256);
+        private final TextEncoder encoder = new TextEncoder(StandardCharsets.UTF_8);
+    }
+}
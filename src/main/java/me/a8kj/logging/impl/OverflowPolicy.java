@@ -0,0 +1,31 @@
+package me.a8kj.logging.impl;
+
+/**
+ * Defines what a queueing logger does with a new entry when its buffer is full.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The caller waits until the consumer frees a slot. No entry is lost.
+     */
+    BLOCK,
+
+    /**
+     * The oldest queued entry is discarded to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new entry is discarded and the queue is left untouched.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The new entry is written synchronously on the caller thread,
+     * bypassing the queue. Such entries may appear ahead of queued ones.
+     */
+    CALLER_RUNS
+
+}
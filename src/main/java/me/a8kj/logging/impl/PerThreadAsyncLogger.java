@@ -0,0 +1,554 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.RingBuffer;
+import me.a8kj.logging.util.SingleWriterRingBuffer;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link Logger} decorator in which every platform thread appends its events to a
+ * buffer of its own, and one background collector merges all buffers into the
+ * wrapped logger in timestamp order.
+ * <p>
+ * Unlike {@link AsyncLogger}, producers never touch a shared cursor: each thread is
+ * the single writer of a {@link SingleWriterRingBuffer}, so logging costs the same
+ * no matter how many cores log at once. The collector repeatedly takes the oldest
+ * head among all buffers. It holds back events for half of the maximum delay, so
+ * that an event published a little later by a slower thread can still be written
+ * before younger events from other threads. The wrapped logger receives each event
+ * within roughly the maximum delay, unless it cannot keep up. Events logged more
+ * than half the delay late are written as soon as they arrive.
+ * </p>
+ * <p>
+ * Virtual threads share one lock-free {@link RingBuffer} instead, since they are
+ * too numerous and short-lived for a buffer each. The buffer of a platform thread
+ * is drained and discarded once the thread has terminated.
+ * {@link OverflowPolicy#DROP_OLDEST} is not supported, because only the owning
+ * thread may write to its buffer.
+ * </p>
+ * <p>
+ * Implements {@link AutoCloseable}; closing writes every queued entry before the
+ * collector stops. The wrapped logger itself is not closed.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * CompositeLogger sinks = new CompositeLogger();
+ * sinks.addLogger(new ChannelFileLogger("logs.txt"));
+ * Log.addDestination(new PerThreadAsyncLogger(sinks, 4096, 20, OverflowPolicy.BLOCK));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class PerThreadAsyncLogger implements Logger, AutoCloseable {
+
+    /**
+     * The number of slots per thread used when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The maximum delay in milliseconds used when none is given.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+
+    private static final int SHARED_CAPACITY_FACTOR = 8;
+    private static final int SPIN_TRIES = 100;
+    private static final long BLOCK_PARK_NANOS = 10_000L;
+
+    private final Logger delegate;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final long graceMillis;
+    private final long pollNanos;
+    private final ThreadLocal<Lane> lanes = ThreadLocal.withInitial(this::register);
+    private final List<Lane> active = new CopyOnWriteArrayList<>();
+    private final Lane shared;
+    private final Thread collector;
+    private final Thread shutdownHook;
+    private final LongAdder dropped = new LongAdder();
+    private final SinkMetrics metrics;
+    private final IntSupplier queueDepth;
+    private final AtomicLong flushRequests = new AtomicLong();
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    private volatile long flushed;
+    private volatile boolean running = true;
+
+    /*
+     * Owned by the collector thread, and by the drainLock holder once it has stopped.
+     */
+    private final PriorityQueue<Lane> heads = new PriorityQueue<>(Lane::compareHeads);
+    private long lastNow;
+
+    /**
+     * Creates a per-thread asynchronous logger with {@link #DEFAULT_CAPACITY} slots per
+     * thread and a maximum delay of {@link #DEFAULT_MAX_DELAY_MILLIS} milliseconds that
+     * blocks callers when their buffer is full.
+     *
+     * @param delegate The {@link Logger} that receives the merged entries.
+     */
+    public PerThreadAsyncLogger(Logger delegate) {
+        this(delegate, DEFAULT_CAPACITY, DEFAULT_MAX_DELAY_MILLIS, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates a per-thread asynchronous logger and starts its collector thread.
+     *
+     * @param delegate       The {@link Logger} that receives the merged entries.
+     * @param capacity       The number of preallocated slots per thread; rounded up to a power of two.
+     *                       The buffer shared by virtual threads is eight times larger.
+     * @param maxDelayMillis The intended upper bound between logging an entry and handing it to the
+     *                       wrapped logger; half of it is spent waiting for out-of-order entries.
+     * @param policy         The {@link OverflowPolicy} applied when a buffer is full.
+     * @throws NullPointerException     if the delegate or policy is null.
+     * @throws IllegalArgumentException if the capacity or delay is not positive, or the policy
+     *                                  is {@link OverflowPolicy#DROP_OLDEST}.
+     */
+    public PerThreadAsyncLogger(Logger delegate, int capacity, long maxDelayMillis, OverflowPolicy policy) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (maxDelayMillis <= 0) throw new IllegalArgumentException("maxDelayMillis must be positive: " + maxDelayMillis);
+        if (policy == OverflowPolicy.DROP_OLDEST) {
+            throw new IllegalArgumentException("DROP_OLDEST is not supported by single-writer buffers");
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.capacity = capacity;
+        this.graceMillis = maxDelayMillis / 2;
+        this.pollNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(maxDelayMillis - graceMillis));
+        this.shared = new SharedLane(new RingBuffer<>(capacity * SHARED_CAPACITY_FACTOR, LogEvent::new));
+        this.active.add(shared);
+        this.metrics = LogMetrics.sink(getName());
+        this.queueDepth = this::getQueueSize;
+        this.metrics.addQueueDepth(queueDepth);
+
+        this.collector = new Thread(this::collect, "SimpleLog-PerThreadAsyncLogger");
+        this.collector.setDaemon(true);
+        this.collector.start();
+
+        this.shutdownHook = new Thread(this::close, "SimpleLog-PerThreadAsyncLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a plain message in the caller's buffer.
+     *
+     * @param message The message content to be logged.
+     * @param kind    The {@link LogKind} severity level.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Copies an event into the caller's buffer. When the buffer is full the configured
+     * {@link OverflowPolicy} decides whether the caller waits, the event is dropped or
+     * it is written synchronously.
+     *
+     * @param event The {@link LogEvent} to dispatch.
+     */
+    @Override
+    public void log(LogEvent event) {
+        if (!running) {
+            delegate.log(event);
+            return;
+        }
+        if (event.getThrowable() != null) {
+            // The collector must not render a second, possibly back-referenced, trace.
+            event.getRenderedStackTrace();
+        }
+
+        Lane lane = Thread.currentThread().isVirtual() ? shared : lanes.get();
+        long sequence = lane.tryClaim();
+        int tries = 0;
+        while (sequence < 0) {
+            switch (policy) {
+                case DROP_NEWEST -> {
+                    drop();
+                    return;
+                }
+                case CALLER_RUNS -> {
+                    delegate.log(event);
+                    return;
+                }
+                default -> {
+                    if (!running) {
+                        delegate.log(event);
+                        return;
+                    }
+                    if (++tries < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.unpark(collector);
+                        LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    }
+                }
+            }
+            sequence = lane.tryClaim();
+        }
+
+        lane.slot(sequence).copyFrom(event);
+        lane.publish(sequence);
+
+        if (!running) {
+            // Closed while this entry was queued; the collector may have finished its last merge.
+            drainRemaining();
+        }
+    }
+
+    /**
+     * Delegates to the wrapped logger so that filtered entries are rejected
+     * before they are formatted or queued.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if the wrapped logger would write the entry.
+     */
+    @Override
+    public boolean isEnabled(LogKind kind, LogContext context) {
+        return delegate.isEnabled(kind, context);
+    }
+
+    /**
+     * Waits until every entry logged so far by the calling thread, and every older
+     * entry of other threads, has been handed to the wrapped logger, then flushes it.
+     */
+    @Override
+    public void flush() {
+        if (Thread.currentThread() != collector) {
+            long ticket = flushRequests.incrementAndGet();
+            while (running && flushed < ticket && collector.isAlive()) {
+                LockSupport.unpark(collector);
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+        }
+        delegate.flush();
+    }
+
+    /**
+     * @return {@code "PerThreadAsyncLogger(<delegate name>)"}.
+     */
+    @Override
+    public String getName() {
+        return "PerThreadAsyncLogger(" + delegate.getName() + ")";
+    }
+
+    /**
+     * Returns the number of entries discarded by {@link OverflowPolicy#DROP_NEWEST}
+     * since this logger was created.
+     *
+     * @return The total count of dropped entries.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns an estimate of the entries waiting in all buffers.
+     *
+     * @return The approximate queue depth.
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (Lane lane : active) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of buffers currently drained by the collector: one per live
+     * platform thread that has logged, plus the one shared by virtual threads.
+     *
+     * @return The number of buffers.
+     */
+    public int getBufferCount() {
+        return active.size();
+    }
+
+    /**
+     * Stops accepting new entries, waits for the collector to write every queued
+     * entry, stops it and flushes the wrapped logger. Entries logged after closing
+     * are written synchronously on the caller thread.
+     */
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(collector);
+        try {
+            collector.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!collector.isAlive()) {
+            drainRemaining();
+        }
+        delegate.flush();
+        metrics.removeQueueDepth(queueDepth);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; this call is the hook itself.
+        }
+    }
+
+    private Lane register() {
+        Lane lane = new LocalLane(Thread.currentThread(), new SingleWriterRingBuffer<>(capacity, LogEvent::new));
+        active.add(lane);
+        return lane;
+    }
+
+    private void drop() {
+        dropped.increment();
+        if (LogMetrics.isEnabled()) {
+            metrics.addDropped();
+        }
+    }
+
+    /**
+     * Writes the entries published after the collector stopped, on the caller thread.
+     * Waits for the collector first, so the buffers only ever have one reader at a time.
+     */
+    private void drainRemaining() {
+        if (Thread.currentThread() == collector) return;
+        boolean interrupted = false;
+        while (collector.isAlive()) {
+            try {
+                collector.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        drainLock.lock();
+        try {
+            merge(Long.MAX_VALUE);
+        } finally {
+            drainLock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect() {
+        for (; ; ) {
+            boolean stopping = !running;
+            long ticket = flushRequests.get();
+            long now = System.currentTimeMillis();
+            long watermark;
+            if (stopping || now < lastNow) {
+                // Closing, or the clock was set back: nothing is worth holding back.
+                watermark = Long.MAX_VALUE;
+            } else if (ticket != flushed) {
+                watermark = now;
+            } else {
+                watermark = now - graceMillis;
+            }
+            lastNow = now;
+
+            int delivered = merge(watermark);
+            if (ticket != flushed) {
+                flushed = ticket;
+            }
+            active.removeIf(Lane::isRetired);
+
+            if (delivered == 0) {
+                if (stopping) return;
+                LockSupport.parkNanos(this, pollNanos);
+            }
+        }
+    }
+
+    /**
+     * Writes, oldest first, every buffered event whose timestamp is not after the
+     * watermark. Buffers are only scanned once per round. Events of one buffer keep
+     * their order; events of different buffers with equal timestamps are written in
+     * no particular order.
+     */
+    private int merge(long watermark) {
+        for (Lane lane : active) {
+            if (!lane.queued && lane.peek()) {
+                lane.queued = true;
+                heads.add(lane);
+            }
+        }
+
+        int delivered = 0;
+        while (!heads.isEmpty() && heads.peek().head.getTimestamp() <= watermark) {
+            Lane lane = heads.poll();
+            try {
+                delegate.log(lane.head);
+            } catch (RuntimeException ignored) {
+            } finally {
+                lane.advance();
+            }
+            delivered++;
+            if (lane.peek()) {
+                heads.add(lane);
+            } else {
+                lane.queued = false;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * A buffer written by producers and read by the collector. The collector keeps
+     * the oldest unread event as the head until it has been written.
+     */
+    private abstract static class Lane {
+
+        LogEvent head;
+        long headSequence = -1;
+        boolean queued;
+
+        abstract long tryClaim();
+
+        abstract LogEvent slot(long sequence);
+
+        abstract void publish(long sequence);
+
+        abstract long tryAcquire();
+
+        abstract void release(long sequence);
+
+        abstract int size();
+
+        abstract boolean isRetired();
+
+        boolean peek() {
+            if (head != null) return true;
+            long sequence = tryAcquire();
+            if (sequence < 0) return false;
+            headSequence = sequence;
+            head = slot(sequence);
+            return true;
+        }
+
+        void advance() {
+            head.clear();
+            head = null;
+            release(headSequence);
+            headSequence = -1;
+        }
+
+        static int compareHeads(Lane a, Lane b) {
+            int result = Long.compare(a.head.getTimestamp(), b.head.getTimestamp());
+            return result != 0 ? result : Integer.compare(a.head.getNanos(), b.head.getNanos());
+        }
+    }
+
+    /**
+     * The buffer of one platform thread; retired once the thread has terminated and
+     * everything it logged has been written.
+     */
+    private static final class LocalLane extends Lane {
+
+        private final Thread owner;
+        private final SingleWriterRingBuffer<LogEvent> buffer;
+
+        LocalLane(Thread owner, SingleWriterRingBuffer<LogEvent> buffer) {
+            this.owner = owner;
+            this.buffer = buffer;
+        }
+
+        @Override
+        long tryClaim() {
+            return buffer.tryClaim();
+        }
+
+        @Override
+        LogEvent slot(long sequence) {
+            return buffer.get(sequence);
+        }
+
+        @Override
+        void publish(long sequence) {
+            buffer.publish(sequence);
+        }
+
+        @Override
+        long tryAcquire() {
+            return buffer.tryAcquire();
+        }
+
+        @Override
+        void release(long sequence) {
+            buffer.release(sequence);
+        }
+
+        @Override
+        int size() {
+            return buffer.size();
+        }
+
+        @Override
+        boolean isRetired() {
+            return !queued && !owner.isAlive() && buffer.isEmpty();
+        }
+    }
+
+    /**
+     * The buffer shared by all virtual threads.
+     */
+    private static final class SharedLane extends Lane {
+
+        private final RingBuffer<LogEvent> buffer;
+
+        SharedLane(RingBuffer<LogEvent> buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        long tryClaim() {
+            return buffer.tryClaim();
+        }
+
+        @Override
+        LogEvent slot(long sequence) {
+            return buffer.get(sequence);
+        }
+
+        @Override
+        void publish(long sequence) {
+            buffer.publish(sequence);
+        }
+
+        @Override
+        long tryAcquire() {
+            return buffer.tryAcquire();
+        }
+
+        @Override
+        void release(long sequence) {
+            buffer.release(sequence);
+        }
+
+        @Override
+        int size() {
+            return buffer.size();
+        }
+
+        @Override
+        boolean isRetired() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+
+/**
+ * Decides how many entries a {@link RateLimitingLogger} lets through per call site.
+ * <p>
+ * Entries are grouped by their message template, {@link me.a8kj.logging.LogContext} and
+ * {@link me.a8kj.logging.LogKind}. Each group has a token bucket that allows a burst of
+ * entries and then a steady rate; entries beyond it are suppressed. Optionally, an entry
+ * whose formatted message equals the previous entry of its group is suppressed as well.
+ * Suppressed entries are reported by one summary line per group and interval.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * RateLimitPolicy policy = RateLimitPolicy.perKey(10, 100)
+ *         .withDuplicateCollapsing(true)
+ *         .withSummaryInterval(10_000);
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class RateLimitPolicy {
+
+    /**
+     * The number of groups tracked when no limit is given.
+     */
+    public static final int DEFAULT_MAX_KEYS = 4096;
+
+    /**
+     * The summary interval used when none is given, in milliseconds.
+     */
+    public static final long DEFAULT_SUMMARY_INTERVAL_MILLIS = 5000;
+
+    /**
+     * The steady number of entries per second let through per group.
+     */
+    private final double permitsPerSecond;
+    /**
+     * The number of entries a group may emit at once before the rate applies.
+     */
+    private final int burst;
+    /**
+     * Whether an entry repeating the previous message of its group is suppressed.
+     */
+    private final boolean collapseDuplicates;
+    /**
+     * How often the summaries of suppressed entries are written, in milliseconds.
+     */
+    private final long summaryIntervalMillis;
+    /**
+     * The number of groups tracked; the least recently used ones are evicted beyond it.
+     */
+    private final int maxKeys;
+
+    private RateLimitPolicy(double permitsPerSecond, int burst, boolean collapseDuplicates,
+                            long summaryIntervalMillis, int maxKeys) {
+        if (!(permitsPerSecond > 0)) throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        if (burst <= 0) throw new IllegalArgumentException("burst must be positive: " + burst);
+        if (summaryIntervalMillis <= 0) throw new IllegalArgumentException("summaryIntervalMillis must be positive: " + summaryIntervalMillis);
+        if (maxKeys <= 0) throw new IllegalArgumentException("maxKeys must be positive: " + maxKeys);
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.collapseDuplicates = collapseDuplicates;
+        this.summaryIntervalMillis = summaryIntervalMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Limits every group to a steady rate after an initial burst. Duplicates are not
+     * collapsed, summaries are written every five seconds and 4096 groups are tracked.
+     *
+     * @param permitsPerSecond The steady number of entries per second per group.
+     * @param burst            The number of entries a quiet group may emit at once.
+     * @return A rate limit policy.
+     */
+    public static RateLimitPolicy perKey(double permitsPerSecond, int burst) {
+        return new RateLimitPolicy(permitsPerSecond, burst, false, DEFAULT_SUMMARY_INTERVAL_MILLIS, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param collapseDuplicates True to suppress entries that repeat the previous message of their group.
+     * @return A copy of this policy with duplicate collapsing switched on or off.
+     */
+    public RateLimitPolicy withDuplicateCollapsing(boolean collapseDuplicates) {
+        return new RateLimitPolicy(permitsPerSecond, burst, collapseDuplicates, summaryIntervalMillis, maxKeys);
+    }
+
+    /**
+     * @param summaryIntervalMillis How often summaries are written, in milliseconds.
+     * @return A copy of this policy with another summary interval.
+     */
+    public RateLimitPolicy withSummaryInterval(long summaryIntervalMillis) {
+        return new RateLimitPolicy(permitsPerSecond, burst, collapseDuplicates, summaryIntervalMillis, maxKeys);
+    }
+
+    /**
+     * @param maxKeys The number of groups tracked before the least recently used are evicted.
+     * @return A copy of this policy with another limit.
+     */
+    public RateLimitPolicy withMaxKeys(int maxKeys) {
+        return new RateLimitPolicy(permitsPerSecond, burst, collapseDuplicates, summaryIntervalMillis, maxKeys);
+    }
+}
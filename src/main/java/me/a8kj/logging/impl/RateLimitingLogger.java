@@ -0,0 +1,326 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.LogScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Logger} decorator that suppresses bursts of similar entries before they
+ * reach the wrapped logger.
+ * <p>
+ * Entries are grouped by message template, {@link LogContext} and {@link LogKind}, so
+ * one call site logging in a loop forms one group no matter which arguments it passes.
+ * Every group has a token bucket configured by the {@link RateLimitPolicy}; entries
+ * beyond its rate are dropped, and with duplicate collapsing an entry whose formatted
+ * message repeats the previous one of its group is dropped as well. At every summary
+ * interval, each group that dropped entries emits one line of the same kind and
+ * context: {@code Suppressed 1234 similar messages: <template>}.
+ * </p>
+ * <p>
+ * The groups live in a fixed number of independently locked stripes, each a small
+ * open-addressing table, so concurrent call sites rarely contend and the memory is
+ * bounded: when a stripe is full, its least recently used group is evicted after
+ * its pending summary has been written.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * CompositeLogger sinks = new CompositeLogger();
+ * sinks.addLogger(new ConsoleLogger());
+ * sinks.addLogger(new FileLogger("logs.txt"));
+ * Log.addDestination(new RateLimitingLogger(sinks, RateLimitPolicy.perKey(10, 100).withDuplicateCollapsing(true)));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class RateLimitingLogger implements Logger, AutoCloseable {
+
+    private static final int STRIPES = 16;
+    private static final int PROBES = 8;
+    private static final int MAX_COMPARED_MESSAGE = 4096;
+    private static final String SUMMARY_TEMPLATE = "Suppressed %d similar messages: %s";
+
+    private final Logger delegate;
+    private final RateLimitPolicy policy;
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ThreadLocal<StringBuilder> messages = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private final LongAdder suppressed = new LongAdder();
+    private final SinkMetrics metrics;
+    private final ScheduledFuture<?> summaryTask;
+
+    /**
+     * Creates a rate limiting logger and schedules its summaries.
+     *
+     * @param delegate The {@link Logger} that receives the entries let through and the summaries.
+     * @param policy   The {@link RateLimitPolicy} defining rate, burst and duplicate handling.
+     * @throws NullPointerException if the delegate or policy is null.
+     */
+    public RateLimitingLogger(Logger delegate, RateLimitPolicy policy) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.metrics = LogMetrics.sink(getName());
+        this.emissionNanos = Math.max(1, (long) (1_000_000_000L / policy.getPermitsPerSecond()));
+        this.toleranceNanos = emissionNanos * (policy.getBurst() - 1);
+
+        int perStripe = Integer.highestOneBit(Math.max(PROBES, (policy.getMaxKeys() + STRIPES - 1) / STRIPES) * 2 - 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.summaryTask = LogScheduler.scheduleAtFixedRate(this::writeSummaries, policy.getSummaryIntervalMillis());
+    }
+
+    /**
+     * Filters a plain message; the message text itself is its template.
+     *
+     * @param message The message content to be logged.
+     * @param kind    The {@link LogKind} severity level.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Forwards the event unless its group exceeded its rate or, with duplicate
+     * collapsing, it repeats the previous message of its group.
+     *
+     * @param event The {@link LogEvent} to filter.
+     */
+    @Override
+    public void log(LogEvent event) {
+        StringBuilder message = null;
+        if (policy.isCollapseDuplicates()) {
+            message = messages.get();
+            message.setLength(0);
+            event.formatMessageTo(message);
+            if (message.length() > MAX_COMPARED_MESSAGE) {
+                message.setLength(0);
+                message.trimToSize();
+                message = null;
+            }
+        }
+
+        String template = event.getTemplate();
+        LogContext context = event.getContext();
+        LogKind kind = event.getKind();
+        int hash = hash(template, context, kind);
+        Stripe stripe = stripes[hash & (STRIPES - 1)];
+        long now = System.nanoTime();
+
+        boolean admitted;
+        LogEvent evicted;
+        synchronized (stripe) {
+            State state = stripe.find(hash >>> 4, template, context, kind, now);
+            evicted = stripe.evicted;
+            stripe.evicted = null;
+            admitted = state.admit(now, message);
+        }
+
+        if (evicted != null) {
+            delegate.log(evicted);
+        }
+        if (admitted) {
+            delegate.log(event);
+        } else {
+            suppressed.increment();
+            if (LogMetrics.isEnabled()) {
+                metrics.addSuppressed();
+            }
+        }
+    }
+
+    /**
+     * Delegates to the wrapped logger so that filtered entries are rejected
+     * before they are formatted.
+     *
+     * @param kind    The {@link LogKind} of the candidate entry.
+     * @param context The {@link LogContext} of the candidate entry.
+     * @return {@code true} if the wrapped logger would write the entry.
+     */
+    @Override
+    public boolean isEnabled(LogKind kind, LogContext context) {
+        return delegate.isEnabled(kind, context);
+    }
+
+    /**
+     * Flushes the wrapped logger. Pending summaries are written at the next interval.
+     */
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * @return {@code "RateLimitingLogger(<delegate name>)"}.
+     */
+    @Override
+    public String getName() {
+        return "RateLimitingLogger(" + delegate.getName() + ")";
+    }
+
+    /**
+     * Returns the number of entries dropped since this logger was created.
+     *
+     * @return The total count of suppressed entries.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Stops the summary timer, writes the pending summaries and flushes the wrapped
+     * logger. The wrapped logger itself is not closed.
+     */
+    @Override
+    public void close() {
+        summaryTask.cancel(false);
+        writeSummaries();
+        delegate.flush();
+    }
+
+    private void writeSummaries() {
+        List<LogEvent> summaries = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (State state : stripe.slots) {
+                    if (state != null && state.suppressed > 0) {
+                        summaries.add(state.summary());
+                    }
+                }
+            }
+        }
+        for (LogEvent summary : summaries) {
+            delegate.log(summary);
+        }
+    }
+
+    private static int hash(String template, LogContext context, LogKind kind) {
+        int hash = (template.hashCode() * 31 + Objects.hashCode(context)) * 31 + kind.ordinal();
+        hash *= 0x9E3779B1;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * One independently locked part of the group table.
+     */
+    private final class Stripe {
+
+        private final State[] slots;
+        private final int mask;
+        /**
+         * The summary of a group evicted by the last {@link #find} call, if it had any.
+         */
+        private LogEvent evicted;
+
+        private Stripe(int capacity) {
+            this.slots = new State[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Returns the state of a group, creating it or reusing the least recently
+         * used state within the probe window.
+         */
+        private State find(int hash, String template, LogContext context, LogKind kind, long now) {
+            int probes = Math.min(PROBES, slots.length);
+            int victim = -1;
+            for (int i = 0; i < probes; i++) {
+                int index = (hash + i) & mask;
+                State state = slots[index];
+                if (state == null) {
+                    state = new State();
+                    slots[index] = state;
+                    state.reset(hash, template, context, kind, now);
+                    return state;
+                }
+                if (state.hash == hash && state.kind == kind
+                        && (state.template == template || state.template.equals(template))
+                        && Objects.equals(state.context, context)) {
+                    state.lastSeen = now;
+                    return state;
+                }
+                if (victim < 0 || state.lastSeen - slots[victim].lastSeen < 0) {
+                    victim = index;
+                }
+            }
+            State state = slots[victim];
+            if (state.suppressed > 0) {
+                evicted = state.summary();
+            }
+            state.reset(hash, template, context, kind, now);
+            return state;
+        }
+    }
+
+    /**
+     * The token bucket and duplicate tracking of one group.
+     */
+    private final class State {
+
+        private int hash;
+        private String template;
+        private LogContext context;
+        private LogKind kind;
+        /**
+         * The theoretical arrival time of the next entry; the bucket is full when it
+         * lies at least the tolerance in the past.
+         */
+        private long nextArrival;
+        private long lastSeen;
+        private long suppressed;
+        private StringBuilder lastMessage;
+        private boolean hasLastMessage;
+
+        private void reset(int hash, String template, LogContext context, LogKind kind, long now) {
+            this.hash = hash;
+            this.template = template;
+            this.context = context;
+            this.kind = kind;
+            this.nextArrival = now;
+            this.lastSeen = now;
+            this.suppressed = 0;
+            this.hasLastMessage = false;
+        }
+
+        private boolean admit(long now, StringBuilder message) {
+            if (message != null && hasLastMessage
+                    && lastMessage.length() == message.length() && lastMessage.compareTo(message) == 0) {
+                suppressed++;
+                return false;
+            }
+            if (nextArrival - toleranceNanos - now > 0) {
+                suppressed++;
+                return false;
+            }
+            nextArrival = (nextArrival - now < 0 ? now : nextArrival) + emissionNanos;
+
+            hasLastMessage = message != null;
+            if (message != null) {
+                if (lastMessage == null) {
+                    lastMessage = new StringBuilder(message.length());
+                }
+                lastMessage.setLength(0);
+                lastMessage.append(message);
+            }
+            return true;
+        }
+
+        private LogEvent summary() {
+            LogEvent summary = new LogEvent(kind, context, SUMMARY_TEMPLATE, new Object[]{suppressed, template}, null);
+            suppressed = 0;
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.metrics.LogMetrics;
+import me.a8kj.logging.metrics.SinkMetrics;
+import me.a8kj.logging.util.AnsiUtils;
+import me.a8kj.logging.util.LogScheduler;
+import me.a8kj.logging.util.TextEncoder;
+import me.a8kj.logging.util.TimestampFormatter;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A file logger that rotates its file by size and by time.
+ * <p>
+ * Lines are written to the active file using the same text layout as {@link FileLogger}.
+ * Before a line would make the file larger than the {@link RollingPolicy}'s size limit,
+ * or once the clock passes an hourly or daily boundary, the active file is closed,
+ * renamed to {@code <fileName>.<yyyyMMdd-HHmmss>} and a fresh file is opened in its place.
+ * The stamp is the start of the hour or day the file covers, or, without time-based
+ * rotation, the time its first line was written.
+ * Logging threads only wait for that rename and reopen; compressing the rotated file
+ * with gzip and deleting archives beyond the retention limit happen on a background thread.
+ * </p>
+ * <p>
+ * An existing file is appended to. If it was last written before the current time
+ * period began, it is rotated with the first new line.
+ * </p>
+ * <p>
+ * If the active file cannot be renamed, or the fresh file cannot be created, lines keep
+ * going to the current file and the rotation is tried again at the next boundary:
+ * the next time period, or once the file has grown by another size limit.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * RollingPolicy policy = RollingPolicy.daily().withMaxFileSize(50 * 1024 * 1024).withMaxFiles(7);
+ * try (RollingFileLogger logger = new RollingFileLogger("logs.txt", policy)) {
+ *     Log.addDestination(logger);
+ *     Log.info("Application started");
+ * }
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public class RollingFileLogger implements Logger, AutoCloseable {
+
+    private static final int MAX_RETAINED_LINE = 16384;
+    private static final DateTimeFormatter ARCHIVE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    private static final String ARCHIVE_SUFFIX = "\\.\\d{8}-\\d{6}(-\\d+)?(\\.gz)?";
+
+    private static final ExecutorService archiver = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "SimpleLog-RollingFileLogger-Archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final RollingPolicy rollingPolicy;
+    private final FlushPolicy flushPolicy;
+    private final TimestampFormatter timestamps;
+    private final TextEncoder encoder = new TextEncoder(StandardCharsets.UTF_8);
+    private final ScheduledFuture<?> flushTask;
+    private final Thread shutdownHook;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SinkMetrics metrics;
+
+    private OutputStream out;
+    private long size;
+    private long sizeAtFailedRoll;
+    private long nextRollAt;
+    private long startedAt;
+    private int pendingRecords;
+    private StringBuilder line = new StringBuilder(256);
+    private Future<?> lastArchive;
+    private String lastStamp;
+    private int stampSequence;
+
+    /**
+     * Opens a rolling logger that flushes every line.
+     *
+     * @param fileName      The path to the active log file; appended to if it exists.
+     * @param rollingPolicy The {@link RollingPolicy} deciding when the file is rotated.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public RollingFileLogger(String fileName, RollingPolicy rollingPolicy) throws IOException {
+        this(fileName, rollingPolicy, FlushPolicy.always());
+    }
+
+    /**
+     * Opens a rolling logger with a custom flush policy.
+     *
+     * @param fileName      The path to the active log file; appended to if it exists.
+     * @param rollingPolicy The {@link RollingPolicy} deciding when the file is rotated.
+     * @param flushPolicy   The {@link FlushPolicy} deciding when lines reach the file.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public RollingFileLogger(String fileName, RollingPolicy rollingPolicy, FlushPolicy flushPolicy) throws IOException {
+        this(fileName, rollingPolicy, flushPolicy, TimestampFormatter.ISO_LOCAL_MILLIS);
+    }
+
+    /**
+     * Opens a rolling logger with a custom flush policy and timestamp format.
+     *
+     * @param fileName      The path to the active log file; appended to if it exists.
+     * @param rollingPolicy The {@link RollingPolicy} deciding when the file is rotated.
+     * @param flushPolicy   The {@link FlushPolicy} deciding when lines reach the file.
+     * @param timestamps    The {@link TimestampFormatter} rendering the leading timestamp of each line.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    public RollingFileLogger(String fileName, RollingPolicy rollingPolicy, FlushPolicy flushPolicy,
+                             TimestampFormatter timestamps) throws IOException {
+        this.file = Path.of(fileName).toAbsolutePath();
+        this.rollingPolicy = rollingPolicy;
+        this.flushPolicy = flushPolicy;
+        this.timestamps = timestamps;
+        this.metrics = LogMetrics.sink(getName());
+
+        long lastWrite = System.currentTimeMillis();
+        if (Files.exists(file)) {
+            size = Files.size(file);
+            if (size > 0) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                lastWrite = attributes.lastModifiedTime().toMillis();
+                startedAt = Math.min(attributes.creationTime().toMillis(), lastWrite);
+            }
+        }
+        this.nextRollAt = rollingPolicy.nextBoundary(lastWrite);
+        this.out = open();
+
+        this.flushTask = flushPolicy.getMaxDelayMillis() > 0
+                ? LogScheduler.scheduleAtFixedRate(this::flush, flushPolicy.getMaxDelayMillis())
+                : null;
+        this.shutdownHook = new Thread(this::flush, "SimpleLog-RollingFileLogger-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Writes a plain message to the active file.
+     *
+     * @param message The message to log (may contain ANSI codes).
+     * @param kind    The severity level of the log entry.
+     */
+    @Override
+    public void log(String message, LogKind kind) {
+        log(LogEvent.of(message, kind));
+    }
+
+    /**
+     * Writes an event to the active file, rotating it first if the line would
+     * exceed the size limit or the event belongs to a new time period.
+     * ANSI color codes are stripped if present.
+     *
+     * @param event The {@link LogEvent} to persist.
+     */
+    @Override
+    public void log(LogEvent event) {
+        lock.lock();
+        try {
+            if (out == null) return;
+            line.setLength(0);
+            FileLayout.appendLine(line, event, timestamps);
+            AnsiUtils.stripColorsInPlace(line);
+            ByteBuffer bytes = encoder.encode(line);
+            int length = bytes.remaining();
+
+            long maxSize = rollingPolicy.getMaxFileSize();
+            long grown = size - sizeAtFailedRoll;
+            if (size > 0 && (event.getTimestamp() >= nextRollAt || (maxSize > 0 && grown > 0 && grown + length > maxSize))) {
+                roll(event.getTimestamp());
+            } else if (event.getTimestamp() >= nextRollAt) {
+                nextRollAt = rollingPolicy.nextBoundary(event.getTimestamp());
+            }
+            if (size == 0) {
+                startedAt = event.getTimestamp();
+            }
+
+            out.write(bytes.array(), bytes.arrayOffset(), length);
+            size += length;
+            if (LogMetrics.isEnabled()) {
+                metrics.addBytes(length);
+            }
+
+            if (++pendingRecords >= flushPolicy.getMaxRecords() || flushPolicy.isImmediate(event.getKind())) {
+                out.flush();
+                pendingRecords = 0;
+            }
+
+            if (line.capacity() > MAX_RETAINED_LINE) {
+                line = new StringBuilder(256);
+            }
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code "RollingFileLogger[<file name>]"}.
+     */
+    @Override
+    public String getName() {
+        return "RollingFileLogger[" + file + "]";
+    }
+
+    /**
+     * Pushes every buffered line to the active file, regardless of the flush policy.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            if (out == null || pendingRecords == 0) return;
+            out.flush();
+            pendingRecords = 0;
+        } catch (IOException ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the active file, then waits for the rotated files that
+     * are still being compressed.
+     *
+     * @throws Exception If an I/O error occurs while closing the file.
+     */
+    @Override
+    public void close() throws Exception {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down; the hook flushes the file.
+        }
+        Future<?> archive;
+        lock.lock();
+        try {
+            if (out == null) return;
+            out.close();
+            out = null;
+            archive = lastArchive;
+        } finally {
+            lock.unlock();
+        }
+        if (archive != null) {
+            try {
+                archive.get();
+            } catch (ExecutionException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Swaps the active file for a new one and hands the old one to the archiver.
+     * Only the close, rename and reopen happen on the logging thread.
+     * <p>
+     * A failed rename or reopen leaves the original file active; the next boundary
+     * tries again. Only if the original file cannot be reopened either is the
+     * exception thrown, and the lines up to the next successful rotation are lost.
+     * </p>
+     */
+    private void roll(long timestamp) throws IOException {
+        pendingRecords = 0;
+        // Name the archive after the period it covers, not after the line that closed it.
+        long periodStart = nextRollAt == Long.MAX_VALUE ? startedAt : rollingPolicy.periodStart(nextRollAt - 1);
+        nextRollAt = rollingPolicy.nextBoundary(timestamp);
+        Path rotated = archivePath(periodStart);
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // The stream is closed either way; whatever it still buffered is gone.
+        }
+
+        try {
+            Files.move(file, rotated, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            sizeAtFailedRoll = size;
+            out = open();
+            return;
+        }
+        try {
+            out = open();
+        } catch (IOException e) {
+            // No new file can be created here; put the old one back and keep using it.
+            Files.move(rotated, file, StandardCopyOption.ATOMIC_MOVE);
+            sizeAtFailedRoll = size;
+            out = open();
+            return;
+        }
+        size = 0;
+        sizeAtFailedRoll = 0;
+        lastArchive = archiver.submit(() -> archive(rotated));
+    }
+
+    private OutputStream open() throws IOException {
+        return new BufferedOutputStream(new FileOutputStream(file.toFile(), true), flushPolicy.getBufferSize());
+    }
+
+    private Path archivePath(long timestamp) {
+        String stamp = file.getFileName() + "." + ARCHIVE_FORMAT.format(Instant.ofEpochMilli(timestamp));
+        // Several rotations within one second get increasing suffixes, even after pruning.
+        stampSequence = stamp.equals(lastStamp) ? stampSequence + 1 : 0;
+        lastStamp = stamp;
+        for (; ; stampSequence++) {
+            Path path = file.resolveSibling(stampSequence == 0 ? stamp : stamp + "-" + stampSequence);
+            if (!Files.exists(path) && !Files.exists(path.resolveSibling(path.getFileName() + ".gz"))) {
+                return path;
+            }
+        }
+    }
+
+    /**
+     * Runs on the archiver thread: compresses a rotated file if requested and
+     * deletes the oldest archives beyond the retention limit.
+     */
+    private void archive(Path rotated) {
+        if (rollingPolicy.isCompress()) {
+            Path target = rotated.resolveSibling(rotated.getFileName() + ".gz");
+            Path partial = rotated.resolveSibling(rotated.getFileName() + ".gz.tmp");
+            try (InputStream in = Files.newInputStream(rotated);
+                 OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(partial), 65536)) {
+                in.transferTo(gzip);
+            } catch (IOException e) {
+                try {
+                    Files.deleteIfExists(partial);
+                } catch (IOException ignored) {
+                }
+                return;
+            }
+            try {
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(rotated);
+            } catch (IOException ignored) {
+            }
+        }
+        if (rollingPolicy.getMaxFiles() > 0) {
+            prune();
+        }
+    }
+
+    private void prune() {
+        // Only rotated files; other siblings such as an index sidecar or backups are left alone.
+        Pattern archive = Pattern.compile(Pattern.quote(file.getFileName().toString()) + ARCHIVE_SUFFIX);
+        List<Path> archives = new ArrayList<>();
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                if (archive.matcher(path.getFileName().toString()).matches()) {
+                    archives.add(path);
+                }
+            }
+        } catch (IOException ignored) {
+            return;
+        }
+
+        archives.sort(Comparator.comparingLong(RollingFileLogger::lastModified)
+                .thenComparing(path -> path.getFileName().toString()));
+        for (int i = 0; i < archives.size() - rollingPolicy.getMaxFiles(); i++) {
+            try {
+                Files.deleteIfExists(archives.get(i));
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
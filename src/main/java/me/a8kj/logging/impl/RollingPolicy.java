@@ -0,0 +1,149 @@
+package me.a8kj.logging.impl;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Decides when a {@link RollingFileLogger} starts a new file and how many
+ * rotated files it keeps.
+ * <p>
+ * A file is rotated when it would grow beyond a maximum size, when the clock
+ * crosses an hourly or daily boundary, or both. Rotated files can be gzip-compressed
+ * in the background, and only the newest {@code maxFiles} of them are retained.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * RollingPolicy policy = RollingPolicy.daily()
+ *         .withMaxFileSize(100 * 1024 * 1024)
+ *         .withMaxFiles(14);
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class RollingPolicy {
+
+    /**
+     * The time boundaries at which a file is rotated.
+     */
+    public enum Interval {
+        NONE, HOURLY, DAILY
+    }
+
+    /**
+     * The size in bytes a file may reach before it is rotated; zero disables size-based rotation.
+     */
+    private final long maxFileSize;
+    /**
+     * The time boundary at which a file is rotated.
+     */
+    private final Interval interval;
+    /**
+     * The number of rotated files to keep; zero keeps all of them.
+     */
+    private final int maxFiles;
+    /**
+     * Whether rotated files are gzip-compressed in the background.
+     */
+    private final boolean compress;
+
+    private RollingPolicy(long maxFileSize, Interval interval, int maxFiles, boolean compress) {
+        if (maxFileSize < 0) throw new IllegalArgumentException("maxFileSize must not be negative: " + maxFileSize);
+        if (maxFiles < 0) throw new IllegalArgumentException("maxFiles must not be negative: " + maxFiles);
+        this.maxFileSize = maxFileSize;
+        this.interval = interval;
+        this.maxFiles = maxFiles;
+        this.compress = compress;
+    }
+
+    /**
+     * Rotates files that would grow beyond the given size. Rotated files are
+     * compressed and all of them are kept.
+     *
+     * @param maxFileSize The maximum file size in bytes.
+     * @return A size-based rolling policy.
+     */
+    public static RollingPolicy bySize(long maxFileSize) {
+        return new RollingPolicy(maxFileSize, Interval.NONE, 0, true);
+    }
+
+    /**
+     * Rotates files at midnight. Rotated files are compressed and all of them are kept.
+     *
+     * @return A daily rolling policy.
+     */
+    public static RollingPolicy daily() {
+        return new RollingPolicy(0, Interval.DAILY, 0, true);
+    }
+
+    /**
+     * Rotates files at the start of every hour. Rotated files are compressed and
+     * all of them are kept.
+     *
+     * @return An hourly rolling policy.
+     */
+    public static RollingPolicy hourly() {
+        return new RollingPolicy(0, Interval.HOURLY, 0, true);
+    }
+
+    /**
+     * @param maxFileSize The maximum file size in bytes; zero disables size-based rotation.
+     * @return A copy of this policy with another size limit.
+     */
+    public RollingPolicy withMaxFileSize(long maxFileSize) {
+        return new RollingPolicy(maxFileSize, interval, maxFiles, compress);
+    }
+
+    /**
+     * @param maxFiles The number of rotated files to keep; zero keeps all of them.
+     * @return A copy of this policy with another retention limit.
+     */
+    public RollingPolicy withMaxFiles(int maxFiles) {
+        return new RollingPolicy(maxFileSize, interval, maxFiles, compress);
+    }
+
+    /**
+     * @param compress Whether rotated files are gzip-compressed.
+     * @return A copy of this policy with compression switched on or off.
+     */
+    public RollingPolicy withCompression(boolean compress) {
+        return new RollingPolicy(maxFileSize, interval, maxFiles, compress);
+    }
+
+    /**
+     * Computes the start of the time period containing the given instant.
+     *
+     * @param epochMillis The reference time in milliseconds since the epoch.
+     * @return The start of its hour or day in milliseconds since the epoch, or the
+     * instant itself if this policy does not rotate by time.
+     */
+    public long periodStart(long epochMillis) {
+        if (interval == Interval.NONE) return epochMillis;
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        LocalDateTime start = time.truncatedTo(interval == Interval.HOURLY ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+        return start.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Computes the first time boundary after the given instant.
+     *
+     * @param epochMillis The reference time in milliseconds since the epoch.
+     * @return The next boundary in milliseconds since the epoch, or {@link Long#MAX_VALUE}
+     * if this policy does not rotate by time.
+     */
+    public long nextBoundary(long epochMillis) {
+        if (interval == Interval.NONE) return Long.MAX_VALUE;
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+        LocalDateTime next = interval == Interval.HOURLY
+                ? time.truncatedTo(ChronoUnit.HOURS).plusHours(1)
+                : time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        return next.atZone(zone).toInstant().toEpochMilli();
+    }
+}
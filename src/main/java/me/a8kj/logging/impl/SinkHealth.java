@@ -0,0 +1,23 @@
+package me.a8kj.logging.impl;
+
+/**
+ * The health of an isolated destination, as reported by {@link IsolatedLogger#getHealth()}.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public enum SinkHealth {
+
+    /**
+     * The destination keeps up with its queue and has not dropped entries recently.
+     */
+    HEALTHY,
+
+    /**
+     * The destination has made no progress on a non-empty queue for longer than the
+     * stall threshold, or entries were dropped within it. Callers no longer wait for
+     * a degraded destination, even under {@link OverflowPolicy#BLOCK}
+     * or {@link OverflowPolicy#CALLER_RUNS}.
+     */
+    DEGRADED
+
+}
@@ -0,0 +1,86 @@
+package me.a8kj.logging.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram with power-of-two buckets.
+ * <p>
+ * Recording a value increments one striped counter per bucket, the total and the
+ * maximum, so concurrent writers do not contend on a shared cache line. Percentiles
+ * are reported as the upper bound of the bucket they fall into, which is accurate
+ * to within a factor of two.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 42;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one measurement.
+     *
+     * @param nanos The measured duration in nanoseconds; negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Captures the current state. Concurrent recordings may be partially included.
+     *
+     * @return The summary statistics.
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            n += counts[i];
+        }
+        return new LatencySnapshot(n, total.sum(), max.get(),
+                percentile(counts, n, 0.50), percentile(counts, n, 0.90),
+                percentile(counts, n, 0.99), percentile(counts, n, 0.999));
+    }
+
+    /**
+     * Clears every bucket and statistic.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+
+    private static long percentile(long[] counts, long n, double quantile) {
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(n * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
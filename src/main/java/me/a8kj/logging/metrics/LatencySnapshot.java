@@ -0,0 +1,25 @@
+package me.a8kj.logging.metrics;
+
+/**
+ * Summary statistics of a {@link LatencyHistogram}. Percentiles are the upper bounds
+ * of their power-of-two buckets.
+ *
+ * @param count      The number of measurements.
+ * @param totalNanos The sum of all measurements in nanoseconds.
+ * @param maxNanos   The largest measurement in nanoseconds.
+ * @param p50Nanos   The median in nanoseconds.
+ * @param p90Nanos   The 90th percentile in nanoseconds.
+ * @param p99Nanos   The 99th percentile in nanoseconds.
+ * @param p999Nanos  The 99.9th percentile in nanoseconds.
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public record LatencySnapshot(long count, long totalNanos, long maxNanos,
+                              long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+
+    /**
+     * @return The average measurement in nanoseconds, or zero without measurements.
+     */
+    public long meanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+}
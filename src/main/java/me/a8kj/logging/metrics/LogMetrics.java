@@ -0,0 +1,320 @@
+package me.a8kj.logging.metrics;
+
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.LogSampling;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Opt-in metrics of the logging pipeline.
+ * <p>
+ * While disabled (the default) every instrumented call site only reads one volatile
+ * flag. Once {@link #setEnabled(boolean) enabled}, {@link me.a8kj.logging.LogBuilder}
+ * counts the entries it sends per kind and per context and times {@code send()}, the
+ * {@link me.a8kj.logging.impl.CompositeLogger} times every destination, and the
+ * destinations count the bytes they write and the entries they drop, suppress or
+ * queue. All counters are striped {@link LongAdder}s, so recording does not serialize
+ * logging threads.
+ * </p>
+ * <p>
+ * The values are read through {@link #snapshot()} or, after {@link #registerMBean()},
+ * through JMX. The number of distinct context names tracked is bounded; further names
+ * are counted under {@value #OTHER_CONTEXTS}. Destination metrics are only held weakly
+ * and disappear once no destination uses them anymore.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * LogMetrics.setEnabled(true);
+ * LogMetrics.registerMBean();
+ * MetricsSnapshot snapshot = LogMetrics.snapshot();
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LogMetrics {
+
+    /**
+     * The JMX object name of the metrics MBean.
+     */
+    public static final String OBJECT_NAME = "me.a8kj.logging:type=LogMetrics";
+
+    /**
+     * The maximum number of context names counted separately.
+     */
+    public static final int MAX_CONTEXTS = 1024;
+
+    /**
+     * The name under which contexts beyond {@link #MAX_CONTEXTS} are counted.
+     */
+    public static final String OTHER_CONTEXTS = "(other)";
+
+    private static final String NO_CONTEXT = "-";
+    private static final LogKind[] KINDS = LogKind.values();
+    private static final LongAdder[] eventsByKind = new LongAdder[KINDS.length];
+    private static final Map<String, LongAdder> eventsByContext = new ConcurrentHashMap<>();
+    private static final Map<String, SinkReference> sinks = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<SinkMetrics> unusedSinks = new ReferenceQueue<>();
+    private static final LatencyHistogram sendLatency = new LatencyHistogram();
+
+    private static volatile boolean enabled;
+
+    static {
+        for (int i = 0; i < eventsByKind.length; i++) {
+            eventsByKind[i] = new LongAdder();
+        }
+    }
+
+    private LogMetrics() {
+    }
+
+    /**
+     * @return {@code true} if metrics are being recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops recording. Counters keep their values while disabled.
+     *
+     * @param enabled Whether metrics should be recorded.
+     */
+    public static void setEnabled(boolean enabled) {
+        LogMetrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the metrics of a destination, creating them on first use. Destinations
+     * with the same name share one instance; it is kept as long as one of them holds it.
+     *
+     * @param name The destination name, see {@link me.a8kj.logging.Logger#getName()}.
+     * @return The metrics of the destination.
+     */
+    public static SinkMetrics sink(String name) {
+        expungeUnusedSinks();
+        while (true) {
+            SinkReference reference = sinks.get(name);
+            SinkMetrics metrics = reference == null ? null : reference.get();
+            if (metrics != null) return metrics;
+
+            SinkMetrics created = new SinkMetrics(name);
+            SinkReference replacement = new SinkReference(created, unusedSinks);
+            boolean registered = reference == null
+                    ? sinks.putIfAbsent(name, replacement) == null
+                    : sinks.replace(name, reference, replacement);
+            if (registered) return created;
+        }
+    }
+
+    /**
+     * Records one entry accepted by {@link me.a8kj.logging.LogBuilder#send()}.
+     *
+     * @param kind    The {@link LogKind} of the entry.
+     * @param context The {@link LogContext} of the entry, or {@code null} for a plain message.
+     * @param nanos   The duration of the send in nanoseconds.
+     */
+    public static void recordSend(LogKind kind, LogContext context, long nanos) {
+        eventsByKind[kind.ordinal()].increment();
+        contextCounter(context == null ? NO_CONTEXT : context.name()).increment();
+        sendLatency.record(nanos);
+    }
+
+    /**
+     * Captures the current values, including the sampling counters of
+     * {@link LogSampling}.
+     *
+     * @return An immutable snapshot.
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<LogKind, Long> byKind = new EnumMap<>(LogKind.class);
+        Map<LogKind, Long> sampledOut = new EnumMap<>(LogKind.class);
+        for (LogKind kind : KINDS) {
+            byKind.put(kind, eventsByKind[kind.ordinal()].sum());
+            sampledOut.put(kind, LogSampling.getSampledOutCount(kind));
+        }
+        Map<String, Long> byContext = new TreeMap<>();
+        eventsByContext.forEach((name, counter) -> byContext.put(name, counter.sum()));
+        Map<String, SinkSnapshot> sinkSnapshots = new TreeMap<>();
+        forEachSink(metrics -> sinkSnapshots.put(metrics.getName(), metrics.snapshot()));
+        return new MetricsSnapshot(enabled, byKind, byContext, sampledOut,
+                sendLatency.snapshot(), sinkSnapshots);
+    }
+
+    /**
+     * Clears every counter and histogram. Destinations and their gauges stay registered;
+     * the sampling counters are not affected.
+     */
+    public static void reset() {
+        for (LongAdder counter : eventsByKind) {
+            counter.reset();
+        }
+        eventsByContext.clear();
+        sendLatency.reset();
+        forEachSink(SinkMetrics::reset);
+    }
+
+    /**
+     * Registers the {@link LogMetricsMXBean} with the platform MBean server under
+     * {@link #OBJECT_NAME}. Calling it again has no effect.
+     *
+     * @throws IllegalStateException If the MBean cannot be registered.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Removes the MBean registered by {@link #registerMBean()}, if any.
+     */
+    public static synchronized void unregisterMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch (JMException ignored) {
+        }
+    }
+
+    private static void forEachSink(Consumer<SinkMetrics> action) {
+        expungeUnusedSinks();
+        for (SinkReference reference : sinks.values()) {
+            SinkMetrics metrics = reference.get();
+            if (metrics != null) action.accept(metrics);
+        }
+    }
+
+    private static void expungeUnusedSinks() {
+        Reference<? extends SinkMetrics> reference;
+        while ((reference = unusedSinks.poll()) != null) {
+            SinkReference unused = (SinkReference) reference;
+            sinks.remove(unused.name, unused);
+        }
+    }
+
+    private static LongAdder contextCounter(String name) {
+        LongAdder counter = eventsByContext.get(name);
+        if (counter != null) return counter;
+        if (eventsByContext.size() >= MAX_CONTEXTS) {
+            return eventsByContext.computeIfAbsent(OTHER_CONTEXTS, key -> new LongAdder());
+        }
+        return eventsByContext.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Holds the metrics of a destination until no destination references them.
+     */
+    private static final class SinkReference extends WeakReference<SinkMetrics> {
+
+        private final String name;
+
+        SinkReference(SinkMetrics metrics, ReferenceQueue<SinkMetrics> queue) {
+            super(metrics, queue);
+            this.name = metrics.getName();
+        }
+    }
+
+    /**
+     * Exposes snapshots to JMX.
+     */
+    private static final class Bean implements LogMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return LogMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            LogMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, Long> getEventsByKind() {
+            return byName(snapshot().eventsByKind());
+        }
+
+        @Override
+        public Map<String, Long> getEventsByContext() {
+            return snapshot().eventsByContext();
+        }
+
+        @Override
+        public Map<String, Long> getSampledOutByKind() {
+            return byName(snapshot().sampledOutByKind());
+        }
+
+        @Override
+        public LatencySnapshot getSendLatency() {
+            return snapshot().sendLatency();
+        }
+
+        @Override
+        public Map<String, Long> getSinkEvents() {
+            return sinkValues(SinkSnapshot::events);
+        }
+
+        @Override
+        public Map<String, Long> getSinkBytes() {
+            return sinkValues(SinkSnapshot::bytes);
+        }
+
+        @Override
+        public Map<String, Long> getSinkDropped() {
+            return sinkValues(SinkSnapshot::dropped);
+        }
+
+        @Override
+        public Map<String, Long> getSinkSuppressed() {
+            return sinkValues(SinkSnapshot::suppressed);
+        }
+
+        @Override
+        public Map<String, Long> getSinkQueueDepth() {
+            return sinkValues(SinkSnapshot::queueDepth);
+        }
+
+        @Override
+        public Map<String, Long> getSinkP99Nanos() {
+            return sinkValues(sink -> sink.latency().p99Nanos());
+        }
+
+        @Override
+        public void reset() {
+            LogMetrics.reset();
+        }
+
+        private static Map<String, Long> byName(Map<LogKind, Long> values) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            values.forEach((kind, value) -> result.put(kind.name(), value));
+            return result;
+        }
+
+        private static Map<String, Long> sinkValues(ToLongFunction<SinkSnapshot> value) {
+            Map<String, Long> result = new TreeMap<>();
+            forEachSink(metrics -> result.put(metrics.getName(), value.applyAsLong(metrics.snapshot())));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package me.a8kj.logging.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link LogMetrics}, registered by {@link LogMetrics#registerMBean()}
+ * under {@link LogMetrics#OBJECT_NAME}. Every getter reads a fresh snapshot.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public interface LogMetricsMXBean {
+
+    /**
+     * @return Whether metrics are being recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled Whether metrics should be recorded.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return The entries sent per kind name.
+     */
+    Map<String, Long> getEventsByKind();
+
+    /**
+     * @return The entries sent per context name.
+     */
+    Map<String, Long> getEventsByContext();
+
+    /**
+     * @return The entries dropped by sampling per kind name.
+     */
+    Map<String, Long> getSampledOutByKind();
+
+    /**
+     * @return The duration of {@code LogBuilder.send()}.
+     */
+    LatencySnapshot getSendLatency();
+
+    /**
+     * @return The entries dispatched per destination name.
+     */
+    Map<String, Long> getSinkEvents();
+
+    /**
+     * @return The bytes written per destination name.
+     */
+    Map<String, Long> getSinkBytes();
+
+    /**
+     * @return The entries discarded per destination name.
+     */
+    Map<String, Long> getSinkDropped();
+
+    /**
+     * @return The entries filtered out per destination name.
+     */
+    Map<String, Long> getSinkSuppressed();
+
+    /**
+     * @return The current queue depth per destination name.
+     */
+    Map<String, Long> getSinkQueueDepth();
+
+    /**
+     * @return The 99th percentile of the {@code log} call duration per destination name, in nanoseconds.
+     */
+    Map<String, Long> getSinkP99Nanos();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
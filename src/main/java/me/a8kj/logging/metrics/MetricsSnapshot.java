@@ -0,0 +1,24 @@
+package me.a8kj.logging.metrics;
+
+import me.a8kj.logging.LogKind;
+
+import java.util.Map;
+
+/**
+ * The logging metrics at one point in time, returned by {@link LogMetrics#snapshot()}.
+ *
+ * @param enabled          Whether metrics were being recorded.
+ * @param eventsByKind     The entries sent through {@link me.a8kj.logging.LogBuilder} per kind.
+ * @param eventsByContext  The entries sent per context name; plain messages count as {@code "-"}.
+ * @param sampledOutByKind The entries dropped by {@link me.a8kj.logging.LogSampling} per kind.
+ * @param sendLatency      The duration of {@link me.a8kj.logging.LogBuilder#send()} for accepted entries.
+ * @param sinks            The metrics of every destination by name.
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public record MetricsSnapshot(boolean enabled,
+                              Map<LogKind, Long> eventsByKind,
+                              Map<String, Long> eventsByContext,
+                              Map<LogKind, Long> sampledOutByKind,
+                              LatencySnapshot sendLatency,
+                              Map<String, SinkSnapshot> sinks) {
+}
@@ -0,0 +1,110 @@
+package me.a8kj.logging.metrics;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * The metrics of one log destination, obtained through {@link LogMetrics#sink(String)}.
+ * <p>
+ * Destinations update their instance only while {@link LogMetrics#isEnabled()} is true;
+ * the {@link me.a8kj.logging.impl.CompositeLogger} records the entries and call
+ * latencies, the destination itself the bytes it wrote and the entries it dropped or
+ * suppressed. Queueing destinations register a gauge for their current queue depth
+ * while they are open; destinations sharing a name report the sum of their gauges.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class SinkMetrics {
+
+    @Getter
+    private final String name;
+    private final LongAdder events = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final List<IntSupplier> queueDepth = new CopyOnWriteArrayList<>();
+
+    SinkMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one call of the destination's {@code log} method.
+     *
+     * @param nanos The duration of the call in nanoseconds.
+     */
+    public void recordLog(long nanos) {
+        events.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * @param count The number of bytes the destination wrote.
+     */
+    public void addBytes(long count) {
+        bytes.add(count);
+    }
+
+    /**
+     * Records an entry the destination discarded, e.g. because its queue was full.
+     */
+    public void addDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Records an entry the destination filtered out, e.g. by rate limiting.
+     */
+    public void addSuppressed() {
+        suppressed.increment();
+    }
+
+    /**
+     * Registers a gauge reporting how many entries (or bytes, depending on the
+     * destination) are waiting to be written.
+     *
+     * @param gauge The gauge, read whenever a snapshot is taken.
+     */
+    public void addQueueDepth(IntSupplier gauge) {
+        queueDepth.add(Objects.requireNonNull(gauge));
+    }
+
+    /**
+     * Removes a gauge registered by {@link #addQueueDepth(IntSupplier)}; the gauges of
+     * other destinations with the same name are kept.
+     *
+     * @param gauge The gauge instance that was registered.
+     */
+    public void removeQueueDepth(IntSupplier gauge) {
+        queueDepth.remove(gauge);
+    }
+
+    /**
+     * Captures the current values.
+     *
+     * @return An immutable snapshot of this destination's metrics.
+     */
+    public SinkSnapshot snapshot() {
+        int depth = 0;
+        for (IntSupplier gauge : queueDepth) {
+            depth += gauge.getAsInt();
+        }
+        return new SinkSnapshot(name, events.sum(), bytes.sum(), dropped.sum(), suppressed.sum(),
+                depth, latency.snapshot());
+    }
+
+    void reset() {
+        events.reset();
+        bytes.reset();
+        dropped.reset();
+        suppressed.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,17 @@
+package me.a8kj.logging.metrics;
+
+/**
+ * The metrics of one log destination at the time of a {@link LogMetrics#snapshot()}.
+ *
+ * @param name       The destination name, see {@link me.a8kj.logging.Logger#getName()}.
+ * @param events     The entries dispatched to the destination.
+ * @param bytes      The bytes the destination wrote.
+ * @param dropped    The entries the destination discarded.
+ * @param suppressed The entries the destination filtered out.
+ * @param queueDepth The entries or bytes waiting to be written; zero for unqueued destinations.
+ * @param latency    The duration of the destination's {@code log} calls.
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public record SinkSnapshot(String name, long events, long bytes, long dropped, long suppressed,
+                           int queueDepth, LatencySnapshot latency) {
+}
@@ -2,25 +2,47 @@ package me.a8kj.logging.util;
 
 import com.diogonunes.jcolor.Ansi;
 import com.diogonunes.jcolor.Attribute;
+import lombok.Getter;
 
 /**
  * Utility class for applying ANSI color codes and styles to terminal text.
  * It provides shorthand methods for common colors and specific logging styles,
  * utilizing the JColor library for cross-platform compatibility.
+ * <p>
+ * Colors are switched off automatically when standard output is not a terminal,
+ * when the {@code NO_COLOR} environment variable is set, or when the
+ * {@code simplelog.color} system property is {@code never}; {@code always} forces
+ * them on. While colors are off, the color methods return the text unchanged.
+ * </p>
  *
  * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
  */
 public class AnsiUtils {
 
+    private static final char ESC = '\u001B';
+
+    @Getter
+    private static volatile boolean enabled = detectColorSupport();
+
+    /**
+     * Switches ANSI colors on or off, overriding the automatic detection.
+     *
+     * @param colors True to emit ANSI escape sequences, false to return text unchanged.
+     */
+    public static void setEnabled(boolean colors) {
+        enabled = colors;
+    }
+
     /**
      * Applies a set of ANSI attributes to the provided text.
      *
      * @param text       The raw string to be colored.
      * @param attributes The JColor {@link Attribute}s to apply (e.g., color, bold, italic).
-     * @return A formatted string containing ANSI escape sequences.
+     * @return A formatted string containing ANSI escape sequences, or the text itself
+     * if colors are disabled.
      */
     public static String color(String text, Attribute... attributes) {
-        return Ansi.colorize(text, attributes);
+        return enabled ? Ansi.colorize(text, attributes) : text;
     }
 
     /**
@@ -75,13 +97,87 @@ public class AnsiUtils {
     }
 
     /**
-     * Removes all ANSI escape sequences from a string.
+     * Removes all ANSI color sequences ({@code ESC [ digits and semicolons m}) from a string.
      * Use this before logging to plain text files or systems that do not support ANSI.
      *
      * @param text The string containing ANSI codes.
-     * @return A plain text string with all styling removed.
+     * @return A plain text string with all styling removed; the same instance if it
+     * contains no escape character.
      */
     public static String stripColors(String text) {
-        return text.replaceAll("\u001B\\[[;\\d]*m", "");
+        if (text.indexOf(ESC) < 0) return text;
+        return stripColors(text, new StringBuilder(text.length())).toString();
+    }
+
+    /**
+     * Appends the text to a caller-supplied buffer with all ANSI color sequences removed.
+     * The text is scanned once and nothing is allocated beyond growing the buffer.
+     *
+     * @param text The characters to copy.
+     * @param dest The buffer to append the plain text to.
+     * @return The destination buffer.
+     */
+    public static StringBuilder stripColors(CharSequence text, StringBuilder dest) {
+        int length = text.length();
+        int copied = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != ESC) continue;
+            int end = sequenceEnd(text, i, length);
+            if (end > 0) {
+                dest.append(text, copied, i);
+                copied = end;
+                i = end - 1;
+            }
+        }
+        return dest.append(text, copied, length);
+    }
+
+    /**
+     * Removes all ANSI color sequences from a buffer in place. Buffers without an
+     * escape character are left untouched after a single scan.
+     *
+     * @param text The buffer to clean.
+     * @return The same buffer.
+     */
+    public static StringBuilder stripColorsInPlace(StringBuilder text) {
+        int length = text.length();
+        int write = text.indexOf("\u001B");
+        if (write < 0) return text;
+        for (int read = write; read < length; read++) {
+            char c = text.charAt(read);
+            if (c == ESC) {
+                int end = sequenceEnd(text, read, length);
+                if (end > 0) {
+                    read = end - 1;
+                    continue;
+                }
+            }
+            text.setCharAt(write++, c);
+        }
+        text.setLength(write);
+        return text;
+    }
+
+    /**
+     * Returns the index after the color sequence starting at {@code start}, or
+     * {@code -1} if the escape character there does not start one.
+     */
+    private static int sequenceEnd(CharSequence text, int start, int length) {
+        if (start + 1 >= length || text.charAt(start + 1) != '[') return -1;
+        for (int i = start + 2; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == 'm') return i + 1;
+            if (c != ';' && (c < '0' || c > '9')) return -1;
+        }
+        return -1;
+    }
+
+    private static boolean detectColorSupport() {
+        String setting = System.getProperty("simplelog.color", "auto");
+        if (setting.equalsIgnoreCase("always")) return true;
+        if (setting.equalsIgnoreCase("never")) return false;
+        String noColor = System.getenv("NO_COLOR");
+        if (noColor != null && !noColor.isEmpty()) return false;
+        return System.console() != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,368 @@
+package me.a8kj.logging.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A streaming JSON encoder that writes UTF-8 directly into a reusable byte buffer.
+ * <p>
+ * Names and values are appended in order, with commas inserted automatically;
+ * strings are escaped and encoded character by character, and integers are written
+ * digit by digit, so encoding an entry creates no intermediate strings, maps or
+ * reflection calls. Only objects are supported, which is all a log line needs. The
+ * buffer is reused across lines: write several lines, hand them to the output with
+ * {@link #writeTo(OutputStream)} and {@link #reset()} it.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * json.beginObject().name("kind").value("INFO").name("count").value(3).endObject().newLine();
+ * json.writeTo(out);
+ * json.reset();
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private byte[] buffer;
+    private int size;
+    private boolean needsComma;
+
+    /**
+     * Creates a writer with a 1 KiB buffer that grows as needed.
+     */
+    public JsonWriter() {
+        this(1024);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param capacity The initial buffer size in bytes.
+     */
+    public JsonWriter(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * @return This writer after appending <code>{</code>.
+     */
+    public JsonWriter beginObject() {
+        comma();
+        write('{');
+        needsComma = false;
+        return this;
+    }
+
+    /**
+     * @return This writer after appending <code>}</code>.
+     */
+    public JsonWriter endObject() {
+        write('}');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Ends a line of JSON Lines output. The next object starts a new top-level value.
+     *
+     * @return This writer after appending a newline.
+     */
+    public JsonWriter newLine() {
+        write('\n');
+        needsComma = false;
+        return this;
+    }
+
+    /**
+     * Appends the name of the next member.
+     *
+     * @param name The member name.
+     * @return This writer for chaining.
+     */
+    public JsonWriter name(CharSequence name) {
+        comma();
+        string(name);
+        write(':');
+        needsComma = false;
+        return this;
+    }
+
+    /**
+     * Appends a string value.
+     *
+     * @param value The value, or {@code null}.
+     * @return This writer for chaining.
+     */
+    public JsonWriter value(CharSequence value) {
+        comma();
+        if (value == null) {
+            write(NULL);
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Appends an integer value without creating a string.
+     *
+     * @param value The value.
+     * @return This writer for chaining.
+     */
+    public JsonWriter value(long value) {
+        comma();
+        if (value == Long.MIN_VALUE) {
+            write(MIN_LONG);
+        } else {
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) digits++;
+            ensure(digits);
+            for (int i = size + digits - 1; i >= size; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+        }
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Appends a floating-point value. JSON has no representation for NaN and the
+     * infinities, so they are written as the strings {@code "NaN"}, {@code "Infinity"}
+     * and {@code "-Infinity"}.
+     *
+     * @param value The value.
+     * @return This writer for chaining.
+     */
+    public JsonWriter value(double value) {
+        if (!Double.isFinite(value)) {
+            return value(Double.toString(value));
+        }
+        comma();
+        ascii(Double.toString(value));
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Appends a boolean value.
+     *
+     * @param value The value.
+     * @return This writer for chaining.
+     */
+    public JsonWriter value(boolean value) {
+        comma();
+        write(value ? TRUE : FALSE);
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Appends a value according to its type: integral numbers, decimals and booleans
+     * keep their JSON type, {@code null} becomes {@code null}, and everything else is
+     * written as the string of {@link String#valueOf(Object)}.
+     *
+     * @param value The value, or {@code null}.
+     * @return This writer for chaining.
+     */
+    public JsonWriter value(Object value) {
+        if (value instanceof CharSequence text) return value(text);
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return value(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) return value(((Number) value).doubleValue());
+        if (value instanceof Boolean bool) return value(bool.booleanValue());
+        if (value instanceof BigInteger || value instanceof BigDecimal) {
+            comma();
+            ascii(value.toString());
+            needsComma = true;
+            return this;
+        }
+        return value(value == null ? null : String.valueOf(value));
+    }
+
+    /**
+     * Appends {@code null}.
+     *
+     * @return This writer for chaining.
+     */
+    public JsonWriter nullValue() {
+        return value((CharSequence) null);
+    }
+
+    /**
+     * @return The number of bytes written since the last {@link #reset()}.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Discards everything written after the given size, e.g. the incomplete line of an
+     * entry whose encoding failed. The writer continues as at the start of a line.
+     *
+     * @param size A size previously returned by {@link #size()}.
+     * @throws IllegalArgumentException if the size is negative or larger than the current size.
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IllegalArgumentException("size out of range: " + size);
+        }
+        this.size = size;
+        needsComma = false;
+    }
+
+    /**
+     * Writes the buffered bytes to a stream. The buffer is left as it is.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * @return A copy of the buffered bytes.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Empties the buffer, keeping its capacity unless it grew beyond the given size.
+     *
+     * @param maxRetained The largest buffer kept for reuse, in bytes.
+     */
+    public void reset(int maxRetained) {
+        if (buffer.length > maxRetained) {
+            buffer = new byte[Math.max(maxRetained, 16)];
+        }
+        reset();
+    }
+
+    /**
+     * Empties the buffer and keeps its capacity.
+     */
+    public void reset() {
+        size = 0;
+        needsComma = false;
+    }
+
+    private void comma() {
+        if (needsComma) write(',');
+    }
+
+    private void string(CharSequence text) {
+        int length = text.length();
+        ensure(length + 2);
+        buffer[size++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    if (size == buffer.length) ensure(1);
+                    buffer[size++] = (byte) c;
+                } else {
+                    escape(c);
+                }
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer[size++] = (byte) (0xC0 | c >> 6);
+                buffer[size++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    ensure(4);
+                    buffer[size++] = (byte) (0xF0 | cp >> 18);
+                    buffer[size++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    buffer[size++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    buffer[size++] = (byte) (0x80 | cp & 0x3F);
+                } else {
+                    unicodeEscape(c);
+                }
+            } else {
+                ensure(3);
+                buffer[size++] = (byte) (0xE0 | c >> 12);
+                buffer[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[size++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        write('"');
+    }
+
+    private void escape(char c) {
+        char escaped = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            default -> 0;
+        };
+        if (escaped == 0) {
+            unicodeEscape(c);
+        } else {
+            ensure(2);
+            buffer[size++] = '\\';
+            buffer[size++] = (byte) escaped;
+        }
+    }
+
+    private void unicodeEscape(char c) {
+        ensure(6);
+        buffer[size++] = '\\';
+        buffer[size++] = 'u';
+        buffer[size++] = HEX[c >> 12 & 0xF];
+        buffer[size++] = HEX[c >> 8 & 0xF];
+        buffer[size++] = HEX[c >> 4 & 0xF];
+        buffer[size++] = HEX[c & 0xF];
+    }
+
+    private void ascii(String text) {
+        int length = text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void write(int b) {
+        ensure(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package me.a8kj.logging.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A shared daemon scheduler for periodic housekeeping of log destinations,
+ * such as time-based flushing. Tasks must be short and must not block,
+ * since they all run on the same background thread.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class LogScheduler {
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "SimpleLog-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LogScheduler() {
+    }
+
+    /**
+     * Runs a task periodically until the returned future is cancelled.
+     * Exceptions thrown by the task are swallowed so that later runs still happen.
+     *
+     * @param task         The task to run.
+     * @param periodMillis The delay between two runs, in milliseconds.
+     * @return A future that cancels the task.
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long periodMillis) {
+        return executor.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException ignored) {
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+}
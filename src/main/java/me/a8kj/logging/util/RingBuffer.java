@@ -0,0 +1,153 @@
+package me.a8kj.logging.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free ring buffer of preallocated slots that supports
+ * multiple producers and multiple consumers.
+ * <p>
+ * Every slot is created once by the supplied factory and reused for the
+ * lifetime of the buffer. Producers {@link #tryClaim() claim} a sequence,
+ * fill the slot returned by {@link #get(long)} and {@link #publish(long) publish} it.
+ * Consumers {@link #tryAcquire() acquire} the oldest published sequence,
+ * read the slot and {@link #release(long) release} it back to producers.
+ * </p>
+ * <p>
+ * Each slot carries its own sequence number (Vyukov's bounded queue), so a
+ * claim or an acquire is a single CAS on the shared cursor and no thread
+ * ever blocks inside the buffer.
+ * </p>
+ *
+ * @param <T> The slot type.
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a ring buffer and preallocates all of its slots.
+     *
+     * @param capacity The number of slots; rounded up to the next power of two.
+     * @param factory  Creates the slot instances.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public RingBuffer(int capacity, Supplier<T> factory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        if (size <= 0) size = 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Claims the next free sequence for writing.
+     *
+     * @return The claimed sequence, or {@code -1} if the buffer is full.
+     */
+    public long tryClaim() {
+        for (; ; ) {
+            long pos = tail.get();
+            long dif = sequences.getAcquire((int) (pos & mask)) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) return pos;
+            } else if (dif < 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Makes a claimed slot visible to consumers.
+     *
+     * @param sequence A sequence previously returned by {@link #tryClaim()}.
+     */
+    public void publish(long sequence) {
+        sequences.setRelease((int) (sequence & mask), sequence + 1);
+    }
+
+    /**
+     * Acquires the oldest published sequence for reading.
+     *
+     * @return The acquired sequence, or {@code -1} if nothing is published.
+     */
+    public long tryAcquire() {
+        for (; ; ) {
+            long pos = head.get();
+            long dif = sequences.getAcquire((int) (pos & mask)) - (pos + 1);
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) return pos;
+            } else if (dif < 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Hands an acquired slot back to producers.
+     *
+     * @param sequence A sequence previously returned by {@link #tryAcquire()}.
+     */
+    public void release(long sequence) {
+        sequences.setRelease((int) (sequence & mask), sequence + mask + 1);
+    }
+
+    /**
+     * Returns the slot backing the given sequence.
+     *
+     * @param sequence A claimed or acquired sequence.
+     * @return The preallocated slot.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * @return The number of slots in this buffer.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns an estimate of the number of claimed but not yet acquired slots.
+     *
+     * @return The approximate number of pending entries.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Returns the total number of sequences claimed since the buffer was created.
+     * A consumer that counts the sequences it released can compare against this
+     * value to wait for everything published before a given point.
+     *
+     * @return The next sequence a producer will claim.
+     */
+    public long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * @return {@code true} if no slot is currently claimed or published.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+}
@@ -0,0 +1,136 @@
+package me.a8kj.logging.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A bounded ring buffer of preallocated slots for exactly one producer thread and
+ * one consumer thread.
+ * <p>
+ * Unlike {@link RingBuffer}, no compare-and-set is involved: the producer is the only
+ * writer of the tail and the consumer the only writer of the head, so claiming,
+ * publishing, acquiring and releasing are plain reads and ordered stores. The
+ * producer also caches the last head it saw and only reads the consumer's cursor
+ * when the buffer looks full, which keeps the consumer's cache line out of the
+ * producer's fast path.
+ * </p>
+ * <p>
+ * {@link #tryAcquire()} does not advance the head; the consumer reads the slot and
+ * calls {@link #release(long)} before acquiring the next one. Calling it twice
+ * returns the same sequence, which lets the consumer look at the oldest entry
+ * before deciding to take it.
+ * </p>
+ *
+ * @param <T> The slot type.
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class SingleWriterRingBuffer<T> {
+
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The producer's cached copy of the head. Only accessed by the producer.
+     */
+    private long cachedHead;
+
+    /**
+     * Creates a ring buffer and preallocates all of its slots.
+     *
+     * @param capacity The number of slots; rounded up to the next power of two.
+     * @param factory  Creates the slot instances.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public SingleWriterRingBuffer(int capacity, Supplier<T> factory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        if (size <= 0) size = 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * Claims the next free sequence for writing. Must only be called by the producer.
+     *
+     * @return The claimed sequence, or {@code -1} if the buffer is full.
+     */
+    public long tryClaim() {
+        long pos = tail.getPlain();
+        if (pos - cachedHead > mask) {
+            cachedHead = head.getAcquire();
+            if (pos - cachedHead > mask) return -1;
+        }
+        return pos;
+    }
+
+    /**
+     * Makes a claimed slot visible to the consumer.
+     *
+     * @param sequence The sequence last returned by {@link #tryClaim()}.
+     */
+    public void publish(long sequence) {
+        tail.setRelease(sequence + 1);
+    }
+
+    /**
+     * Returns the oldest published sequence without removing it. Must only be called
+     * by the consumer.
+     *
+     * @return The oldest published sequence, or {@code -1} if nothing is published.
+     */
+    public long tryAcquire() {
+        long pos = head.getPlain();
+        return pos < tail.getAcquire() ? pos : -1;
+    }
+
+    /**
+     * Hands the oldest slot back to the producer.
+     *
+     * @param sequence The sequence last returned by {@link #tryAcquire()}.
+     */
+    public void release(long sequence) {
+        head.setRelease(sequence + 1);
+    }
+
+    /**
+     * Returns the slot backing the given sequence.
+     *
+     * @param sequence A claimed or acquired sequence.
+     * @return The preallocated slot.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * @return The number of slots in this buffer.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns an estimate of the number of published but not yet released slots.
+     *
+     * @return The approximate number of pending entries.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * @return {@code true} if every published slot has been released.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+}
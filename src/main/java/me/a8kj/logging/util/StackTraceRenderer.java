@@ -0,0 +1,369 @@
+package me.a8kj.logging.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders stack traces in the layout of {@link Throwable#printStackTrace()} and caches
+ * the rendered frames.
+ * <p>
+ * Every trace is reduced to a fingerprint of its exception classes, its frames and the
+ * structure of its causes and suppressed exceptions. The frame lines are rendered once
+ * per fingerprint; a repeated trace only costs collecting the frames, a hash lookup and
+ * appending the cached text. The header lines ({@code Class: message}) are always taken
+ * from the live exceptions, so varying messages are shown correctly.
+ * </p>
+ * <p>
+ * Three options shorten the output: a maximum number of frames per exception, package
+ * prefixes whose consecutive frames collapse into one line, and back-references, which
+ * number every distinct trace ({@code [trace #3]}) and print later occurrences as a
+ * single {@code ... same trace as #3} line below the header. The ids are kept in the
+ * cache, which is emptied when it exceeds its size, so traces are printed in full again
+ * from time to time.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * Log.setStackTraceRenderer(StackTraceRenderer.full()
+ *         .withMaxDepth(30)
+ *         .withCollapsedPackages(StackTraceRenderer.JDK_PACKAGES)
+ *         .withBackReferences(true));
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+@Getter
+public final class StackTraceRenderer {
+
+    /**
+     * Package prefixes of the JDK, for {@link #withCollapsedPackages(List)}.
+     */
+    public static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    /**
+     * The number of distinct traces cached when no size is given.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final String CAUSE_CAPTION = "Caused by: ";
+    private static final String SUPPRESSED_CAPTION = "Suppressed: ";
+    private static final long CIRCULAR = -1L;
+
+    /**
+     * The maximum number of frames printed per exception.
+     */
+    private final int maxDepth;
+    /**
+     * The package prefixes whose consecutive frames are collapsed into one line.
+     */
+    private final List<String> collapsedPackages;
+    /**
+     * Whether repeated traces are printed as a reference to their first occurrence.
+     */
+    private final boolean backReferences;
+    /**
+     * The number of distinct traces kept before the cache is emptied.
+     */
+    private final int cacheSize;
+
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentHashMap<Long, Entry> cache = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private StackTraceRenderer(int maxDepth, List<String> collapsedPackages, boolean backReferences, int cacheSize) {
+        if (maxDepth <= 0) throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        if (cacheSize <= 0) throw new IllegalArgumentException("cacheSize must be positive: " + cacheSize);
+        this.maxDepth = maxDepth;
+        this.collapsedPackages = List.copyOf(collapsedPackages);
+        this.backReferences = backReferences;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Renders every frame, exactly like {@link Throwable#printStackTrace()}.
+     *
+     * @return A renderer without depth limit, collapsing or back-references.
+     */
+    public static StackTraceRenderer full() {
+        return new StackTraceRenderer(Integer.MAX_VALUE, List.of(), false, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Returns a copy of this renderer that prints at most the given number of frames
+     * per exception, followed by a {@code ... n frames truncated} line.
+     *
+     * @param maxDepth The maximum number of frame lines per exception.
+     * @return A new renderer with an empty cache.
+     */
+    public StackTraceRenderer withMaxDepth(int maxDepth) {
+        return new StackTraceRenderer(maxDepth, collapsedPackages, backReferences, cacheSize);
+    }
+
+    /**
+     * Returns a copy of this renderer that collapses runs of frames from the given
+     * packages into one {@code ... n collapsed frames} line, for example
+     * {@link #JDK_PACKAGES} or framework packages.
+     *
+     * @param prefixes The package prefixes, such as {@code "org.springframework."}.
+     * @return A new renderer with an empty cache.
+     */
+    public StackTraceRenderer withCollapsedPackages(List<String> prefixes) {
+        return new StackTraceRenderer(maxDepth, prefixes, backReferences, cacheSize);
+    }
+
+    /**
+     * Returns a copy of this renderer that collapses runs of frames from the given packages.
+     *
+     * @param prefixes The package prefixes, such as {@code "org.springframework."}.
+     * @return A new renderer with an empty cache.
+     * @see #withCollapsedPackages(List)
+     */
+    public StackTraceRenderer withCollapsedPackages(String... prefixes) {
+        return withCollapsedPackages(List.of(prefixes));
+    }
+
+    /**
+     * Returns a copy of this renderer with back-references switched on or off.
+     *
+     * @param backReferences True to print repeated traces as {@code ... same trace as #id}.
+     * @return A new renderer with an empty cache.
+     */
+    public StackTraceRenderer withBackReferences(boolean backReferences) {
+        return new StackTraceRenderer(maxDepth, collapsedPackages, backReferences, cacheSize);
+    }
+
+    /**
+     * Returns a copy of this renderer with another cache size.
+     *
+     * @param cacheSize The number of distinct traces kept before the cache is emptied.
+     * @return A new renderer with an empty cache.
+     */
+    public StackTraceRenderer withCacheSize(int cacheSize) {
+        return new StackTraceRenderer(maxDepth, collapsedPackages, backReferences, cacheSize);
+    }
+
+    /**
+     * Appends the stack trace of an exception with its suppressed exceptions and causes.
+     * Every line, including the last one, ends with the line separator.
+     *
+     * @param sb        The builder to append to.
+     * @param throwable The exception to render.
+     * @return The same builder for chaining.
+     */
+    public StringBuilder appendTo(StringBuilder sb, Throwable throwable) {
+        List<Node> nodes = new ArrayList<>(4);
+        long fingerprint = collect(throwable, nodes);
+        String separator = System.lineSeparator();
+
+        Entry entry = cache.get(fingerprint);
+        if (entry != null && !entry.matches(nodes)) {
+            // A fingerprint collision: render this trace on its own and let it replace the entry.
+            entry = null;
+        }
+        if (entry != null && backReferences) {
+            return sb.append(throwable).append(separator)
+                    .append("\t... same trace as #").append(entry.id).append(separator);
+        }
+        if (entry == null) {
+            if (cache.size() >= cacheSize) {
+                cache.clear();
+            }
+            Entry created = new Entry(ids.incrementAndGet(), renderFrames(nodes, separator), shapeOf(nodes));
+            Entry existing = cache.putIfAbsent(fingerprint, created);
+            if (existing == null || !existing.matches(nodes)) {
+                cache.put(fingerprint, created);
+                entry = created;
+            } else {
+                entry = existing;
+            }
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            sb.append(node.prefix).append(node.caption);
+            if (node.trace == null) {
+                sb.append("[CIRCULAR REFERENCE: ").append(node.throwable).append(']').append(separator);
+                continue;
+            }
+            sb.append(node.throwable);
+            if (i == 0 && backReferences) {
+                sb.append(" [trace #").append(entry.id).append(']');
+            }
+            sb.append(separator).append(entry.frames[i]);
+        }
+        return sb;
+    }
+
+    /**
+     * Renders a stack trace into a new string.
+     *
+     * @param throwable The exception to render.
+     * @return The rendered trace.
+     * @see #appendTo(StringBuilder, Throwable)
+     */
+    public String render(Throwable throwable) {
+        return appendTo(new StringBuilder(256), throwable).toString();
+    }
+
+    /**
+     * Forgets every cached trace.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Lists the exceptions in the order {@link Throwable#printStackTrace()} prints them
+     * and returns the fingerprint of the whole structure.
+     */
+    private long collect(Throwable throwable, List<Node> nodes) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.add(throwable);
+        StackTraceElement[] trace = throwable.getStackTrace();
+        nodes.add(new Node(throwable, "", "", trace, trace.length, 0));
+        long hash = mix(throwable.getClass().getName().hashCode(), trace, trace.length, 0);
+        return collectEnclosed(throwable, trace, "", seen, nodes, hash);
+    }
+
+    private long collectEnclosed(Throwable parent, StackTraceElement[] parentTrace, String prefix,
+                                 Set<Throwable> seen, List<Node> nodes, long hash) {
+        for (Throwable suppressed : parent.getSuppressed()) {
+            hash = collectOne(suppressed, parentTrace, SUPPRESSED_CAPTION, prefix + "\t", seen, nodes, hash);
+        }
+        Throwable cause = parent.getCause();
+        if (cause != null) {
+            hash = collectOne(cause, parentTrace, CAUSE_CAPTION, prefix, seen, nodes, hash);
+        }
+        return hash;
+    }
+
+    private long collectOne(Throwable throwable, StackTraceElement[] enclosingTrace, String caption, String prefix,
+                            Set<Throwable> seen, List<Node> nodes, long hash) {
+        hash = hash * 31 + caption.length() * 7L + prefix.length();
+        if (!seen.add(throwable)) {
+            nodes.add(new Node(throwable, prefix, caption, null, 0, 0));
+            return hash * 31 + CIRCULAR;
+        }
+        StackTraceElement[] trace = throwable.getStackTrace();
+        int m = trace.length - 1;
+        int n = enclosingTrace.length - 1;
+        while (m >= 0 && n >= 0 && trace[m].equals(enclosingTrace[n])) {
+            m--;
+            n--;
+        }
+        int common = trace.length - 1 - m;
+        nodes.add(new Node(throwable, prefix, caption, trace, m + 1, common));
+        hash = hash * 31 + mix(throwable.getClass().getName().hashCode(), trace, m + 1, common);
+        return collectEnclosed(throwable, trace, prefix, seen, nodes, hash);
+    }
+
+    private static long mix(int classHash, StackTraceElement[] trace, int unique, int common) {
+        long hash = classHash * 0x9E3779B97F4A7C15L + common;
+        for (int i = 0; i < unique; i++) {
+            hash = (hash ^ trace[i].hashCode()) * 0x100000001B3L;
+        }
+        return hash ^ (hash >>> 29) ^ unique;
+    }
+
+    private static Shape[] shapeOf(List<Node> nodes) {
+        Shape[] shape = new Shape[nodes.size()];
+        for (int i = 0; i < shape.length; i++) {
+            Node node = nodes.get(i);
+            shape[i] = new Shape(node.throwable.getClass().getName(), node.prefix, node.caption,
+                    node.trace, node.unique, node.common);
+        }
+        return shape;
+    }
+
+    private String[] renderFrames(List<Node> nodes, String separator) {
+        String[] frames = new String[nodes.size()];
+        StringBuilder sb = new StringBuilder(512);
+        for (int i = 0; i < frames.length; i++) {
+            Node node = nodes.get(i);
+            if (node.trace == null) continue;
+            sb.setLength(0);
+            String prefix = node.prefix;
+            int shown = 0;
+            for (int f = 0; f < node.unique; ) {
+                if (shown == maxDepth) {
+                    sb.append(prefix).append("\t... ").append(node.unique - f).append(" frames truncated").append(separator);
+                    break;
+                }
+                int run = f;
+                while (run < node.unique && isCollapsed(node.trace[run])) {
+                    run++;
+                }
+                if (run - f > 1) {
+                    sb.append(prefix).append("\t... ").append(run - f).append(" collapsed frames").append(separator);
+                    f = run;
+                } else {
+                    sb.append(prefix).append("\tat ").append(node.trace[f]).append(separator);
+                    f++;
+                }
+                shown++;
+            }
+            if (node.common != 0) {
+                sb.append(prefix).append("\t... ").append(node.common).append(" more").append(separator);
+            }
+            frames[i] = sb.toString();
+        }
+        return frames;
+    }
+
+    private boolean isCollapsed(StackTraceElement frame) {
+        String className = frame.getClassName();
+        for (String prefix : collapsedPackages) {
+            if (className.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * One exception of a trace; {@code trace} is {@code null} for a circular reference.
+     */
+    private record Node(Throwable throwable, String prefix, String caption,
+                        StackTraceElement[] trace, int unique, int common) {
+    }
+
+    /**
+     * The rendered frame lines of each node of a trace, the id of the trace and the
+     * structure it was rendered from, which is compared on every hit because different
+     * traces may share a fingerprint.
+     */
+    private record Entry(int id, String[] frames, Shape[] shape) {
+
+        private boolean matches(List<Node> nodes) {
+            if (shape.length != nodes.size()) return false;
+            for (int i = 0; i < shape.length; i++) {
+                if (!shape[i].matches(nodes.get(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * What a cached node was rendered from; {@code trace} is {@code null} for a circular reference.
+     */
+    private record Shape(String className, String prefix, String caption,
+                         StackTraceElement[] trace, int unique, int common) {
+
+        private boolean matches(Node node) {
+            if (unique != node.unique || common != node.common || (trace == null) != (node.trace == null)
+                    || !prefix.equals(node.prefix) || !caption.equals(node.caption)
+                    || !className.equals(node.throwable.getClass().getName())) {
+                return false;
+            }
+            return trace == null || Arrays.equals(trace, 0, unique, node.trace, 0, unique);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package me.a8kj.logging.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Encodes character sequences into a reusable byte buffer.
+ * <p>
+ * The characters are copied into an internal {@code char[]} and encoded with a
+ * single {@link CharsetEncoder}, so encoding a {@link StringBuilder} creates no
+ * intermediate {@link String} and, once the buffers have grown to the size of
+ * the largest line, no garbage at all. Instances are not thread-safe.
+ * </p>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class TextEncoder {
+
+    private static final int MAX_RETAINED_CHARS = 16384;
+
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private char[] chars = new char[512];
+    private CharBuffer in = CharBuffer.wrap(chars);
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+
+    /**
+     * Creates an encoder for the given charset. Malformed or unmappable
+     * characters are replaced rather than reported.
+     *
+     * @param charset The target {@link Charset}.
+     */
+    public TextEncoder(Charset charset) {
+        this.charset = charset;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * @return The charset this encoder produces.
+     */
+    public Charset charset() {
+        return charset;
+    }
+
+    /**
+     * Encodes the text. The returned buffer is owned by this encoder, is ready
+     * for reading (position zero, limit at the end of the bytes), and stays valid
+     * until the next call.
+     *
+     * @param text The characters to encode.
+     * @return A heap buffer holding the encoded bytes.
+     */
+    public ByteBuffer encode(CharSequence text) {
+        int length = text.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            in = CharBuffer.wrap(chars);
+        }
+        if (text instanceof StringBuilder sb) {
+            sb.getChars(0, length, chars, 0);
+        } else if (text instanceof String s) {
+            s.getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = text.charAt(i);
+            }
+        }
+        in.limit(length).position(0);
+
+        out.clear();
+        encoder.reset();
+        while (encoder.encode(in, out, true).isOverflow()) {
+            grow();
+        }
+        while (encoder.flush(out).isOverflow()) {
+            grow();
+        }
+        out.flip();
+
+        if (chars.length > MAX_RETAINED_CHARS) {
+            chars = new char[512];
+            in = CharBuffer.wrap(chars);
+        }
+        return out;
+    }
+
+    private void grow() {
+        ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2);
+        out.flip();
+        bigger.put(out);
+        out = bigger;
+    }
+}
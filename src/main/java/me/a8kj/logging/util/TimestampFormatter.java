@@ -0,0 +1,196 @@
+package me.a8kj.logging.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+
+/**
+ * Renders log timestamps into a {@link StringBuilder} without allocating.
+ * <p>
+ * The date and time part is produced by a {@link DateTimeFormatter} pattern at most
+ * once per second and cached; every other timestamp within the same second only
+ * copies the cached characters and appends the sub-second digits. The pattern must
+ * therefore not contain fraction-of-second fields; the {@link Precision} adds them.
+ * </p>
+ * <p>
+ * Instances are immutable apart from the cache, which is replaced atomically, so one
+ * formatter can be shared by every destination and thread.
+ * </p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * TimestampFormatter formatter = new TimestampFormatter("dd.MM.yyyy HH:mm:ss", TimestampFormatter.Precision.MICROS);
+ * formatter.formatTo(line, event.getTimestamp(), event.getNanos());
+ * </pre>
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class TimestampFormatter {
+
+    /**
+     * How the part below one second is rendered.
+     */
+    public enum Precision {
+        /**
+         * Only the pattern, without fraction digits.
+         */
+        SECONDS,
+        /**
+         * The pattern followed by {@code .SSS}.
+         */
+        MILLIS,
+        /**
+         * The pattern followed by {@code .SSSSSS}.
+         */
+        MICROS,
+        /**
+         * The pattern followed by {@code .SSSSSSSSS}.
+         */
+        NANOS,
+        /**
+         * The raw milliseconds since the epoch; the pattern is ignored.
+         */
+        EPOCH_MILLIS
+    }
+
+    /**
+     * {@code 2024-05-01T13:45:07.123} in the system time zone; the layout of the file destinations.
+     */
+    public static final TimestampFormatter ISO_LOCAL_MILLIS =
+            new TimestampFormatter("yyyy-MM-dd'T'HH:mm:ss", Precision.MILLIS);
+
+    /**
+     * {@code 13:45:07} in the system time zone; the layout of the console.
+     */
+    public static final TimestampFormatter TIME_OF_DAY =
+            new TimestampFormatter("HH:mm:ss", Precision.SECONDS);
+
+    private final DateTimeFormatter formatter;
+    private final DateTimeFormatter parser;
+    private final Precision precision;
+    private volatile CachedSecond cached = new CachedSecond(Long.MIN_VALUE, new char[0]);
+
+    /**
+     * Creates a formatter for the system time zone.
+     *
+     * @param pattern   A {@link DateTimeFormatter} pattern without fraction-of-second fields.
+     * @param precision The {@link Precision} appended after the pattern.
+     * @throws IllegalArgumentException If the pattern is invalid or renders fractions of a second.
+     */
+    public TimestampFormatter(String pattern, Precision precision) {
+        this(pattern, precision, ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates a formatter.
+     *
+     * @param pattern   A {@link DateTimeFormatter} pattern without fraction-of-second fields.
+     * @param precision The {@link Precision} appended after the pattern.
+     * @param zone      The time zone the timestamps are shown in.
+     * @throws IllegalArgumentException If the pattern is invalid or renders fractions of a second.
+     */
+    public TimestampFormatter(String pattern, Precision precision, ZoneId zone) {
+        this.formatter = DateTimeFormatter.ofPattern(pattern).withZone(zone);
+        this.precision = precision;
+        DateTimeFormatterBuilder parser = new DateTimeFormatterBuilder().appendPattern(pattern);
+        int digits = switch (precision) {
+            case MILLIS -> 3;
+            case MICROS -> 6;
+            case NANOS -> 9;
+            default -> 0;
+        };
+        if (digits > 0) {
+            parser.appendFraction(ChronoField.NANO_OF_SECOND, digits, digits, true);
+        }
+        this.parser = parser.toFormatter().withZone(zone);
+        if (precision != Precision.EPOCH_MILLIS
+                && !formatter.format(Instant.ofEpochSecond(0, 0)).equals(formatter.format(Instant.ofEpochSecond(0, 999_999_999)))) {
+            throw new IllegalArgumentException("Pattern must not contain fraction-of-second fields: " + pattern);
+        }
+    }
+
+    /**
+     * Appends a timestamp.
+     *
+     * @param sb          The builder to append to.
+     * @param epochMillis The time in milliseconds since the epoch.
+     * @param nanos       The nanoseconds within that millisecond (0 to 999,999), used by
+     *                    {@link Precision#MICROS} and {@link Precision#NANOS}; see
+     *                    {@code LogEvent.getNanos()}.
+     * @return The same builder for chaining.
+     */
+    public StringBuilder formatTo(StringBuilder sb, long epochMillis, int nanos) {
+        if (precision == Precision.EPOCH_MILLIS) {
+            return sb.append(epochMillis);
+        }
+
+        long second = Math.floorDiv(epochMillis, 1000);
+        CachedSecond current = cached;
+        if (current.second != second) {
+            current = new CachedSecond(second, formatter.format(Instant.ofEpochSecond(second)).toCharArray());
+            cached = current;
+        }
+        sb.append(current.text);
+
+        int millis = Math.floorMod(epochMillis, 1000);
+        switch (precision) {
+            case MILLIS -> appendPadded(sb.append('.'), millis, 3);
+            case MICROS -> appendPadded(sb.append('.'), millis * 1000 + nanos / 1000, 6);
+            case NANOS -> appendPadded(sb.append('.'), millis * 1_000_000 + nanos, 9);
+            default -> {
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Appends a timestamp without sub-millisecond digits.
+     *
+     * @param sb          The builder to append to.
+     * @param epochMillis The time in milliseconds since the epoch.
+     * @return The same builder for chaining.
+     */
+    public StringBuilder formatTo(StringBuilder sb, long epochMillis) {
+        return formatTo(sb, epochMillis, 0);
+    }
+
+    /**
+     * Reads back a timestamp rendered by this formatter. Digits below one millisecond
+     * are dropped.
+     *
+     * @param text The rendered timestamp.
+     * @return The time in milliseconds since the epoch.
+     * @throws DateTimeException If the text does not match this format, or the pattern
+     *                           lacks the fields to identify an instant, such as the date
+     *                           of {@link #TIME_OF_DAY}.
+     */
+    public long parse(CharSequence text) {
+        if (precision == Precision.EPOCH_MILLIS) {
+            try {
+                return Long.parseLong(text, 0, text.length(), 10);
+            } catch (NumberFormatException e) {
+                throw new DateTimeParseException("Not a number of milliseconds", text, 0);
+            }
+        }
+        return Instant.from(parser.parse(text)).toEpochMilli();
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int width) {
+        int end = sb.length() + width;
+        sb.setLength(end);
+        for (int i = end - 1; i >= end - width; i--) {
+            sb.setCharAt(i, (char) ('0' + value % 10));
+            value /= 10;
+        }
+    }
+
+    /**
+     * The rendered pattern for one second.
+     */
+    private record CachedSecond(long second, char[] text) {
+    }
+}
@@ -0,0 +1,137 @@
+package me.a8kj.logging;
+
+import me.a8kj.logging.impl.ConsoleLogger;
+import me.a8kj.logging.util.TimestampFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Verifies that the garbage-free mode of {@link Log} does not allocate per call once warmed up.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class GarbageFreeLoggingTest {
+
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 100_000;
+
+    private final RenderingLogger destination = new RenderingLogger();
+    private com.sun.management.ThreadMXBean threads;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "thread allocation counters are not available");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "thread allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Log.setGarbageFree(true);
+        Log.addDestination(destination);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Log.removeDestination(destination);
+        Log.setGarbageFree(false);
+    }
+
+    @Test
+    void contextInfoWithIntArgumentDoesNotAllocate() {
+        LogContext ctx = new LogContext("Net");
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            Log.info(ctx, "x=%d", i);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            Log.info(ctx, "x=%d", i);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(allocated < MEASURED_CALLS, "allocated " + allocated + " bytes in " + MEASURED_CALLS + " calls");
+        assertEquals("[Net] x=" + (MEASURED_CALLS - 1), destination.last.toString());
+    }
+
+    @Test
+    void integralBooleanAndCharOverloadsDoNotAllocate() {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            logPrimitives(i);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            logPrimitives(i);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(allocated < MEASURED_CALLS, "allocated " + allocated + " bytes in " + 4 * MEASURED_CALLS + " calls");
+        assertEquals("[System] grade=B", destination.last.toString());
+    }
+
+    @Test
+    void consoleLoggerWritingToANullStreamDoesNotAllocate() {
+        PrintStream console = System.out;
+        ConsoleLogger sink = new ConsoleLogger(TimestampFormatter.TIME_OF_DAY, false);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8));
+        Log.addDestination(sink);
+        try {
+            LogContext ctx = new LogContext("Net");
+            for (int i = 0; i < WARMUP_CALLS; i++) {
+                Log.info(ctx, "x=%d", i);
+            }
+
+            long before = allocatedBytes();
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                Log.info(ctx, "x=%d", i);
+            }
+            long allocated = allocatedBytes() - before;
+
+            assertTrue(allocated < MEASURED_CALLS, "allocated " + allocated + " bytes in " + MEASURED_CALLS + " calls");
+        } finally {
+            Log.removeDestination(sink);
+            System.setOut(console);
+        }
+    }
+
+    private static void logPrimitives(int i) {
+        Log.info("n=%d", i);
+        Log.info("id=%d", (long) i);
+        Log.info("ok=%b", (i & 1) == 0);
+        Log.info("grade=%s", (char) ('A' + (i & 1)));
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    /**
+     * Renders every event into one reused buffer, like the garbage-free sinks do.
+     */
+    private static final class RenderingLogger implements Logger {
+
+        private final StringBuilder last = new StringBuilder(64);
+
+        @Override
+        public void log(String message, LogKind kind) {
+            last.setLength(0);
+            last.append(message);
+        }
+
+        @Override
+        public void log(LogEvent event) {
+            last.setLength(0);
+            event.renderTo(last);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package me.a8kj.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the static logging methods of {@link Log}.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class LogTest {
+
+    private final RecordingLogger destination = new RecordingLogger();
+
+    @AfterEach
+    void tearDown() {
+        Log.removeDestination(destination);
+        Log.setDebugEnabled(false);
+    }
+
+    @Test
+    void singleArgumentOverloadsSpreadAnObjectArray() {
+        Log.addDestination(destination);
+        Log.setDebugEnabled(true);
+        Object values = new Object[]{"port", 8080};
+
+        Log.debug("%s=%d", values);
+        Log.info("%s=%d", values);
+        Log.info(new LogContext("Net"), "%s=%d", values);
+        Log.info("value %s", (Object) "plain");
+
+        assertEquals(List.of("[System] port=8080", "[System] port=8080", "[Net] port=8080", "[System] value plain"),
+                destination.lines);
+    }
+
+    @Test
+    void disablingDebugRestoresTheCustomDefaultLevel() {
+        Log.addDestination(destination);
+        LogLevels.setDefaultLevel(LogKind.WARN);
+        try {
+            Log.setDebugEnabled(true);
+            assertTrue(Log.isDebugEnabled());
+            Log.setDebugEnabled(false);
+
+            assertEquals(LogKind.WARN, LogLevels.getDefaultLevel());
+            Log.info("hidden");
+            Log.warn("shown");
+            assertEquals(List.of("[System] shown"), destination.lines);
+
+            Log.setDebugEnabled(false);
+            assertEquals(LogKind.WARN, LogLevels.getDefaultLevel());
+        } finally {
+            LogLevels.setDefaultLevel(LogKind.INFO);
+        }
+    }
+
+    /**
+     * Keeps the rendered body of every entry.
+     */
+    private static final class RecordingLogger implements Logger {
+
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void log(String message, LogKind kind) {
+            lines.add(message);
+        }
+
+        @Override
+        public void log(LogEvent event) {
+            lines.add(event.render());
+        }
+    }
+}
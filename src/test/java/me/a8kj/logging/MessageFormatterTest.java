@@ -0,0 +1,66 @@
+package me.a8kj.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks what destinations receive for templates that do and do not fit their arguments.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class MessageFormatterTest {
+
+    private final RecordingLogger first = new RecordingLogger();
+    private final RecordingLogger second = new RecordingLogger();
+
+    @AfterEach
+    void tearDown() {
+        Log.removeDestination(first);
+        Log.removeDestination(second);
+    }
+
+    @Test
+    void formatsLikeStringFormat() {
+        Log.addDestination(first);
+
+        Log.info("%s=%d, %.2f, %1$s", "n", 7, 1.5);
+
+        assertEquals(List.of("[System] " + String.format("%s=%d, %.2f, %1$s", "n", 7, 1.5)), first.lines);
+    }
+
+    @Test
+    void badTemplatesReachEveryDestinationUnformatted() {
+        Log.addDestination(first);
+        Log.addDestination(second);
+
+        Log.info("missing %s and %s", "one");
+        Log.info("wrong %d", "text");
+
+        List<String> expected = List.of("[System] missing %s and %s [one]", "[System] wrong %d [text]");
+        assertEquals(expected, first.lines);
+        assertEquals(expected, second.lines);
+    }
+
+    /**
+     * Keeps the rendered body of every entry.
+     */
+    private static final class RecordingLogger implements Logger {
+
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void log(String message, LogKind kind) {
+            lines.add(message);
+        }
+
+        @Override
+        public void log(LogEvent event) {
+            lines.add(event.render());
+        }
+    }
+}
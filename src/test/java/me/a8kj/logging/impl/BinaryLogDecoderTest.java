@@ -0,0 +1,76 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reads back files written by {@link BinaryFileLogger}, including damaged ones.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class BinaryLogDecoderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasWritten() throws Exception {
+        Path file = directory.resolve("app.bin");
+        try (BinaryFileLogger logger = new BinaryFileLogger(file.toString())) {
+            logger.log(LogEvent.of("first", LogKind.INFO));
+            logger.log(LogEvent.of("second", LogKind.WARN));
+        }
+
+        assertEquals(List.of("INFO first", "WARN second"), read(file));
+    }
+
+    @Test
+    void treatsAnUnknownKindAsADamagedRecord() throws Exception {
+        Path file = directory.resolve("app.bin");
+        try (BinaryFileLogger logger = new BinaryFileLogger(file.toString())) {
+            logger.log(LogEvent.of("before", LogKind.INFO));
+        }
+        long valid = Files.size(file);
+        ByteArrayOutputStream damaged = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(damaged);
+        record.writeByte(BinaryLogFormat.EVENT);
+        record.writeLong(System.currentTimeMillis());
+        record.writeByte(0xFF);
+        Files.write(file, damaged.toByteArray(), StandardOpenOption.APPEND);
+
+        assertEquals(valid, BinaryLogDecoder.validLength(file));
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(file))) {
+            assertEquals("before", decoder.next().getMessage());
+            assertThrows(IOException.class, decoder::next);
+        }
+
+        try (BinaryFileLogger logger = new BinaryFileLogger(file.toString())) {
+            logger.log(LogEvent.of("after", LogKind.ERROR));
+        }
+        assertEquals(List.of("INFO before", "ERROR after"), read(file));
+    }
+
+    private static List<String> read(Path file) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(file))) {
+            for (LogEvent event = decoder.next(); event != null; event = decoder.next()) {
+                entries.add(event.getKind() + " " + event.getMessage());
+            }
+        }
+        return entries;
+    }
+}
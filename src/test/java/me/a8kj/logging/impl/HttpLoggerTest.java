@@ -0,0 +1,198 @@
+package me.a8kj.logging.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link HttpLogger} against a local {@link HttpServer} standing in for the endpoint.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class HttpLoggerTest {
+
+    private static final String ENTRY = "entry ";
+
+    @TempDir
+    Path directory;
+
+    private final Set<String> received = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Queue<Integer> failures = new ConcurrentLinkedQueue<>();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    private ExecutorService executor;
+    private HttpServer server;
+    private URI endpoint;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/ingest", this::handle);
+        server.start();
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/ingest");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void coalescesEntriesIntoBatches() throws Exception {
+        HttpLogger logger = new HttpLogger(endpoint, policy().withMaxBatchRecords(100));
+        log(logger, 1000, LogKind.INFO);
+        logger.close();
+
+        assertEquals(1000, received.size());
+        assertEquals(1000, logger.getDeliveredCount());
+        assertEquals(0, logger.getDroppedCount());
+        assertTrue(requests.get() >= 10 && requests.get() <= 20, "requests: " + requests);
+    }
+
+    @Test
+    void retriesOnTooManyRequestsAndUnavailable() throws Exception {
+        failures.addAll(List.of(429, 503, 503));
+        HttpLogger logger = new HttpLogger(endpoint, policy().withMaxBatchRecords(100));
+        log(logger, 300, LogKind.INFO);
+        logger.close();
+
+        assertEquals(300, received.size());
+        assertEquals(300, logger.getDeliveredCount());
+        assertEquals(0, logger.getDroppedCount());
+        assertTrue(failures.isEmpty());
+        assertTrue(requests.get() >= 6, "requests: " + requests);
+    }
+
+    @Test
+    void slowEndpointDoesNotDelayCallers() throws Exception {
+        delayMillis = 2000;
+        HttpLogger logger = new HttpLogger(endpoint, policy().withMaxBatchRecords(50).withRequestTimeoutMillis(5000));
+        long start = System.nanoTime();
+        log(logger, 2000, LogKind.ERROR);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.close();
+
+        assertTrue(elapsedMillis < delayMillis, "logging took " + elapsedMillis + " ms");
+        assertEquals(2000, logger.getDeliveredCount() + logger.getDroppedCount());
+    }
+
+    @Test
+    void accountsForEveryEntryWhileEndpointIsDown() throws Exception {
+        status = 503;
+        HttpLogger logger = new HttpLogger(endpoint, policy()
+                .withMaxBatchRecords(50)
+                .withMaxPendingBatches(2)
+                .withRequestTimeoutMillis(500));
+        log(logger, 1000, LogKind.INFO);
+        logger.close();
+
+        assertEquals(0, logger.getDeliveredCount());
+        assertEquals(1000, logger.getDroppedCount());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void spillsWhileEndpointIsDownAndDeliversOnceItRecovers() throws Exception {
+        status = 503;
+        Path spill = directory.resolve("spill");
+        HttpLogger logger = new HttpLogger(endpoint, policy()
+                .withMaxBatchRecords(50)
+                .withMaxPendingBatches(2)
+                .withSpillDirectory(spill));
+        log(logger, 1000, LogKind.INFO);
+        logger.flush();
+        awaitTrue(() -> files(spill) > 0);
+        assertTrue(files(spill) > 0, "nothing was spilled");
+
+        status = 200;
+        awaitTrue(() -> logger.getDeliveredCount() == 1000);
+        logger.close();
+
+        assertEquals(1000, received.size());
+        assertEquals(1000, logger.getDeliveredCount());
+        assertEquals(0, logger.getDroppedCount());
+        assertEquals(0, files(spill));
+    }
+
+    private static HttpPolicy policy() {
+        return HttpPolicy.defaults()
+                .withMaxBatchAgeMillis(50)
+                .withBackoff(10, 100)
+                .withRequestTimeoutMillis(2000);
+    }
+
+    private static void log(HttpLogger logger, int count, LogKind kind) {
+        for (int i = 0; i < count; i++) {
+            logger.log(LogEvent.of(ENTRY + i, kind));
+        }
+    }
+
+    private static void awaitTrue(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.holds() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static long files(Path directory) throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.count();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            Integer failure = failures.poll();
+            int code = failure != null ? failure : status;
+            if (code == 200) {
+                body.lines()
+                        .filter(line -> line.contains(ENTRY))
+                        .forEach(line -> received.add(line.substring(line.indexOf(ENTRY))));
+            }
+            exchange.sendResponseHeaders(code, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean holds() throws Exception;
+    }
+}
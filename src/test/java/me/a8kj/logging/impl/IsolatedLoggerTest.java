@@ -0,0 +1,80 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.Log;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.util.StackTraceRenderer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks what queued destinations write for an entry with an exception.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class IsolatedLoggerTest {
+
+    private final List<Logger> destinations = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Logger destination : destinations) {
+            Log.removeDestination(destination);
+            ((AutoCloseable) destination).close();
+        }
+        Log.setStackTraceRenderer(StackTraceRenderer.full());
+    }
+
+    @Test
+    void queuedDestinationsShowTheSameStackTrace() throws Exception {
+        Log.setStackTraceRenderer(StackTraceRenderer.full().withBackReferences(true));
+        RecordingLogger first = new RecordingLogger();
+        RecordingLogger second = new RecordingLogger();
+        RecordingLogger third = new RecordingLogger();
+        add(new IsolatedLogger(first, IsolationPolicy.defaults()));
+        add(new IsolatedLogger(second, IsolationPolicy.defaults()));
+        add(new AsyncLogger(third));
+
+        Log.exception("failed", new IllegalStateException("boom"));
+        for (Logger destination : destinations) {
+            ((AutoCloseable) destination).close();
+        }
+
+        assertEquals(1, first.lines.size());
+        String line = first.lines.get(0);
+        assertFalse(line.contains("same trace as"), line);
+        assertEquals(List.of(line), second.lines);
+        assertEquals(List.of(line), third.lines);
+    }
+
+    private void add(Logger destination) {
+        destinations.add(destination);
+        Log.addDestination(destination);
+    }
+
+    /**
+     * Keeps the rendered body of every entry.
+     */
+    private static final class RecordingLogger implements Logger {
+
+        private final List<String> lines = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void log(String message, LogKind kind) {
+            lines.add(message);
+        }
+
+        @Override
+        public void log(LogEvent event) {
+            lines.add(event.render());
+        }
+    }
+}
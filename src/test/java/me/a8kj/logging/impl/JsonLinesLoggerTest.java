@@ -0,0 +1,184 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.Log;
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.LogScope;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.util.JsonParser;
+import me.a8kj.logging.util.StackTraceRenderer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Logs through {@link JsonLinesLogger} and parses the written lines back.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class JsonLinesLoggerTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<Logger> destinations = new ArrayList<>();
+    private Path file;
+    private JsonLinesLogger logger;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = directory.resolve("logs.jsonl");
+        logger = new JsonLinesLogger(file.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Logger destination : destinations) {
+            Log.removeDestination(destination);
+        }
+        logger.close();
+        Log.setStackTraceRenderer(StackTraceRenderer.full());
+    }
+
+    @Test
+    void writesEventValuesAndTypedFields() throws Exception {
+        add(logger);
+        Log.create()
+                .context(new LogContext("Orders"))
+                .kind(LogKind.WARN)
+                .message("\u001B[31mplaced\u001B[0m %s \"%d\"", "é😀", 7)
+                .field("orderId", 42L)
+                .field("price", 9.5)
+                .field("ratio", Double.NaN)
+                .field("paid", true)
+                .field("grade", 'A')
+                .field("note", "line\nbreak")
+                .field("missing", (Object) null)
+                .send();
+
+        Map<String, Object> line = single();
+        assertEquals(LogKind.WARN.name(), line.get("kind"));
+        assertEquals("Orders", line.get("context"));
+        assertEquals(Thread.currentThread().getName(), line.get("thread"));
+        assertEquals("placed é😀 \"7\"", line.get("message"));
+        assertTrue(line.get("timestamp") instanceof Long);
+        assertFalse(line.containsKey("error"));
+        Map<String, Object> fields = map(line.get("fields"));
+        assertEquals(42L, fields.get("orderId"));
+        assertEquals(9.5, fields.get("price"));
+        assertEquals("NaN", fields.get("ratio"));
+        assertEquals(true, fields.get("paid"));
+        assertEquals("A", fields.get("grade"));
+        assertEquals("line\nbreak", fields.get("note"));
+        assertTrue(fields.containsKey("missing"));
+        assertNull(fields.get("missing"));
+    }
+
+    @Test
+    void innerScopesAndEventFieldsShadowOuterScopes() throws Exception {
+        add(logger);
+        try (LogScope outer = LogScope.with("reqId", "outer").and("user", "ann")) {
+            try (LogScope inner = LogScope.with("reqId", "inner")) {
+                Log.create().message("scoped").field("user", "bob").send();
+            }
+            Log.create().message("outer only").send();
+        }
+        Log.create().message("no scope").send();
+
+        List<Map<String, Object>> lines = lines();
+        assertEquals(3, lines.size());
+        assertEquals(Map.of("reqId", "inner", "user", "bob"), lines.get(0).get("fields"));
+        assertEquals(Map.of("reqId", "outer", "user", "ann"), lines.get(1).get("fields"));
+        assertFalse(lines.get(2).containsKey("fields"));
+    }
+
+    @Test
+    void discardsAPartialLineWhenAFieldCannotBeRendered() throws Exception {
+        add(logger);
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("broken");
+            }
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> Log.create().message("first").field("ok", 1).field("bad", broken).send());
+        Log.create().message("second").send();
+
+        List<Map<String, Object>> lines = lines();
+        assertEquals(1, lines.size());
+        assertEquals("second", lines.get(0).get("message"));
+    }
+
+    @Test
+    void writesTheSameStackTraceAsTextSinks() throws Exception {
+        Log.setStackTraceRenderer(StackTraceRenderer.full().withBackReferences(true));
+        List<String> text = new ArrayList<>();
+        add(new Logger() {
+            @Override
+            public void log(String message, LogKind kind) {
+                text.add(message);
+            }
+
+            @Override
+            public void log(LogEvent event) {
+                text.add(event.render());
+            }
+        });
+        add(logger);
+
+        IllegalArgumentException failure = new IllegalArgumentException("bad input");
+        Log.exception("first", failure);
+        Log.exception("again", failure);
+
+        List<Map<String, Object>> lines = lines();
+        assertEquals(2, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Map<String, Object> error = map(lines.get(i).get("error"));
+            assertEquals(IllegalArgumentException.class.getName(), error.get("type"));
+            assertEquals("bad input", error.get("message"));
+            String stackTrace = (String) error.get("stackTrace");
+            assertTrue(text.get(i).endsWith("\n" + stackTrace), "text and JSON traces differ: " + stackTrace);
+        }
+        String first = (String) map(lines.get(0).get("error")).get("stackTrace");
+        assertTrue(first.contains("writesTheSameStackTraceAsTextSinks"), first);
+        assertFalse(first.contains("same trace as"), first);
+        assertTrue(((String) map(lines.get(1).get("error")).get("stackTrace")).contains("same trace as"));
+    }
+
+    private void add(Logger destination) {
+        destinations.add(destination);
+        Log.addDestination(destination);
+    }
+
+    private Map<String, Object> single() throws Exception {
+        List<Map<String, Object>> lines = lines();
+        assertEquals(1, lines.size());
+        return lines.get(0);
+    }
+
+    private List<Map<String, Object>> lines() throws Exception {
+        logger.flush();
+        return JsonParser.parseLines(Files.readAllBytes(file));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
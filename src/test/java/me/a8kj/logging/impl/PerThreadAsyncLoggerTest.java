@@ -0,0 +1,73 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link PerThreadAsyncLogger} delivers every entry logged while it is being closed.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class PerThreadAsyncLoggerTest {
+
+    private static final int ROUNDS = 50;
+    private static final int PRODUCERS = 4;
+
+    @Test
+    void closeDeliversEntriesOfConcurrentProducers() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            CountingLogger destination = new CountingLogger();
+            PerThreadAsyncLogger logger = new PerThreadAsyncLogger(destination);
+            LongAdder logged = new LongAdder();
+            CountDownLatch started = new CountDownLatch(PRODUCERS * 2);
+
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < PRODUCERS; i++) {
+                producers.add(Thread.ofPlatform().start(() -> produce(logger, logged, started)));
+                producers.add(Thread.ofVirtual().start(() -> produce(logger, logged, started)));
+            }
+            started.await();
+            logger.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(logged.sum(), destination.count.sum(), "round " + round);
+        }
+    }
+
+    private static void produce(PerThreadAsyncLogger logger, LongAdder logged, CountDownLatch started) {
+        started.countDown();
+        for (int i = 0; i < 2000; i++) {
+            logger.log(LogEvent.of("entry " + i, LogKind.INFO));
+            logged.increment();
+        }
+    }
+
+    /**
+     * Counts the entries it receives.
+     */
+    private static final class CountingLogger implements Logger {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void log(String message, LogKind kind) {
+            count.increment();
+        }
+
+        @Override
+        public void log(LogEvent event) {
+            count.increment();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package me.a8kj.logging.impl;
+
+import me.a8kj.logging.LogEvent;
+import me.a8kj.logging.LogKind;
+import me.a8kj.logging.util.TimestampFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how {@link RollingFileLogger} rotates its file and what happens when a rotation fails.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class RollingFileLoggerTest {
+
+    private static final int LINE_LENGTH = ("[00:00:00] [INFO] entry 000" + System.lineSeparator()).length();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsWritingAndRetriesWhenTheRenameFails() throws Exception {
+        Path file = directory.resolve("app.log");
+        RollingPolicy policy = RollingPolicy.bySize(10L * LINE_LENGTH).withCompression(false);
+        try (RollingFileLogger logger = new RollingFileLogger(file.toString(), policy,
+                FlushPolicy.always(), TimestampFormatter.TIME_OF_DAY)) {
+            log(logger, 0, 10);
+            // A rename of a file that is gone fails, like one blocked by another process.
+            Files.delete(file);
+            log(logger, 10, 30);
+        }
+
+        List<Path> archives = archives(file);
+        assertEquals(1, archives.size(), archives.toString());
+        List<String> lines = new ArrayList<>(Files.readAllLines(archives.get(0)));
+        lines.addAll(Files.readAllLines(file));
+        assertEquals(IntStream.range(10, 30).mapToObj(i -> String.format("entry %03d", i)).toList(),
+                lines.stream().map(line -> line.substring(line.indexOf("] [INFO] ") + 9)).toList());
+        assertTrue(lines.get(0).matches("\\[\\d{2}:\\d{2}:\\d{2}] \\[INFO] entry 010"), lines.get(0));
+    }
+
+    @Test
+    void rotatesOnceTheSizeLimitIsReached() throws Exception {
+        Path file = directory.resolve("app.log");
+        RollingPolicy policy = RollingPolicy.bySize(10L * LINE_LENGTH).withCompression(false);
+        try (RollingFileLogger logger = new RollingFileLogger(file.toString(), policy,
+                FlushPolicy.always(), TimestampFormatter.TIME_OF_DAY)) {
+            log(logger, 0, 25);
+        }
+
+        assertEquals(2, archives(file).size());
+        assertEquals(5, Files.readAllLines(file).size());
+    }
+
+    private static void log(RollingFileLogger logger, int from, int to) {
+        for (int i = from; i < to; i++) {
+            logger.log(LogEvent.of(String.format("entry %03d", i), LogKind.INFO));
+        }
+    }
+
+    private static List<Path> archives(Path file) throws Exception {
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            return files.filter(path -> path.getFileName().toString().startsWith(file.getFileName() + "."))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
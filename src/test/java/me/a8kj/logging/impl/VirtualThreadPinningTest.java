@@ -0,0 +1,228 @@
+package me.a8kj.logging.impl;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import me.a8kj.logging.Log;
+import me.a8kj.logging.LogContext;
+import me.a8kj.logging.Logger;
+import me.a8kj.logging.util.TimestampFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Logs from 100k virtual threads through the console and file sinks while JFR records
+ * {@code jdk.VirtualThreadPinned}, and checks that no carrier thread was pinned.
+ * JFR only reports a monitor that blocks, so the logging methods of every destination
+ * are also checked for the {@code synchronized} modifier.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class VirtualThreadPinningTest {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final int THREADS = 100_000;
+    private static final Set<String> LOGGING_METHODS = Set.of("log", "flush", "isEnabled", "getName", "close");
+
+    @TempDir
+    Path directory;
+
+    private final List<Logger> destinations = new ArrayList<>();
+    private final LineCounter console = new LineCounter();
+    private PrintStream stdout;
+
+    @BeforeEach
+    void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(console, false, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        System.setOut(stdout);
+        for (Logger destination : destinations) {
+            Log.removeDestination(destination);
+            ((AutoCloseable) destination).close();
+        }
+    }
+
+    @Test
+    void sinksDoNotPinCarrierThreads() throws Exception {
+        add(new FileLogger(directory.resolve("file.log").toString()));
+        add(new ChannelFileLogger(directory.resolve("channel.log").toString()));
+        add(new BinaryFileLogger(directory.resolve("binary.log").toString()));
+        MappedFileLogger mapped = new MappedFileLogger(directory.resolve("mapped.log").toString(), 1024 * 1024);
+        add(mapped);
+        RollingFileLogger rolling = new RollingFileLogger(directory.resolve("rolling.log").toString(),
+                RollingPolicy.bySize(1024 * 1024).withCompression(false), FlushPolicy.grouped(512, 1000),
+                TimestampFormatter.ISO_LOCAL_MILLIS);
+        add(rolling);
+        ConsoleLogger consoleLogger = new ConsoleLogger();
+        Log.addDestination(consoleLogger);
+
+        LogContext ctx = new LogContext("Stress");
+        List<RecordedEvent> pinned = record(() -> {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < THREADS; i++) {
+                    int id = i;
+                    executor.submit(() -> Log.info(ctx, "request %d handled", id));
+                }
+            }
+        });
+        Log.removeDestination(consoleLogger);
+        System.out.flush();
+        for (Logger destination : destinations) {
+            destination.flush();
+        }
+        mapped.close();
+        rolling.close();
+
+        assertTrue(pinned.isEmpty(), "pinned: " + pinned);
+        assertEquals(THREADS, console.lines.get());
+        assertEquals(THREADS, lines(directory.resolve("file.log")));
+        assertEquals(THREADS, lines(directory.resolve("channel.log")));
+        StringBuilder decoded = new StringBuilder();
+        BinaryLogDecoder.decode(directory.resolve("binary.log"), decoded);
+        assertEquals(THREADS, decoded.chars().filter(c -> c == '\n').count());
+        assertEquals(THREADS, linesOfAll("mapped.log."));
+        assertEquals(THREADS, linesOfAll("rolling.log"));
+    }
+
+    @Test
+    void destinationsDoNotSynchronizeLogging() throws Exception {
+        Path classes = Path.of(Logger.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> offenders = new ArrayList<>();
+        int checked = 0;
+        try (Stream<Path> files = Files.list(classes.resolve("me/a8kj/logging/impl"))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".class")) continue;
+                Class<?> type = Class.forName(getClass().getPackageName() + "."
+                        + name.substring(0, name.length() - ".class".length()), false, getClass().getClassLoader());
+                if (!Logger.class.isAssignableFrom(type)) continue;
+                checked++;
+                for (Method method : type.getDeclaredMethods()) {
+                    if (LOGGING_METHODS.contains(method.getName()) && Modifier.isSynchronized(method.getModifiers())) {
+                        offenders.add(type.getSimpleName() + "." + method.getName());
+                    }
+                }
+            }
+        }
+
+        assertTrue(checked >= 10, "only " + checked + " destinations found in " + classes);
+        assertTrue(offenders.isEmpty(), "synchronized logging methods: " + offenders);
+    }
+
+    @Test
+    void recordingDetectsPinning() throws Exception {
+        Object monitor = new Object();
+        List<RecordedEvent> pinned = record(() -> {
+            Thread thread = Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(Duration.ofMillis(20));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            thread.join();
+        });
+
+        assertFalse(pinned.isEmpty(), "sleeping in a monitor was not recorded as pinning");
+    }
+
+    private void add(Logger destination) {
+        destinations.add(destination);
+        Log.addDestination(destination);
+    }
+
+    private List<RecordedEvent> record(Workload workload) throws Exception {
+        Path dump = directory.resolve("pinning.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> pinned = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (event.getEventType().getName().equals(PINNED)) {
+                pinned.add(event);
+            }
+        }
+        Files.delete(dump);
+        return pinned;
+    }
+
+    private static long lines(Path file) throws IOException {
+        try (var lines = Files.lines(file)) {
+            return lines.count();
+        }
+    }
+
+    /**
+     * Counts the line separators in every file whose name starts with the prefix.
+     */
+    private long linesOfAll(String prefix) throws IOException {
+        long count = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().startsWith(prefix)) continue;
+                for (byte b : Files.readAllBytes(file)) {
+                    if (b == '\n') count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        void run() throws Exception;
+    }
+
+    /**
+     * Counts the lines written to the console without storing them.
+     */
+    private static final class LineCounter extends OutputStream {
+
+        private final AtomicLong lines = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') lines.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') lines.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package me.a8kj.logging.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A strict JSON parser for reading encoded log lines back in tests. Objects become
+ * {@link LinkedHashMap}s, arrays {@link List}s, integers {@link Long}s and other numbers
+ * {@link Double}s. Invalid UTF-8, unescaped control characters, duplicate names and
+ * trailing content are rejected.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+public final class JsonParser {
+
+    private final String text;
+    private int position;
+
+    private JsonParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses one JSON document.
+     *
+     * @param text The document.
+     * @return The parsed value.
+     * @throws IllegalArgumentException if the text is not exactly one valid JSON value.
+     */
+    public static Object parse(String text) {
+        JsonParser parser = new JsonParser(text);
+        Object value = parser.value();
+        parser.whitespace();
+        if (parser.position != text.length()) throw parser.error("trailing content");
+        return value;
+    }
+
+    /**
+     * Decodes UTF-8 strictly and parses every line as one JSON object.
+     *
+     * @param bytes JSON Lines, each line terminated by {@code '\n'}.
+     * @return The parsed objects in order.
+     * @throws IllegalArgumentException if the bytes are not valid UTF-8 JSON Lines.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, Object>> parseLines(byte[] bytes) {
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("invalid UTF-8", e);
+        }
+        if (!text.isEmpty() && !text.endsWith("\n")) throw new IllegalArgumentException("unterminated line");
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (String line : text.split("\n", -1)) {
+            if (line.isEmpty()) continue;
+            Object value = parse(line);
+            if (!(value instanceof Map)) throw new IllegalArgumentException("not an object: " + line);
+            lines.add((Map<String, Object>) value);
+        }
+        return lines;
+    }
+
+    private Object value() {
+        whitespace();
+        if (position == text.length()) throw error("unexpected end");
+        char c = text.charAt(position);
+        return switch (c) {
+            case '{' -> object();
+            case '[' -> array();
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> number();
+        };
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        whitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        for (; ; ) {
+            whitespace();
+            if (peek() != '"') throw error("expected a name");
+            String name = string();
+            whitespace();
+            expect(':');
+            if (object.containsKey(name)) throw error("duplicate name " + name);
+            object.put(name, value());
+            whitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        whitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        for (; ; ) {
+            array.add(value());
+            whitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String string() {
+        StringBuilder sb = new StringBuilder();
+        position++;
+        for (; ; ) {
+            if (position == text.length()) throw error("unterminated string");
+            char c = text.charAt(position++);
+            if (c == '"') return sb.toString();
+            if (c < 0x20) throw error("unescaped control character");
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position == text.length()) throw error("unterminated escape");
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) throw error("short unicode escape");
+                    sb.append((char) Integer.parseInt(text, position, position + 4, 16));
+                    position += 4;
+                }
+                default -> throw error("invalid escape \\" + escaped);
+            }
+        }
+    }
+
+    private Object number() {
+        int start = position;
+        if (peek() == '-') position++;
+        digits();
+        boolean integral = true;
+        if (peek() == '.') {
+            integral = false;
+            position++;
+            digits();
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            integral = false;
+            position++;
+            if (peek() == '+' || peek() == '-') position++;
+            digits();
+        }
+        String number = text.substring(start, position);
+        return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+    }
+
+    private void digits() {
+        int start = position;
+        while (position < text.length() && Character.isDigit(text.charAt(position))) {
+            position++;
+        }
+        if (position == start) throw error("expected a digit");
+    }
+
+    private Object literal(String literal, Object value) {
+        if (!text.startsWith(literal, position)) throw error("expected " + literal);
+        position += literal.length();
+        return value;
+    }
+
+    private void whitespace() {
+        while (position < text.length() && " \t\r\n".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error("expected '" + c + "'");
+        position++;
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException(reason + " at " + position + ": " + text);
+    }
+}
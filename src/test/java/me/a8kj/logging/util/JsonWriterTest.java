@@ -0,0 +1,144 @@
+package me.a8kj.logging.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Encodes values with {@link JsonWriter} and parses them back with a strict parser.
+ *
+ * @author <a href="https://github.com/a8kj7sea">a8kj7sea</a>
+ */
+class JsonWriterTest {
+
+    @Test
+    void escapesStringsSoTheyRoundTrip() {
+        String[] values = {
+                "plain",
+                "quote \" backslash \\ slash /",
+                "line\nreturn\rtab\tback\bfeed\f",
+                "control \u0000 \u0001 \u001f delete \u007f",
+                "latin é, cjk 漢字, emoji 😀",
+                "lone high \uD800 and low \uDC00 surrogates",
+                "high at the end \uD83D",
+                ""
+        };
+        JsonWriter json = new JsonWriter(16);
+        for (String value : values) {
+            json.beginObject().name("v").value(value).endObject().newLine();
+        }
+
+        List<Map<String, Object>> lines = JsonParser.parseLines(json.toByteArray());
+        assertEquals(values.length, lines.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], lines.get(i).get("v"));
+        }
+    }
+
+    @Test
+    void escapesNames() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject().name("a\"b\nc").value(1).endObject().newLine();
+
+        assertEquals(1L, JsonParser.parseLines(json.toByteArray()).get(0).get("a\"b\nc"));
+    }
+
+    @Test
+    void keepsJsonTypesOfNumbersBooleansAndNull() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject()
+                .name("min").value(Long.MIN_VALUE)
+                .name("max").value(Long.MAX_VALUE)
+                .name("zero").value(0)
+                .name("double").value(-1.5e-7)
+                .name("true").value(true)
+                .name("false").value(false)
+                .name("null").nullValue()
+                .name("boxed").value((Object) 42)
+                .name("decimal").value((Object) new BigDecimal("12345678901234567890.5"))
+                .name("object").value((Object) List.of(1, 2))
+                .endObject().newLine();
+
+        Map<String, Object> line = JsonParser.parseLines(json.toByteArray()).get(0);
+        assertEquals(Long.MIN_VALUE, line.get("min"));
+        assertEquals(Long.MAX_VALUE, line.get("max"));
+        assertEquals(0L, line.get("zero"));
+        assertEquals(-1.5e-7, line.get("double"));
+        assertEquals(true, line.get("true"));
+        assertEquals(false, line.get("false"));
+        assertNull(line.get("null"));
+        assertEquals(42L, line.get("boxed"));
+        assertEquals(1.2345678901234567e19, line.get("decimal"));
+        assertEquals("[1, 2]", line.get("object"));
+    }
+
+    @Test
+    void writesNonFiniteDoublesAsStrings() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject()
+                .name("nan").value(Double.NaN)
+                .name("inf").value(Double.POSITIVE_INFINITY)
+                .name("negInf").value(Double.NEGATIVE_INFINITY)
+                .name("boxedNan").value((Object) Float.NaN)
+                .endObject().newLine();
+
+        Map<String, Object> line = JsonParser.parseLines(json.toByteArray()).get(0);
+        assertEquals("NaN", line.get("nan"));
+        assertEquals("Infinity", line.get("inf"));
+        assertEquals("-Infinity", line.get("negInf"));
+        assertEquals("NaN", line.get("boxedNan"));
+    }
+
+    @Test
+    void nestsObjects() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject()
+                .name("outer").beginObject()
+                .name("inner").beginObject().endObject()
+                .name("after").value("x")
+                .endObject()
+                .name("last").value(1)
+                .endObject().newLine();
+
+        assertEquals(Map.of("outer", Map.of("inner", Map.of(), "after", "x"), "last", 1L),
+                JsonParser.parseLines(json.toByteArray()).get(0));
+    }
+
+    @Test
+    void truncateDiscardsAPartialLine() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject().name("n").value(1).endObject().newLine();
+        int start = json.size();
+        json.beginObject().name("n").value(2).name("nested").beginObject().name("half");
+        json.truncate(start);
+        json.beginObject().name("n").value(3).endObject().newLine();
+
+        List<Map<String, Object>> lines = JsonParser.parseLines(json.toByteArray());
+        assertEquals(List.of(Map.of("n", 1L), Map.of("n", 3L)), lines);
+    }
+
+    @Test
+    void truncateRejectsSizesOutOfRange() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject().endObject();
+
+        assertThrows(IllegalArgumentException.class, () -> json.truncate(-1));
+        assertThrows(IllegalArgumentException.class, () -> json.truncate(json.size() + 1));
+    }
+
+    @Test
+    void resetStartsANewBuffer() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject().name("n").value(1).endObject().newLine();
+        json.reset();
+        json.beginObject().name("n").value(2).endObject().newLine();
+
+        assertEquals(List.of(Map.of("n", 2L)), JsonParser.parseLines(json.toByteArray()));
+    }
+}